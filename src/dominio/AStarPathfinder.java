@@ -0,0 +1,51 @@
+package dominio;
+
+/**
+ * A* search, expanding one tile at a time toward its four neighbours.
+ * 
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class AStarPathfinder extends Pathfinder {
+
+	private static final int[] DX = { 1, -1, 0, 0 };
+	private static final int[] DY = { 0, 0, 1, -1 };
+
+	/**
+	 * Creates a walking pathfinder guided by the Manhattan distance.
+	 */
+	public AStarPathfinder() {
+		this(PathCost.WALKING, PathHeuristic.MANHATTAN);
+	}
+
+	/**
+	 * Creates a pathfinder with its own cost and heuristic.
+	 * 
+	 * @param cost      cost of stepping onto each tile
+	 * @param heuristic estimate of the remaining cost
+	 */
+	public AStarPathfinder(PathCost cost, PathHeuristic heuristic) {
+		super(cost, heuristic);
+	}
+
+	@Override
+	protected boolean search(int goal) {
+		while (!isOpenEmpty()) {
+			int tile = pollOpen();
+			if (tile == goal)
+				return true;
+			int x = tile % width;
+			int y = tile / width;
+			int base = costOf(tile);
+			for (int d = 0; d < 4; d++) {
+				int nx = x + DX[d];
+				int ny = y + DY[d];
+				if (!inside(nx, ny))
+					continue;
+				int step = stepCost(nx, ny);
+				if (step != PathCost.BLOCKED)
+					relax(ny * width + nx, base + step, tile);
+			}
+		}
+		return false;
+	}
+}
@@ -24,6 +24,13 @@ public class Banana extends Fruit {
         // Los plátanos son estáticos
     }
     
+    @Override
+    Fruit copy() {
+        Banana copy = new Banana(row, column);
+        copy.copyFrom(this);
+        return copy;
+    }
+    
     @Override
     public String getType() {
         return "BANANA";
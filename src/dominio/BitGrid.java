@@ -0,0 +1,126 @@
+package dominio;
+
+/**
+ * Packed two dimensional bit set used as the storage of the map layers. Every
+ * cell is kept twice, once in row-major words and once in column-major words,
+ * so that scans along a row or along a column both run 64 cells at a time.
+ * Subclasses decide how the words are allocated.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+abstract class BitGrid {
+
+	private static final int WORD_BITS = 64;
+
+	protected final int width;
+	protected final int height;
+
+	/**
+	 * Creates an empty grid.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	protected BitGrid(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * @param bits number of bits
+	 * @return number of 64 bit words needed to hold them
+	 */
+	static int wordsFor(int bits) {
+		return (bits + WORD_BITS - 1) >>> 6;
+	}
+
+	/**
+	 * @return true if the bit at (x, y) is set
+	 */
+	abstract boolean get(int x, int y);
+
+	/**
+	 * Sets or clears a single bit.
+	 */
+	abstract void set(int x, int y, boolean value);
+
+	/**
+	 * Sets or clears the cells [fromX, toX) of row y.
+	 */
+	abstract void setRowRange(int y, int fromX, int toX, boolean value);
+
+	/**
+	 * Sets or clears the cells [fromY, toY) of column x.
+	 */
+	abstract void setColumnRange(int x, int fromY, int toY, boolean value);
+
+	/**
+	 * @return first x >= fromX in row y whose bit equals value, or -1
+	 */
+	abstract int nextInRow(int y, int fromX, boolean value);
+
+	/**
+	 * @return last x <= fromX in row y whose bit equals value, or -1
+	 */
+	abstract int previousInRow(int y, int fromX, boolean value);
+
+	/**
+	 * @return first y >= fromY in column x whose bit equals value, or -1
+	 */
+	abstract int nextInColumn(int x, int fromY, boolean value);
+
+	/**
+	 * @return last y <= fromY in column x whose bit equals value, or -1
+	 */
+	abstract int previousInColumn(int x, int fromY, boolean value);
+
+	/**
+	 * Clears every bit.
+	 */
+	abstract void clear();
+
+	/**
+	 * @return number of set bits
+	 */
+	abstract long count();
+
+	/**
+	 * Makes this grid an exact copy of another one of the same size, copying
+	 * it by runs of set bits. Subclasses copy their words directly when both
+	 * grids share the layout.
+	 *
+	 * @param other grid to copy
+	 * @throws IllegalArgumentException if the sizes differ
+	 */
+	void copyFrom(BitGrid other) {
+		checkSameSize(other);
+		for (int y = 0; y < height; y++) {
+			setRowRange(y, 0, width, false);
+			int from = other.nextInRow(y, 0, true);
+			while (from >= 0) {
+				int to = other.nextInRow(y, from, false);
+				if (to < 0)
+					to = width;
+				setRowRange(y, from, to, true);
+				from = to < width ? other.nextInRow(y, to, true) : -1;
+			}
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the other grid has another size
+	 */
+	protected void checkSameSize(BitGrid other) {
+		if (other.width != width || other.height != height)
+			throw new IllegalArgumentException(
+					"Grid size " + other.width + "x" + other.height + " does not match " + width + "x" + height);
+	}
+
+	int getWidth() {
+		return width;
+	}
+
+	int getHeight() {
+		return height;
+	}
+}
@@ -38,6 +38,7 @@ public class Cactus extends Fruit {
                 hasSpikes = !hasSpikes;
                 cycleTimer = 0;
             }
+            rehash();
         }
     }
     
@@ -62,6 +63,27 @@ public class Cactus extends Fruit {
         return (SPIKE_CYCLE_TIME - cycleTimer) / 10;
     }
     
+    @Override
+    void copyFrom(Fruit other) {
+        super.copyFrom(other);
+        Cactus cactus = (Cactus) other;
+        hasSpikes = cactus.hasSpikes;
+        cycleTimer = cactus.cycleTimer;
+        rehash();
+    }
+    
+    @Override
+    long computeZobrist() {
+        return Zobrist.key(super.computeZobrist(), hasSpikes ? 1 : 0, cycleTimer);
+    }
+    
+    @Override
+    Fruit copy() {
+        Cactus copy = new Cactus(row, column);
+        copy.copyFrom(this);
+        return copy;
+    }
+    
     @Override
     public String getType() {
         return "Cactus";
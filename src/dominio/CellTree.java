@@ -0,0 +1,192 @@
+package dominio;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent 32-ary tree holding the state byte of every tile. Leaves cover 64
+ * tiles of one row and are only allocated once one of their tiles is not
+ * empty. Every node remembers the epoch that created it: nodes of the current
+ * epoch are written in place, older ones are copied along the path first. So
+ * {@link #freeze()} is O(1) and the frozen root never changes afterwards, while
+ * the live tree only copies the paths to the rows modified since.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class CellTree {
+
+	static final int SEGMENT_SHIFT = 6;
+	static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+	private static final int BITS = 5;
+	private static final int FANOUT = 1 << BITS;
+	private static final int SLOT_MASK = FANOUT - 1;
+
+	// Las épocas no se repiten entre árboles, así ningún árbol escribe nodos ajenos
+	private static final AtomicInteger EPOCHS = new AtomicInteger();
+
+	/**
+	 * Receives the tiles found different by {@link CellTree#diff}.
+	 */
+	interface CellVisitor {
+		void cellChanged(int x, int y, byte oldState, byte newState);
+	}
+
+	/**
+	 * Tree node: either a branch with children or a leaf with tile states. A null
+	 * child stands for a subtree whose tiles are all empty.
+	 */
+	static final class Node {
+		final int epoch;
+		final Node[] children;
+		final byte[] cells;
+
+		Node(int epoch, Node[] children, byte[] cells) {
+			this.epoch = epoch;
+			this.children = children;
+			this.cells = cells;
+		}
+	}
+
+	private final int width;
+	private final int height;
+	private final int segmentsPerRow;
+	private final int depth; // niveles de ramas sobre las hojas
+
+	private Node root;
+	private int epoch;
+
+	/**
+	 * Creates a tree where every tile is empty.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	CellTree(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.segmentsPerRow = (width + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT;
+		long leaves = (long) segmentsPerRow * height;
+		int levels = 0;
+		while ((1L << (levels * BITS)) < leaves) {
+			levels++;
+		}
+		this.depth = levels;
+		this.epoch = EPOCHS.incrementAndGet();
+	}
+
+	/**
+	 * @return state of a tile in the live tree
+	 */
+	byte get(int x, int y) {
+		return get(root, x, y);
+	}
+
+	/**
+	 * @return state of a tile in the tree with the given root
+	 */
+	byte get(Node node, int x, int y) {
+		int leaf = y * segmentsPerRow + (x >>> SEGMENT_SHIFT);
+		for (int level = depth - 1; level >= 0 && node != null; level--) {
+			node = node.children[(leaf >>> (level * BITS)) & SLOT_MASK];
+		}
+		return node == null ? 0 : node.cells[x & (SEGMENT_SIZE - 1)];
+	}
+
+	/**
+	 * Writes the state of a tile in the live tree, copying the nodes on its path
+	 * that belong to a frozen root.
+	 */
+	void set(int x, int y, byte state) {
+		if (get(x, y) == state)
+			return;
+		int leaf = y * segmentsPerRow + (x >>> SEGMENT_SHIFT);
+		root = writable(root, depth == 0);
+		Node node = root;
+		for (int level = depth - 1; level >= 0; level--) {
+			int slot = (leaf >>> (level * BITS)) & SLOT_MASK;
+			Node child = writable(node.children[slot], level == 0);
+			node.children[slot] = child;
+			node = child;
+		}
+		node.cells[x & (SEGMENT_SIZE - 1)] = state;
+	}
+
+	/**
+	 * @return node of the current epoch with the same content as the given one
+	 */
+	private Node writable(Node node, boolean leaf) {
+		if (node != null && node.epoch == epoch)
+			return node;
+		if (leaf)
+			return new Node(epoch, null, node == null ? new byte[SEGMENT_SIZE] : node.cells.clone());
+		return new Node(epoch, node == null ? new Node[FANOUT] : node.children.clone(), null);
+	}
+
+	/**
+	 * Freezes the live tree. The returned root is never written again.
+	 *
+	 * @return the frozen root
+	 */
+	Node freeze() {
+		epoch = EPOCHS.incrementAndGet();
+		return root;
+	}
+
+	/**
+	 * Replaces the live tree with a frozen one of the same size.
+	 *
+	 * @param frozen root previously returned by {@link #freeze()}
+	 */
+	void adopt(Node frozen) {
+		root = frozen;
+		epoch = EPOCHS.incrementAndGet();
+	}
+
+	int getWidth() {
+		return width;
+	}
+
+	int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return root of the live tree
+	 */
+	Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * Visits every tile whose state differs between two roots of this tree.
+	 * Shared subtrees are skipped without being walked.
+	 */
+	void diff(Node from, Node to, CellVisitor visitor) {
+		diff(from, to, depth, 0, visitor);
+	}
+
+	private void diff(Node from, Node to, int level, int firstLeaf, CellVisitor visitor) {
+		if (from == to)
+			return;
+		if (level == 0) {
+			int y = firstLeaf / segmentsPerRow;
+			int baseX = (firstLeaf % segmentsPerRow) << SEGMENT_SHIFT;
+			int count = Math.min(SEGMENT_SIZE, width - baseX);
+			for (int i = 0; i < count; i++) {
+				byte before = from == null ? 0 : from.cells[i];
+				byte after = to == null ? 0 : to.cells[i];
+				if (before != after) {
+					visitor.cellChanged(baseX + i, y, before, after);
+				}
+			}
+			return;
+		}
+		int span = 1 << ((level - 1) * BITS);
+		for (int slot = 0; slot < FANOUT; slot++) {
+			int leaf = firstLeaf + slot * span;
+			if (leaf >= segmentsPerRow * height)
+				break;
+			diff(from == null ? null : from.children[slot], to == null ? null : to.children[slot], level - 1, leaf,
+					visitor);
+		}
+	}
+}
@@ -9,6 +9,8 @@ public abstract class Character {
 	protected int row;
 	protected int column;
 
+	long zobrist; // clave del estado, se actualiza con cada cambio
+
 	/**
 	 * Creates a new character at the given position.
 	 *
@@ -18,6 +20,7 @@ public abstract class Character {
 	public Character(int row, int column) {
 		this.row = row;
 		this.column = column;
+		rehash();
 	}
 
 	/**
@@ -29,6 +32,7 @@ public abstract class Character {
 	public void moveTo(int r, int c) {
 		this.row = r;
 		this.column = c;
+		rehash();
 	}
 
 	/** @return the row of the character */
@@ -52,6 +56,41 @@ public abstract class Character {
 	public void setPosition(int r, int c) {
 		this.row = r;
 		this.column = c;
+		rehash();
+	}
+
+	/**
+	 * Takes the position of another character.
+	 * 
+	 * @param other character to copy
+	 */
+	void copyFrom(Character other) {
+		this.row = other.getRow();
+		this.column = other.getColumn();
+		rehash();
+	}
+
+	/**
+	 * Brings the key of this character up to date after a change of its
+	 * state.
+	 */
+	final void rehash() {
+		zobrist = computeZobrist();
+	}
+
+	/**
+	 * @return key of this character in the game hash, as of the last change
+	 */
+	long getZobrist() {
+		return zobrist;
 	}
 
+	/**
+	 * Computes the key of this character from its whole state, without the
+	 * kept one; used by the slow check of the hash.
+	 * 
+	 * @return the key
+	 */
+	abstract long computeZobrist();
+
 }
\ No newline at end of file
@@ -1,7 +1,5 @@
 package dominio;
 
-import java.util.Random;
-
 /**
  * Cherry fruit - teleports randomly around the map.
  * Worth 150 points.
@@ -11,7 +9,6 @@ import java.util.Random;
 public class Cherry extends Fruit {
     
     private static final int CHERRY_POINTS = 150;
-    private Random random;
     private int tickCounter;
     private static final int TELEPORT_INTERVAL = 50; // Teletransporta cada 50 ticks (~5 segundos)
     
@@ -23,7 +20,6 @@ public class Cherry extends Fruit {
      */
     public Cherry(int row, int column) {
         super(row, column, CHERRY_POINTS);
-        random = new Random();
         tickCounter = 0;
     }
     
@@ -36,6 +32,7 @@ public class Cherry extends Fruit {
             teleport();
             tickCounter = 0;
         }
+        rehash();
     }
     
     /**
@@ -55,8 +52,8 @@ public class Cherry extends Fruit {
      * @param newCol new column position
      */
     public void teleportTo(int newRow, int newCol) {
-        setPosition(newRow, newCol);
         tickCounter = 0;
+        setPosition(newRow, newCol);
     }
     
     /**
@@ -66,6 +63,29 @@ public class Cherry extends Fruit {
         return tickCounter >= TELEPORT_INTERVAL;
     }
     
+    @Override
+    void copyFrom(Fruit other) {
+        super.copyFrom(other);
+        Cherry cherry = (Cherry) other;
+        tickCounter = cherry.tickCounter;
+        rehash();
+    }
+    
+    /**
+     * The key covers the teleport timer; the game draws the new tile.
+     */
+    @Override
+    long computeZobrist() {
+        return Zobrist.key(super.computeZobrist(), tickCounter, 0);
+    }
+    
+    @Override
+    Fruit copy() {
+        Cherry copy = new Cherry(row, column);
+        copy.copyFrom(this);
+        return copy;
+    }
+    
     @Override
     public String getType() {
         return "Cherry";
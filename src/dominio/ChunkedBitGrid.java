@@ -0,0 +1,271 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Bit grid split in 64x64 chunks that are only allocated on the first write.
+ * Chunks that were never written all share one empty sentinel, so memory grows
+ * with the touched area instead of with the size of the board. Each chunk keeps
+ * 64 row words followed by 64 column words.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class ChunkedBitGrid extends BitGrid {
+
+	static final int CHUNK_SHIFT = 6;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final long ALL_ONES = -1L;
+	private static final long[] EMPTY = new long[2 * CHUNK_SIZE]; // centinela compartido
+
+	private final int chunksX;
+	private final int chunksY;
+	private final long[][] chunks;
+	private int allocatedChunks;
+
+	/**
+	 * Creates an empty grid. No chunk is allocated yet.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	ChunkedBitGrid(int width, int height) {
+		super(width, height);
+		chunksX = wordsFor(width);
+		chunksY = wordsFor(height);
+		chunks = new long[chunksX * chunksY][];
+		Arrays.fill(chunks, EMPTY);
+	}
+
+	/**
+	 * @return the chunk at the given index, allocating it if it is the sentinel
+	 */
+	private long[] writable(int index) {
+		long[] chunk = chunks[index];
+		if (chunk == EMPTY) {
+			chunk = new long[2 * CHUNK_SIZE];
+			chunks[index] = chunk;
+			allocatedChunks++;
+		}
+		return chunk;
+	}
+
+	@Override
+	boolean get(int x, int y) {
+		long[] chunk = chunks[(y >>> CHUNK_SHIFT) * chunksX + (x >>> CHUNK_SHIFT)];
+		return (chunk[y & CHUNK_MASK] & (1L << x)) != 0;
+	}
+
+	@Override
+	void set(int x, int y, boolean value) {
+		int index = (y >>> CHUNK_SHIFT) * chunksX + (x >>> CHUNK_SHIFT);
+		if (!value && chunks[index] == EMPTY) {
+			return;
+		}
+		long[] chunk = writable(index);
+		if (value) {
+			chunk[y & CHUNK_MASK] |= 1L << x;
+			chunk[CHUNK_SIZE + (x & CHUNK_MASK)] |= 1L << y;
+		} else {
+			chunk[y & CHUNK_MASK] &= ~(1L << x);
+			chunk[CHUNK_SIZE + (x & CHUNK_MASK)] &= ~(1L << y);
+		}
+	}
+
+	@Override
+	void setRowRange(int y, int fromX, int toX, boolean value) {
+		if (fromX >= toX) {
+			return;
+		}
+		int base = (y >>> CHUNK_SHIFT) * chunksX;
+		int row = y & CHUNK_MASK;
+		for (int cx = fromX >>> CHUNK_SHIFT; cx <= (toX - 1) >>> CHUNK_SHIFT; cx++) {
+			if (!value && chunks[base + cx] == EMPTY) {
+				continue;
+			}
+			int start = Math.max(fromX, cx << CHUNK_SHIFT) & CHUNK_MASK;
+			int end = Math.min(toX, (cx + 1) << CHUNK_SHIFT) - (cx << CHUNK_SHIFT);
+			long[] chunk = writable(base + cx);
+			long mask = (ALL_ONES << start) & (ALL_ONES >>> -end);
+			if (value) {
+				chunk[row] |= mask;
+			} else {
+				chunk[row] &= ~mask;
+			}
+			for (int local = start; local < end; local++) {
+				if (value) {
+					chunk[CHUNK_SIZE + local] |= 1L << row;
+				} else {
+					chunk[CHUNK_SIZE + local] &= ~(1L << row);
+				}
+			}
+		}
+	}
+
+	@Override
+	void setColumnRange(int x, int fromY, int toY, boolean value) {
+		if (fromY >= toY) {
+			return;
+		}
+		int cx = x >>> CHUNK_SHIFT;
+		int column = x & CHUNK_MASK;
+		for (int cy = fromY >>> CHUNK_SHIFT; cy <= (toY - 1) >>> CHUNK_SHIFT; cy++) {
+			int index = cy * chunksX + cx;
+			if (!value && chunks[index] == EMPTY) {
+				continue;
+			}
+			int start = Math.max(fromY, cy << CHUNK_SHIFT) & CHUNK_MASK;
+			int end = Math.min(toY, (cy + 1) << CHUNK_SHIFT) - (cy << CHUNK_SHIFT);
+			long[] chunk = writable(index);
+			long mask = (ALL_ONES << start) & (ALL_ONES >>> -end);
+			if (value) {
+				chunk[CHUNK_SIZE + column] |= mask;
+			} else {
+				chunk[CHUNK_SIZE + column] &= ~mask;
+			}
+			for (int local = start; local < end; local++) {
+				if (value) {
+					chunk[local] |= 1L << column;
+				} else {
+					chunk[local] &= ~(1L << column);
+				}
+			}
+		}
+	}
+
+	@Override
+	int nextInRow(int y, int fromX, boolean value) {
+		if (fromX < 0) {
+			fromX = 0;
+		}
+		if (fromX >= width) {
+			return -1;
+		}
+		int base = (y >>> CHUNK_SHIFT) * chunksX;
+		int row = y & CHUNK_MASK;
+		int cx = fromX >>> CHUNK_SHIFT;
+		long word = wordOf(chunks[base + cx][row], value) & (ALL_ONES << fromX);
+		while (true) {
+			if (word != 0) {
+				int index = (cx << CHUNK_SHIFT) + Long.numberOfTrailingZeros(word);
+				return index < width ? index : -1;
+			}
+			if (++cx == chunksX) {
+				return -1;
+			}
+			word = wordOf(chunks[base + cx][row], value);
+		}
+	}
+
+	@Override
+	int previousInRow(int y, int fromX, boolean value) {
+		if (fromX < 0) {
+			return -1;
+		}
+		int base = (y >>> CHUNK_SHIFT) * chunksX;
+		int row = y & CHUNK_MASK;
+		int cx = fromX >>> CHUNK_SHIFT;
+		long word = wordOf(chunks[base + cx][row], value) & (ALL_ONES >>> (63 - (fromX & CHUNK_MASK)));
+		while (true) {
+			if (word != 0) {
+				return (cx << CHUNK_SHIFT) + 63 - Long.numberOfLeadingZeros(word);
+			}
+			if (cx-- == 0) {
+				return -1;
+			}
+			word = wordOf(chunks[base + cx][row], value);
+		}
+	}
+
+	@Override
+	int nextInColumn(int x, int fromY, boolean value) {
+		if (fromY < 0) {
+			fromY = 0;
+		}
+		if (fromY >= height) {
+			return -1;
+		}
+		int cx = x >>> CHUNK_SHIFT;
+		int column = CHUNK_SIZE + (x & CHUNK_MASK);
+		int cy = fromY >>> CHUNK_SHIFT;
+		long word = wordOf(chunks[cy * chunksX + cx][column], value) & (ALL_ONES << fromY);
+		while (true) {
+			if (word != 0) {
+				int index = (cy << CHUNK_SHIFT) + Long.numberOfTrailingZeros(word);
+				return index < height ? index : -1;
+			}
+			if (++cy == chunksY) {
+				return -1;
+			}
+			word = wordOf(chunks[cy * chunksX + cx][column], value);
+		}
+	}
+
+	@Override
+	int previousInColumn(int x, int fromY, boolean value) {
+		if (fromY < 0) {
+			return -1;
+		}
+		int cx = x >>> CHUNK_SHIFT;
+		int column = CHUNK_SIZE + (x & CHUNK_MASK);
+		int cy = fromY >>> CHUNK_SHIFT;
+		long word = wordOf(chunks[cy * chunksX + cx][column], value) & (ALL_ONES >>> (63 - (fromY & CHUNK_MASK)));
+		while (true) {
+			if (word != 0) {
+				return (cy << CHUNK_SHIFT) + 63 - Long.numberOfLeadingZeros(word);
+			}
+			if (cy-- == 0) {
+				return -1;
+			}
+			word = wordOf(chunks[cy * chunksX + cx][column], value);
+		}
+	}
+
+	private static long wordOf(long word, boolean value) {
+		return value ? word : ~word;
+	}
+
+	@Override
+	void clear() {
+		Arrays.fill(chunks, EMPTY);
+		allocatedChunks = 0;
+	}
+
+	@Override
+	void copyFrom(BitGrid other) {
+		if (!(other instanceof ChunkedBitGrid)) {
+			super.copyFrom(other);
+			return;
+		}
+		checkSameSize(other);
+		long[][] sources = ((ChunkedBitGrid) other).chunks;
+		for (int i = 0; i < chunks.length; i++) {
+			if (sources[i] != EMPTY) {
+				System.arraycopy(sources[i], 0, writable(i), 0, 2 * CHUNK_SIZE);
+			} else if (chunks[i] != EMPTY) {
+				Arrays.fill(chunks[i], 0L); // Se conserva para la próxima copia
+			}
+		}
+	}
+
+	@Override
+	long count() {
+		long total = 0;
+		for (long[] chunk : chunks) {
+			if (chunk != EMPTY) {
+				for (int row = 0; row < CHUNK_SIZE; row++) {
+					total += Long.bitCount(chunk[row]);
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * @return number of chunks that hold their own words
+	 */
+	int getAllocatedChunks() {
+		return allocatedChunks;
+	}
+}
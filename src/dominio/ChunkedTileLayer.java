@@ -0,0 +1,89 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Tile layer split in 64x64 chunks that are only allocated when an obstacle is
+ * placed inside them. Chunks without obstacles cost one null reference.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class ChunkedTileLayer extends TileLayer {
+
+	private static final int SHIFT = ChunkedBitGrid.CHUNK_SHIFT;
+	private static final int MASK = ChunkedBitGrid.CHUNK_SIZE - 1;
+	private static final int CHUNK_TILES = ChunkedBitGrid.CHUNK_SIZE * ChunkedBitGrid.CHUNK_SIZE;
+
+	private final int chunksX;
+	private final byte[][] kinds;
+	private final int[][] handles;
+
+	/**
+	 * Creates an empty layer. No chunk is allocated yet.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	ChunkedTileLayer(int width, int height) {
+		chunksX = BitGrid.wordsFor(width);
+		int chunkCount = chunksX * BitGrid.wordsFor(height);
+		kinds = new byte[chunkCount][];
+		handles = new int[chunkCount][];
+	}
+
+	@Override
+	byte getKind(int x, int y) {
+		byte[] chunk = kinds[(y >>> SHIFT) * chunksX + (x >>> SHIFT)];
+		return chunk == null ? 0 : chunk[((y & MASK) << SHIFT) | (x & MASK)];
+	}
+
+	@Override
+	int getHandle(int x, int y) {
+		int[] chunk = handles[(y >>> SHIFT) * chunksX + (x >>> SHIFT)];
+		return chunk == null ? NO_HANDLE : chunk[((y & MASK) << SHIFT) | (x & MASK)];
+	}
+
+	@Override
+	void set(int x, int y, byte kind, int handle) {
+		int index = (y >>> SHIFT) * chunksX + (x >>> SHIFT);
+		if (kinds[index] == null) {
+			if (kind == 0 && handle == NO_HANDLE) {
+				return;
+			}
+			kinds[index] = new byte[CHUNK_TILES];
+			handles[index] = new int[CHUNK_TILES];
+			Arrays.fill(handles[index], NO_HANDLE);
+		}
+		int tile = ((y & MASK) << SHIFT) | (x & MASK);
+		kinds[index][tile] = kind;
+		handles[index][tile] = handle;
+	}
+
+	@Override
+	void copyFrom(TileLayer other, int width, int height) {
+		if (!(other instanceof ChunkedTileLayer) || ((ChunkedTileLayer) other).kinds.length != kinds.length) {
+			super.copyFrom(other, width, height);
+			return;
+		}
+		ChunkedTileLayer chunked = (ChunkedTileLayer) other;
+		for (int i = 0; i < kinds.length; i++) {
+			if (chunked.kinds[i] == null) {
+				kinds[i] = null;
+				handles[i] = null;
+				continue;
+			}
+			if (kinds[i] == null) {
+				kinds[i] = new byte[CHUNK_TILES];
+				handles[i] = new int[CHUNK_TILES];
+			}
+			System.arraycopy(chunked.kinds[i], 0, kinds[i], 0, CHUNK_TILES);
+			System.arraycopy(chunked.handles[i], 0, handles[i], 0, CHUNK_TILES);
+		}
+	}
+
+	@Override
+	void clear() {
+		Arrays.fill(kinds, null);
+		Arrays.fill(handles, null);
+	}
+}
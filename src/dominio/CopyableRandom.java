@@ -0,0 +1,60 @@
+package dominio;
+
+import java.util.Random;
+
+/**
+ * Random number generator whose state can be copied into another one, so a
+ * copied game draws the same numbers as the original. It keeps the seed of
+ * {@link Random} in a plain field and steps it with the same formula, so for
+ * the same seed it produces exactly the same sequence. The spare value that
+ * {@link Random#nextGaussian()} keeps is not copied.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class CopyableRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+
+	private long state; // lo asigna setSeed, llamado desde el constructor de Random
+
+	/**
+	 * Creates a generator with a seed that is very likely distinct from any
+	 * other.
+	 */
+	CopyableRandom() {
+		super();
+	}
+
+	/**
+	 * Creates a generator with a fixed seed.
+	 *
+	 * @param seed initial seed
+	 */
+	CopyableRandom(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		super.setSeed(seed);
+		state = (seed ^ MULTIPLIER) & MASK;
+	}
+
+	@Override
+	protected int next(int bits) {
+		state = (state * MULTIPLIER + ADDEND) & MASK;
+		return (int) (state >>> (48 - bits));
+	}
+
+	/**
+	 * Continues from the same point as another generator.
+	 *
+	 * @param other generator to copy
+	 */
+	void copyFrom(CopyableRandom other) {
+		state = other.state;
+	}
+}
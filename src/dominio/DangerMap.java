@@ -0,0 +1,149 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Earliest tick at which any enemy can be on each tile of the map, for bots,
+ * hints and difficulty analysis. Every enemy steps one tile per tick; enemies
+ * that break ice pay the ticks it takes to break a block and step onto it, and
+ * one already busy breaking a block next to it only pays what is left. Each
+ * group of enemies with the same ice cost spreads over the map as one
+ * {@link DistanceField}, so the map is repaired from the enemies' moves and
+ * the map's change journal instead of being searched again every tick.
+ *
+ * The map is read-only outside the game; {@link Game#getDangerMap()} brings
+ * it up to date.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class DangerMap {
+
+	/** Arrival tick of tiles that no enemy can reach. */
+	public static final int SAFE = -1;
+
+	private static final int SLOTS = 5; // casilla propia y las cuatro vecinas con hielo
+	private static final int[] DX = { 1, -1, 0, 0 };
+	private static final int[] DY = { 0, 0, 1, -1 };
+
+	private final List<DistanceField> fields = new ArrayList<>(); // uno por costo del hielo
+	private int[] columns = new int[0];
+	private int[] rows = new int[0];
+	private int[] starts = new int[0];
+	private int width;
+	private int height;
+
+	/**
+	 * Brings the map up to date with the enemies' positions and the map.
+	 *
+	 * @param map     current map of the game
+	 * @param enemies enemies of the game; the ones off the board are ignored
+	 */
+	void update(IceMap map, List<Enemy> enemies) {
+		width = map.getWidth();
+		height = map.getHeight();
+		for (Enemy enemy : enemies) {
+			fieldFor(enemy.getIceCost());
+		}
+		if (columns.length < enemies.size() * SLOTS) {
+			columns = new int[enemies.size() * SLOTS];
+			rows = new int[columns.length];
+			starts = new int[columns.length];
+		}
+		for (DistanceField field : fields) {
+			int iceCost = field.getIceCost();
+			int count = 0;
+			for (Enemy enemy : enemies) {
+				if (enemy.getIceCost() == iceCost) {
+					count = addSources(map, enemy, iceCost, count);
+				}
+			}
+			field.update(map, count, columns, rows, starts);
+		}
+	}
+
+	/**
+	 * Returns the earliest tick at which an enemy can be on a tile, counting
+	 * from now: 0 for the tiles enemies stand on.
+	 *
+	 * @param x tile x
+	 * @param y tile y
+	 * @return number of ticks, or SAFE
+	 */
+	public int getArrivalTick(int x, int y) {
+		int best = SAFE;
+		for (DistanceField field : fields) {
+			int ticks = field.getDistance(x, y);
+			if (ticks != DistanceField.UNREACHABLE && (best == SAFE || ticks < best))
+				best = ticks;
+		}
+		return best;
+	}
+
+	/**
+	 * @param x tile x
+	 * @param y tile y
+	 * @return true if no enemy can reach the tile
+	 */
+	public boolean isSafe(int x, int y) {
+		return getArrivalTick(x, y) == SAFE;
+	}
+
+	/**
+	 * @return width of the map at the last update
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return height of the map at the last update
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	private DistanceField fieldFor(int iceCost) {
+		for (DistanceField field : fields) {
+			if (field.getIceCost() == iceCost)
+				return field;
+		}
+		DistanceField field = DistanceField.spreading(iceCost);
+		fields.add(field);
+		return field;
+	}
+
+	/**
+	 * Adds the enemy's own tile and, for an enemy halfway through breaking a
+	 * block, its neighbouring ice tiles at the ticks they still take. Every
+	 * enemy takes the same number of slots, unused ones off the map, so the
+	 * fields are not rebuilt when a break starts or ends.
+	 *
+	 * @return next free slot
+	 */
+	private int addSources(IceMap map, Enemy enemy, int iceCost, int count) {
+		int x = enemy.getColumn();
+		int y = enemy.getRow();
+		setSource(count++, x, y, 0);
+		if (iceCost == DistanceField.BLOCKED)
+			return count;
+		int progress = enemy.getBreakProgress();
+		boolean onBoard = x >= 0 && x < width && y >= 0 && y < height;
+		for (int d = 0; d < 4; d++) {
+			int nx = x + DX[d];
+			int ny = y + DY[d];
+			if (onBoard && progress > 0 && map.hasIce(nx, ny)) {
+				setSource(count++, nx, ny, Math.max(1, iceCost - progress));
+			} else {
+				setSource(count++, -1, -1, 0);
+			}
+		}
+		return count;
+	}
+
+	private void setSource(int slot, int x, int y, int start) {
+		columns[slot] = x;
+		rows[slot] = y;
+		starts[slot] = start;
+	}
+}
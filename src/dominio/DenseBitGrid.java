@@ -0,0 +1,196 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Bit grid that allocates every word up front in two flat arrays. Best for the
+ * regular board sizes, where every tile is read on every frame.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class DenseBitGrid extends BitGrid {
+
+	private static final long ALL_ONES = -1L;
+
+	private final int rowWords; // palabras por fila
+	private final int columnWords; // palabras por columna
+	private final long[] rows;
+	private final long[] columns;
+
+	/**
+	 * Creates an empty grid.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	DenseBitGrid(int width, int height) {
+		super(width, height);
+		rowWords = wordsFor(width);
+		columnWords = wordsFor(height);
+		rows = new long[height * rowWords];
+		columns = new long[width * columnWords];
+	}
+
+	@Override
+	boolean get(int x, int y) {
+		return (rows[y * rowWords + (x >>> 6)] & (1L << x)) != 0;
+	}
+
+	@Override
+	void set(int x, int y, boolean value) {
+		int rowIndex = y * rowWords + (x >>> 6);
+		int columnIndex = x * columnWords + (y >>> 6);
+		if (value) {
+			rows[rowIndex] |= 1L << x;
+			columns[columnIndex] |= 1L << y;
+		} else {
+			rows[rowIndex] &= ~(1L << x);
+			columns[columnIndex] &= ~(1L << y);
+		}
+	}
+
+	@Override
+	void setRowRange(int y, int fromX, int toX, boolean value) {
+		if (fromX >= toX) {
+			return;
+		}
+		fillWords(rows, y * rowWords, fromX, toX, value);
+		for (int x = fromX; x < toX; x++) {
+			int columnIndex = x * columnWords + (y >>> 6);
+			if (value) {
+				columns[columnIndex] |= 1L << y;
+			} else {
+				columns[columnIndex] &= ~(1L << y);
+			}
+		}
+	}
+
+	@Override
+	void setColumnRange(int x, int fromY, int toY, boolean value) {
+		if (fromY >= toY) {
+			return;
+		}
+		fillWords(columns, x * columnWords, fromY, toY, value);
+		for (int y = fromY; y < toY; y++) {
+			int rowIndex = y * rowWords + (x >>> 6);
+			if (value) {
+				rows[rowIndex] |= 1L << x;
+			} else {
+				rows[rowIndex] &= ~(1L << x);
+			}
+		}
+	}
+
+	/**
+	 * Fills the bits [from, to) of a line that starts at word offset base.
+	 */
+	private static void fillWords(long[] words, int base, int from, int to, boolean value) {
+		int firstWord = from >>> 6;
+		int lastWord = (to - 1) >>> 6;
+		long firstMask = ALL_ONES << from;
+		long lastMask = ALL_ONES >>> -to;
+
+		if (firstWord == lastWord) {
+			applyMask(words, base + firstWord, firstMask & lastMask, value);
+			return;
+		}
+		applyMask(words, base + firstWord, firstMask, value);
+		for (int w = firstWord + 1; w < lastWord; w++) {
+			words[base + w] = value ? ALL_ONES : 0L;
+		}
+		applyMask(words, base + lastWord, lastMask, value);
+	}
+
+	private static void applyMask(long[] words, int index, long mask, boolean value) {
+		if (value) {
+			words[index] |= mask;
+		} else {
+			words[index] &= ~mask;
+		}
+	}
+
+	@Override
+	int nextInRow(int y, int fromX, boolean value) {
+		return next(rows, y * rowWords, rowWords, width, fromX, value);
+	}
+
+	@Override
+	int previousInRow(int y, int fromX, boolean value) {
+		return previous(rows, y * rowWords, fromX, value);
+	}
+
+	@Override
+	int nextInColumn(int x, int fromY, boolean value) {
+		return next(columns, x * columnWords, columnWords, height, fromY, value);
+	}
+
+	@Override
+	int previousInColumn(int x, int fromY, boolean value) {
+		return previous(columns, x * columnWords, fromY, value);
+	}
+
+	private static int next(long[] words, int base, int count, int length, int from, boolean value) {
+		if (from < 0) {
+			from = 0;
+		}
+		if (from >= length) {
+			return -1;
+		}
+		int w = from >>> 6;
+		long word = (value ? words[base + w] : ~words[base + w]) & (ALL_ONES << from);
+		while (true) {
+			if (word != 0) {
+				int index = (w << 6) + Long.numberOfTrailingZeros(word);
+				return index < length ? index : -1;
+			}
+			if (++w == count) {
+				return -1;
+			}
+			word = value ? words[base + w] : ~words[base + w];
+		}
+	}
+
+	private static int previous(long[] words, int base, int from, boolean value) {
+		if (from < 0) {
+			return -1;
+		}
+		int w = from >>> 6;
+		long word = (value ? words[base + w] : ~words[base + w]) & (ALL_ONES >>> (63 - (from & 63)));
+		while (true) {
+			if (word != 0) {
+				return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+			}
+			if (w-- == 0) {
+				return -1;
+			}
+			word = value ? words[base + w] : ~words[base + w];
+		}
+	}
+
+	@Override
+	void clear() {
+		Arrays.fill(rows, 0L);
+		Arrays.fill(columns, 0L);
+	}
+
+	@Override
+	void copyFrom(BitGrid other) {
+		if (!(other instanceof DenseBitGrid)) {
+			super.copyFrom(other);
+			return;
+		}
+		checkSameSize(other);
+		DenseBitGrid dense = (DenseBitGrid) other;
+		System.arraycopy(dense.rows, 0, rows, 0, rows.length);
+		System.arraycopy(dense.columns, 0, columns, 0, columns.length);
+	}
+
+	@Override
+	long count() {
+		long total = 0;
+		for (long word : rows) {
+			total += Long.bitCount(word);
+		}
+		return total;
+	}
+}
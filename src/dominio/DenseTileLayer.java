@@ -0,0 +1,61 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Tile layer that allocates one byte and one handle per tile up front.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class DenseTileLayer extends TileLayer {
+
+	private final int width;
+	private final byte[] kinds;
+	private final int[] handles;
+
+	/**
+	 * Creates an empty layer.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	DenseTileLayer(int width, int height) {
+		this.width = width;
+		kinds = new byte[width * height];
+		handles = new int[width * height];
+		Arrays.fill(handles, NO_HANDLE);
+	}
+
+	@Override
+	byte getKind(int x, int y) {
+		return kinds[y * width + x];
+	}
+
+	@Override
+	int getHandle(int x, int y) {
+		return handles[y * width + x];
+	}
+
+	@Override
+	void set(int x, int y, byte kind, int handle) {
+		kinds[y * width + x] = kind;
+		handles[y * width + x] = handle;
+	}
+
+	@Override
+	void copyFrom(TileLayer other, int width, int height) {
+		if (!(other instanceof DenseTileLayer) || ((DenseTileLayer) other).kinds.length != kinds.length) {
+			super.copyFrom(other, width, height);
+			return;
+		}
+		DenseTileLayer dense = (DenseTileLayer) other;
+		System.arraycopy(dense.kinds, 0, kinds, 0, kinds.length);
+		System.arraycopy(dense.handles, 0, handles, 0, handles.length);
+	}
+
+	@Override
+	void clear() {
+		Arrays.fill(kinds, (byte) 0);
+		Arrays.fill(handles, NO_HANDLE);
+	}
+}
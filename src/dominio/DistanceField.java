@@ -0,0 +1,489 @@
+package dominio;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Travel time from every tile of the map to the closest of several target
+ * tiles (the players) and which target that is, shared by every enemy chasing
+ * them. Stepping onto a free tile takes one tick; stepping onto ice takes a
+ * fixed number of ticks for enemies that break it, or is impossible for the
+ * rest. Igloos always block. Each tile keeps one label, its distance times the
+ * number of targets plus the index of the closest target, so ties go to the
+ * first target and one field serves any number of players. The field follows the map through
+ * its change journal and repairs only the tiles whose distance actually
+ * changed: when a target moves or a tile opens or closes, tiles that lost
+ * their shortest path are found in increasing distance order and recomputed,
+ * and shorter paths are spread from the tiles that gained one. When a change
+ * invalidates a large part of the board (a target stepping across an open
+ * floor) the field is recomputed with a plain breadth-first search instead.
+ * Chasers then choose their next step by looking at four neighbours: the
+ * right one has the same nearest target and satisfies
+ * {@code distance(next) + stepCost(next) == distance(here)}.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class DistanceField {
+
+	/** Distance of tiles from which no target can be reached. */
+	public static final int UNREACHABLE = -1;
+
+	/** Ice cost of enemies that cannot break ice. */
+	public static final int BLOCKED = -1;
+
+	private static final int INF = Integer.MAX_VALUE;
+	private static final int[] DX = { 1, -1, 0, 0 };
+	private static final int[] DY = { 0, 0, 1, -1 };
+
+	private IceMap map;
+	private long version;
+	private boolean resetPending;
+	private int width;
+	private int height;
+	private int[] targets = new int[0]; // casilla de cada objetivo, -1 si está fuera del mapa
+	private int[] delays = new int[0]; // ticks con que cada objetivo empieza
+	private boolean delayed; // algún objetivo empieza tarde: no sirve el recorrido en anchura
+	private int sources = 1; // etiqueta = distancia * sources + índice del objetivo
+	private final int iceCost;
+	private final boolean spreading; // tiempo desde los objetivos, sin índice
+	private int[] columns = new int[0]; // posiciones de los jugadores al actualizar
+	private int[] rows = new int[0];
+
+	private int[] labels;
+	private int[] costs; // ticks para entrar a cada casilla, INF si no se puede
+	private int[] orphanMarks; // ronda en que la casilla perdió su camino
+	private int round;
+
+	private int[] lost = new int[16]; // casillas que pudieron perder su camino
+	private int lostCount;
+	private int[] gained = new int[16]; // casillas que pudieron ganar uno
+	private int gainedCount;
+	private int[] orphans = new int[16];
+	private int[] queue = new int[16];
+	private final LongHeap heap = new LongHeap();
+
+	private final IceMapListener changes = new IceMapListener() {
+		@Override
+		public void tileChanged(int x, int y, byte oldState, byte newState, long changeVersion) {
+			int cost = costOf(newState);
+			int cell = y * width + x;
+			if (resetPending || cost == costs[cell])
+				return;
+			// El costo de una casilla cambia el camino de sus vecinas
+			boolean cheaper = cost < costs[cell];
+			costs[cell] = cost;
+			addLost(cell);
+			if (cheaper)
+				addGained(cell);
+			for (int d = 0; d < 4; d++) {
+				int neighbour = neighbour(x, y, d);
+				if (neighbour >= 0) {
+					addLost(neighbour);
+					if (cheaper)
+						addGained(neighbour);
+				}
+			}
+		}
+
+		@Override
+		public void mapReset(long changeVersion) {
+			resetPending = true;
+		}
+	};
+
+	/**
+	 * Creates an empty field that tells which target is the closest; the first
+	 * update computes it.
+	 *
+	 * @param iceCost ticks to break and enter an ice tile, or BLOCKED
+	 */
+	DistanceField(int iceCost) {
+		this(iceCost, false);
+	}
+
+	private DistanceField(int iceCost, boolean spreading) {
+		this.iceCost = iceCost == BLOCKED ? INF : iceCost;
+		this.spreading = spreading;
+	}
+
+	/**
+	 * Creates an empty field of the time the targets themselves need to reach
+	 * every tile, paying for each tile they enter instead of each tile they
+	 * leave. The closest target is not kept, so any number of targets fits in
+	 * the labels.
+	 *
+	 * @param iceCost ticks to break and enter an ice tile, or BLOCKED
+	 * @return the field
+	 */
+	static DistanceField spreading(int iceCost) {
+		return new DistanceField(iceCost, true);
+	}
+
+	/**
+	 * Brings the field up to date with the map and the players' positions.
+	 *
+	 * @param map     current map of the game
+	 * @param players targets, in the order used by {@link #getNearestTarget}
+	 */
+	void update(IceMap map, List<Player> players) {
+		int count = players.size();
+		if (columns.length < count) {
+			columns = new int[count];
+			rows = new int[count];
+		}
+		for (int i = 0; i < count; i++) {
+			columns[i] = players.get(i).getColumn();
+			rows[i] = players.get(i).getRow();
+		}
+		update(map, count, columns, rows, null);
+	}
+
+	/**
+	 * Brings the field up to date with the map and the targets. A target may
+	 * start late: its own tile is reached after its delay, and the rest of the
+	 * board after the delay plus the travel time.
+	 *
+	 * @param map     current map of the game
+	 * @param count   number of targets; a change rebuilds the field
+	 * @param xs      target columns, outside the map for unused targets
+	 * @param ys      target rows
+	 * @param starts  ticks before each target starts moving, or null for none
+	 */
+	void update(IceMap map, int count, int[] xs, int[] ys, int[] starts) {
+		if (map != this.map || map.getWidth() != width || map.getHeight() != height) {
+			attach(map);
+		} else {
+			version = map.drainChanges(version, changes);
+		}
+		if (count != targets.length) {
+			targets = new int[count];
+			delays = new int[count];
+			sources = spreading ? 1 : Math.max(1, count);
+			resetPending = true;
+		}
+		for (int i = 0; i < count; i++) {
+			int x = xs[i];
+			int y = ys[i];
+			int cell = x >= 0 && x < width && y >= 0 && y < height ? y * width + x : -1;
+			int delay = starts == null ? 0 : starts[i];
+			if (resetPending) {
+				targets[i] = cell;
+				delays[i] = delay;
+			} else if (cell != targets[i] || delay != delays[i]) {
+				if (targets[i] >= 0)
+					addLost(targets[i]);
+				targets[i] = cell;
+				delays[i] = delay;
+				if (cell >= 0)
+					addGained(cell);
+			}
+		}
+		delayed = false;
+		for (int i = 0; i < count; i++) {
+			delayed |= delays[i] != 0;
+		}
+		if (resetPending) {
+			rebuild();
+			return;
+		}
+		if (lostCount > 0 || gainedCount > 0)
+			repair();
+	}
+
+	/**
+	 * Returns the travel time from a tile to the closest target.
+	 *
+	 * @param x tile x
+	 * @param y tile y
+	 * @return number of ticks, or UNREACHABLE
+	 */
+	public int getDistance(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return UNREACHABLE;
+		int label = labels[y * width + x];
+		return label == INF ? UNREACHABLE : label / sources;
+	}
+
+	/**
+	 * Returns which target is closest to a tile; among equally close targets,
+	 * the first one.
+	 *
+	 * @param x tile x
+	 * @param y tile y
+	 * @return index of the target in the list given to the last update (0
+	 *         for fields that do not keep it), or UNREACHABLE
+	 */
+	public int getNearestTarget(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return UNREACHABLE;
+		int label = labels[y * width + x];
+		return label == INF ? UNREACHABLE : label % sources;
+	}
+
+	/**
+	 * Returns the ticks needed to step onto a tile.
+	 *
+	 * @param x tile x
+	 * @param y tile y
+	 * @return number of ticks, or UNREACHABLE if the tile cannot be entered
+	 */
+	public int getStepCost(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			return UNREACHABLE;
+		int cost = costs[y * width + x];
+		return cost == INF ? UNREACHABLE : cost;
+	}
+
+	/**
+	 * @return ticks to break and enter an ice tile, or BLOCKED
+	 */
+	public int getIceCost() {
+		return iceCost == INF ? BLOCKED : iceCost;
+	}
+
+	private int costOf(byte state) {
+		if ((state & IceMap.TILE_IGLOO) != 0)
+			return INF;
+		return (state & IceMap.TILE_ICE) != 0 ? iceCost : 1;
+	}
+
+	private void attach(IceMap newMap) {
+		map = newMap;
+		width = newMap.getWidth();
+		height = newMap.getHeight();
+		labels = new int[width * height];
+		costs = new int[width * height];
+		orphanMarks = new int[width * height];
+		round = 0;
+		version = newMap.getVersion();
+		resetPending = true;
+	}
+
+	/**
+	 * Reads the tile costs again and recomputes the whole field.
+	 */
+	private void rebuild() {
+		resetPending = false;
+		version = map.getVersion();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				costs[y * width + x] = costOf(map.getCellState(x, y));
+			}
+		}
+		search();
+	}
+
+	/**
+	 * Recomputes the whole field from the targets: a breadth-first search when
+	 * every tile costs one tick, Dijkstra otherwise.
+	 */
+	private void search() {
+		lostCount = 0;
+		gainedCount = 0;
+		Arrays.fill(labels, INF);
+		heap.clear();
+		int head = 0;
+		int tail = 0;
+		for (int i = 0; i < targets.length; i++) {
+			int target = targets[i];
+			if (target < 0 || costs[target] == INF || labels[target] != INF)
+				continue;
+			labels[target] = targetLabel(target);
+			heap.push(LongHeap.key(labels[target], target));
+			if (tail == queue.length)
+				queue = Arrays.copyOf(queue, tail * 2);
+			queue[tail++] = target;
+		}
+		if (iceCost != INF || delayed) {
+			relax();
+			return;
+		}
+
+		// Los objetivos entran en orden: cada nivel queda ordenado por índice
+		while (head < tail) {
+			int current = queue[head++];
+			int next = labels[current] + sources;
+			int cx = current % width;
+			int cy = current / width;
+			for (int d = 0; d < 4; d++) {
+				int neighbour = neighbour(cx, cy, d);
+				if (neighbour >= 0 && costs[neighbour] != INF && labels[neighbour] == INF) {
+					labels[neighbour] = next;
+					if (tail == queue.length)
+						queue = Arrays.copyOf(queue, tail * 2);
+					queue[tail++] = neighbour;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Repairs the field after the pending losses and gains.
+	 */
+	private void repair() {
+		// Fase 1: en orden de distancia, marcar las casillas sin camino
+		if (++round == Integer.MAX_VALUE) {
+			Arrays.fill(orphanMarks, 0);
+			round = 1;
+		}
+		heap.clear();
+		for (int i = 0; i < lostCount; i++) {
+			int cell = lost[i];
+			if (labels[cell] != INF)
+				heap.push(LongHeap.key(labels[cell], cell));
+		}
+		lostCount = 0;
+		int orphanCount = 0;
+		int orphanLimit = labels.length / 16;
+		while (!heap.isEmpty()) {
+			long item = heap.pop();
+			int cell = LongHeap.tileOf(item);
+			int label = LongHeap.priorityOf(item);
+			if (label != labels[cell] || orphanMarks[cell] == round)
+				continue;
+			if (costs[cell] != INF && isSupported(cell))
+				continue;
+			if (orphanCount == orphanLimit) {
+				// Cambió casi todo el campo: sale más barato recorrerlo de nuevo
+				search();
+				return;
+			}
+			orphanMarks[cell] = round;
+			if (orphanCount == orphans.length)
+				orphans = Arrays.copyOf(orphans, orphanCount * 2);
+			orphans[orphanCount++] = cell;
+			if (costs[cell] == INF)
+				continue;
+			int cx = cell % width;
+			int cy = cell / width;
+			for (int d = 0; d < 4; d++) {
+				int neighbour = neighbour(cx, cy, d);
+				if (neighbour < 0 || orphanMarks[neighbour] == round || costs[neighbour] == INF)
+					continue;
+				int through = label + edgeCost(cell, neighbour); // etiqueta de quien llega por aquí
+				if (labels[neighbour] == through) {
+					heap.push(LongHeap.key(through, neighbour));
+				}
+			}
+		}
+		for (int i = 0; i < orphanCount; i++) {
+			labels[orphans[i]] = INF;
+		}
+
+		// Fase 2: recalcular desde el borde de lo que sigue conectado
+		heap.clear();
+		for (int i = 0; i < orphanCount; i++) {
+			seed(orphans[i]);
+		}
+		for (int i = 0; i < gainedCount; i++) {
+			seed(gained[i]);
+		}
+		gainedCount = 0;
+		relax();
+	}
+
+	/**
+	 * Runs Dijkstra from the queued tiles, skipping outdated entries.
+	 */
+	private void relax() {
+		while (!heap.isEmpty()) {
+			long item = heap.pop();
+			int cell = LongHeap.tileOf(item);
+			int label = LongHeap.priorityOf(item);
+			if (label != labels[cell])
+				continue;
+			int cx = cell % width;
+			int cy = cell / width;
+			for (int d = 0; d < 4; d++) {
+				int neighbour = neighbour(cx, cy, d);
+				if (neighbour < 0 || costs[neighbour] == INF)
+					continue;
+				int through = label + edgeCost(cell, neighbour);
+				if (labels[neighbour] > through) {
+					labels[neighbour] = through;
+					heap.push(LongHeap.key(through, neighbour));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if the tile is a target with its own label or still has a
+	 *         neighbour that has not lost its own path and leads to the same
+	 *         target at least as fast
+	 */
+	private boolean isSupported(int cell) {
+		if (labels[cell] == targetLabel(cell))
+			return true;
+		int cx = cell % width;
+		int cy = cell / width;
+		for (int d = 0; d < 4; d++) {
+			int neighbour = neighbour(cx, cy, d);
+			if (neighbour >= 0 && costs[neighbour] != INF && orphanMarks[neighbour] != round
+					&& labels[neighbour] != INF && labels[neighbour] + edgeCost(neighbour, cell) <= labels[cell])
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return lowest label among the targets standing on the tile, or INF
+	 */
+	private int targetLabel(int cell) {
+		int best = INF;
+		for (int i = 0; i < targets.length; i++) {
+			if (targets[i] == cell)
+				best = Math.min(best, delays[i] * sources + (spreading ? 0 : i));
+		}
+		return best;
+	}
+
+	/**
+	 * Gives a tile its best distance from its neighbours and queues it.
+	 */
+	private void seed(int cell) {
+		if (costs[cell] == INF)
+			return;
+		// Un objetivo que empieza tarde puede recibir antes a otro
+		int best = targetLabel(cell);
+		int cx = cell % width;
+		int cy = cell / width;
+		for (int d = 0; d < 4; d++) {
+			int neighbour = neighbour(cx, cy, d);
+			if (neighbour >= 0 && costs[neighbour] != INF && labels[neighbour] != INF)
+				best = Math.min(best, labels[neighbour] + edgeCost(neighbour, cell));
+		}
+		if (best < labels[cell]) {
+			labels[cell] = best;
+			heap.push(LongHeap.key(best, cell));
+		}
+	}
+
+	/**
+	 * @return label increase from a tile to its neighbour: the cost of the tile
+	 *         left toward the targets, or of the tile entered when spreading
+	 */
+	private int edgeCost(int from, int to) {
+		return costs[spreading ? to : from] * sources;
+	}
+
+	private int neighbour(int x, int y, int direction) {
+		int nx = x + DX[direction];
+		int ny = y + DY[direction];
+		if (nx < 0 || ny < 0 || nx >= width || ny >= height)
+			return -1;
+		return ny * width + nx;
+	}
+
+	private void addLost(int cell) {
+		if (lostCount == lost.length)
+			lost = Arrays.copyOf(lost, lostCount * 2);
+		lost[lostCount++] = cell;
+	}
+
+	private void addGained(int cell) {
+		if (gainedCount == gained.length)
+			gained = Arrays.copyOf(gained, gainedCount * 2);
+		gained[gainedCount++] = cell;
+	}
+}
@@ -0,0 +1,159 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trolls of a game that are asleep on a known cycle. A troll only ever walks
+ * the free run of its row or column, turning around at the ends, so once it
+ * knows that run it follows the cycle without reading the map (see
+ * {@link Troll}). The run and the two tiles that close it are the only tiles
+ * the cycle depends on; sleeping trolls are indexed by their row or column,
+ * and a change of walkability on those tiles, a map reset or a new map wakes
+ * them up again.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class DormantEnemies {
+
+	private IceMap map;
+	private long version;
+	private List<List<Troll>> byRow = new ArrayList<>(); // trolls que recorren cada fila
+	private List<List<Troll>> byColumn = new ArrayList<>();
+	private int sleeping;
+	private long tick; // ticks del juego, para el nivel de detalle
+
+	private final IceMapListener changes = new IceMapListener() {
+		@Override
+		public void tileChanged(int x, int y, byte oldState, byte newState, long changeVersion) {
+			boolean wasFree = (oldState & (IceMap.TILE_ICE | IceMap.TILE_IGLOO)) == 0;
+			boolean isFree = (newState & (IceMap.TILE_ICE | IceMap.TILE_IGLOO)) == 0;
+			if (wasFree != isFree && sleeping > 0) {
+				wakeWatching(byRow.get(y), x);
+				wakeWatching(byColumn.get(x), y);
+			}
+		}
+
+		@Override
+		public void mapReset(long changeVersion) {
+			wakeAll();
+		}
+	};
+
+	/**
+	 * Wakes the trolls whose cycle depends on a map change since the last call.
+	 *
+	 * @param current current map of the game
+	 */
+	void sync(IceMap current) {
+		if (current == map) {
+			version = current.drainChanges(version, changes);
+			return;
+		}
+		wakeAll();
+		map = current;
+		version = current.getVersion();
+		if (byRow.size() != current.getHeight() || byColumn.size() != current.getWidth()) {
+			byRow = buckets(current.getHeight());
+			byColumn = buckets(current.getWidth());
+		}
+	}
+
+	/**
+	 * Puts a troll to sleep on its current cycle, if it has one.
+	 *
+	 * @param troll troll that just moved on the synced map
+	 */
+	void sleep(Troll troll) {
+		if (!troll.startCycle(map, this))
+			return;
+		if (troll.watchList != null)
+			troll.watchList.remove(troll);
+		troll.watchList = troll.horizontal ? byRow.get(troll.line) : byColumn.get(troll.line);
+		troll.watchList.add(troll);
+		troll.dormant = true;
+		sleeping++;
+	}
+
+	/**
+	 * Counts one game tick.
+	 */
+	void advance() {
+		tick++;
+	}
+
+	/**
+	 * @return ticks counted so far
+	 */
+	long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Wakes every troll and sets the tick count, for a game that takes the
+	 * state of another one. The buckets are rebuilt on the next sync.
+	 *
+	 * @param newTick ticks counted by the copied game
+	 */
+	void restart(long newTick) {
+		wakeAll();
+		map = null;
+		tick = newTick;
+	}
+
+	/**
+	 * @return number of trolls asleep
+	 */
+	int getSleepingCount() {
+		return sleeping;
+	}
+
+	private void wakeWatching(List<Troll> watchers, int position) {
+		for (int i = watchers.size() - 1; i >= 0; i--) {
+			Troll troll = watchers.get(i);
+			// El tramo depende también de las dos casillas que lo cierran
+			if (!troll.dormant || (position >= troll.low - 1 && position <= troll.high + 1)) {
+				watchers.remove(i);
+				troll.watchList = null;
+				wake(troll);
+			}
+		}
+	}
+
+	private void wakeAll() {
+		for (List<Troll> watchers : byRow) {
+			wakeList(watchers);
+		}
+		for (List<Troll> watchers : byColumn) {
+			wakeList(watchers);
+		}
+		sleeping = 0;
+	}
+
+	private void wakeList(List<Troll> watchers) {
+		for (Troll troll : watchers) {
+			troll.watchList = null;
+			wake(troll);
+		}
+		watchers.clear();
+	}
+
+	/**
+	 * Wakes a troll; it runs its normal update again until it is put back to
+	 * sleep. A troll woken from outside stays in its bucket until the next scan.
+	 */
+	void wake(Troll troll) {
+		if (troll.dormant) {
+			troll.dormant = false;
+			sleeping--;
+		}
+	}
+
+	private static List<List<Troll>> buckets(int count) {
+		List<List<Troll>> buckets = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			buckets.add(new ArrayList<>(0));
+		}
+		return buckets;
+	}
+}
@@ -14,6 +14,8 @@ public abstract class Enemy extends Character {
 	protected int movementCooldown;
 	protected int movementSpeed;
 
+	int pendingTicks; // ticks sin actualizar por el nivel de detalle
+
 	/**
 	 * Creates a new enemy at the specified position.
 	 * 
@@ -26,6 +28,7 @@ public abstract class Enemy extends Character {
 		directionColumn = 1; // Empieza moviéndose a la derecha
 		movementCooldown = 0;
 		movementSpeed = 3; // Velocidad defecto de 300ms
+		rehash();
 	}
 
 	/**
@@ -50,12 +53,93 @@ public abstract class Enemy extends Character {
 	 */
 	public abstract void update(Game game);
 
+	/**
+	 * @return true if the enemy sleeps on a cycle over that map and the game
+	 *         must not update it (see {@link DormantEnemies})
+	 */
+	boolean isAsleepIn(DormantEnemies dormancy, IceMap map) {
+		return false;
+	}
+
+	/**
+	 * @return ticks this enemy needs to break an ice block and step onto it,
+	 *         or {@link DistanceField#BLOCKED} if it cannot break ice
+	 */
+	int getIceCost() {
+		return DistanceField.BLOCKED;
+	}
+
+	/**
+	 * @return ticks already spent breaking the block next to this enemy
+	 */
+	int getBreakProgress() {
+		return 0;
+	}
+
+	/**
+	 * Takes one step toward the closest player that can be reached on foot.
+	 * 
+	 * @param game reference to the game
+	 * @return true if a player is reachable (the enemy moved or is already on
+	 *         the player); false if the caller should fall back to its own
+	 *         movement
+	 */
+	protected boolean chaseNearestPlayer(Game game) {
+		int[] step = findChaseStep(game, DistanceField.BLOCKED);
+		if (step == null)
+			return false;
+		moveTo(step[0], step[1]);
+		return true;
+	}
+
+	/**
+	 * Finds the next tile on the fastest route to the closest player, following
+	 * the game's shared distance field toward all players. Among equally fast
+	 * tiles, the one on the axis with the larger distance to the player is
+	 * preferred, like the greedy chase.
+	 * 
+	 * @param game    reference to the game
+	 * @param iceCost ticks this enemy needs to break and enter an ice tile, or
+	 *                {@link DistanceField#BLOCKED}
+	 * @return {row, column} of the next tile (the current one when already on a
+	 *         player), or null if no player can be reached
+	 */
+	protected int[] findChaseStep(Game game, int iceCost) {
+		DistanceField field = game.getChaseField(iceCost);
+		int targetDistance = field.getDistance(column, row);
+		if (targetDistance == DistanceField.UNREACHABLE)
+			return null;
+		if (targetDistance == 0)
+			return new int[] { row, column };
+		int nearest = field.getNearestTarget(column, row);
+		Player target = game.getPlayers().get(nearest);
+
+		// Primero el eje con mayor distancia, luego el otro, luego el resto
+		int stepRow = Integer.signum(target.getRow() - row);
+		int stepCol = Integer.signum(target.getColumn() - column);
+		boolean vertical = Math.abs(target.getRow() - row) > Math.abs(target.getColumn() - column);
+		int[][] steps = { vertical ? new int[] { stepRow, 0 } : new int[] { 0, stepCol },
+				vertical ? new int[] { 0, stepCol } : new int[] { stepRow, 0 }, { 1, 0 }, { -1, 0 }, { 0, 1 },
+				{ 0, -1 } };
+		for (int[] step : steps) {
+			int nextRow = row + step[0];
+			int nextCol = column + step[1];
+			int distance = field.getDistance(nextCol, nextRow);
+			if ((step[0] != 0 || step[1] != 0) && distance != DistanceField.UNREACHABLE
+					&& field.getNearestTarget(nextCol, nextRow) == nearest
+					&& distance + field.getStepCost(nextCol, nextRow) == targetDistance)
+				return new int[] { nextRow, nextCol };
+		}
+		return null;
+	}
+
 	/**
 	 * Reverses the enemy's current direction.
 	 */
 	public void reverseDirection() {
 		directionRow = -directionRow;
 		directionColumn = -directionColumn;
+		rehash();
 	}
 
 	/**
@@ -81,6 +165,7 @@ public abstract class Enemy extends Character {
 	public void setDirection(int dr, int dc) {
 		this.directionRow = dr;
 		this.directionColumn = dc;
+		rehash();
 	}
 	
 	/**
@@ -96,4 +181,35 @@ public abstract class Enemy extends Character {
 	 * @return string identifier for the enemy type
 	 */
 	public abstract String getType();
+
+	/**
+	 * Takes the whole state of another enemy of the same type, timers
+	 * included.
+	 * 
+	 * @param other enemy to copy
+	 */
+	void copyFrom(Enemy other) {
+		super.copyFrom(other);
+		directionRow = other.getDirectionRow();
+		directionColumn = other.getDirectionColumn();
+		movementCooldown = other.movementCooldown;
+		movementSpeed = other.movementSpeed;
+		pendingTicks = other.pendingTicks;
+		rehash();
+	}
+
+	/**
+	 * The key covers the type, the position and the direction; the
+	 * movement timers, which the game does not use, are left out.
+	 */
+	@Override
+	long computeZobrist() {
+		return Zobrist.key(Zobrist.ENEMY + getType().hashCode(), Zobrist.pack(row, column),
+				Zobrist.pack(directionRow, directionColumn));
+	}
+
+	/**
+	 * @return a new enemy of the same type with the same state
+	 */
+	abstract Enemy copy();
 }
\ No newline at end of file
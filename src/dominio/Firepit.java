@@ -15,6 +15,9 @@ public class Firepit {
     private boolean isLit; // Si está encendida o apagada
     private int extinguishTimer; // Contador para reencender
     
+    private long zobrist; // clave del estado, se actualiza con cada cambio
+    private IceMap map; // mapa que cuenta las fogatas encendidas de la casilla
+    
     private static final int RELIGHT_TIME = 100; // 10 segundos (100 ticks a 100ms)
     
     /**
@@ -29,6 +32,23 @@ public class Firepit {
         this.column = column;
         this.isLit = true;
         this.extinguishTimer = 0;
+        rehash();
+    }
+    
+    /**
+     * Creates a firepit in a given state, used when loading saved games.
+     * 
+     * @param row row position
+     * @param column column position
+     * @param lit true if the fire is lit
+     * @param extinguishTimer ticks spent extinguished
+     */
+    public Firepit(int row, int column, boolean lit, int extinguishTimer) {
+        this.row = row;
+        this.column = column;
+        this.isLit = lit;
+        this.extinguishTimer = extinguishTimer;
+        rehash();
     }
     
     /**
@@ -41,9 +61,10 @@ public class Firepit {
             
             // Después de 10 segundos, volver a encender
             if (extinguishTimer >= RELIGHT_TIME) {
-                isLit = true;
                 extinguishTimer = 0;
+                setLit(true);
             }
+            rehash();
         }
     }
     
@@ -53,8 +74,9 @@ public class Firepit {
      */
     public void extinguish() {
         if (isLit) {
-            isLit = false;
             extinguishTimer = 0;
+            setLit(false);
+            rehash();
         }
     }
     
@@ -92,4 +114,56 @@ public class Firepit {
     public int getExtinguishTimer() {
         return extinguishTimer;
     }
+    
+    /**
+     * Puts the firepit back in a previously saved state.
+     * 
+     * @param lit true if the fire is lit
+     * @param extinguishTimer ticks spent extinguished
+     */
+    void restoreState(boolean lit, int extinguishTimer) {
+        this.extinguishTimer = extinguishTimer;
+        setLit(lit);
+        rehash();
+    }
+    
+    /**
+     * Sets the map that counts this firepit among the lit firepits of its
+     * tile, or null when the firepit leaves it.
+     * 
+     * @param map owning map
+     */
+    void setMap(IceMap map) {
+        this.map = map;
+    }
+    
+    private void setLit(boolean lit) {
+        if (isLit != lit) {
+            isLit = lit;
+            if (map != null)
+                map.firepitLitChanged(this);
+        }
+    }
+    
+    /**
+     * @return key of the firepit's phase in the game hash, as of the last
+     *         change
+     */
+    long getZobrist() {
+        return zobrist;
+    }
+    
+    /**
+     * Computes the key of the firepit from its position and phase, without
+     * the kept one.
+     * 
+     * @return the key
+     */
+    long computeZobrist() {
+        return Zobrist.key(Zobrist.FIREPIT, Zobrist.pack(row, column), isLit ? -1 : extinguishTimer);
+    }
+    
+    private void rehash() {
+        zobrist = computeZobrist();
+    }
 }
@@ -13,6 +13,8 @@ public abstract class Fruit {
     protected int points;
     protected boolean collected;
     
+    long zobrist; // clave del estado, se actualiza con cada cambio
+    
     /**
      * Creates a new fruit at the specified position.
      * 
@@ -25,6 +27,7 @@ public abstract class Fruit {
         this.column = column;
         this.points = points;
         this.collected = false;
+        rehash();
     }
     
     /**
@@ -37,7 +40,10 @@ public abstract class Fruit {
      * Marks this fruit as collected by the player.
      */
     public void collect() {
-        this.collected = true;
+        if (!collected) {
+            this.collected = true;
+            rehash();
+        }
     }
     
     /**
@@ -78,10 +84,54 @@ public abstract class Fruit {
     protected void setPosition(int row, int column) {
         this.row = row;
         this.column = column;
+        rehash();
     }
     
     /**
      * @return string identifier for the fruit type
      */
     public abstract String getType();
+    
+    /**
+     * Takes the whole state of another fruit of the same type, timers
+     * included.
+     * 
+     * @param other fruit to copy
+     */
+    void copyFrom(Fruit other) {
+        this.row = other.row;
+        this.column = other.column;
+        this.points = other.points;
+        this.collected = other.collected;
+        rehash();
+    }
+    
+    /**
+     * Brings the key of this fruit up to date after a change of its state.
+     */
+    final void rehash() {
+        zobrist = computeZobrist();
+    }
+    
+    /**
+     * @return key of this fruit in the game hash, as of the last change
+     */
+    long getZobrist() {
+        return zobrist;
+    }
+    
+    /**
+     * Computes the key of this fruit from its whole state, without the kept
+     * one; subclasses with timers or a direction add them.
+     * 
+     * @return the key
+     */
+    long computeZobrist() {
+        return Zobrist.key(Zobrist.FRUIT + getType().hashCode(), Zobrist.pack(row, column), collected ? 1 : 0);
+    }
+    
+    /**
+     * @return a new fruit of the same type with the same state
+     */
+    abstract Fruit copy();
 }
\ No newline at end of file
@@ -18,12 +18,19 @@ public class Game {
 	private List<Fruit> fruits;
 	private IceMap map;
 	private GameState gameState;
-	private Random random;
+	private CopyableRandom random;
 
 	private boolean gameOver;
 	private boolean gameWon;
 	private int currentLevel;
 	private boolean twoPlayerMode; // Activa modo 2 jugadores
+	private List<DistanceField> chaseFields; // Por costo del hielo, hacia todos los jugadores
+	private PathCache pathCache; // Caminos compartidos por enemigos y bots
+	private DormantEnemies dormantEnemies; // Trolls dormidos en su ciclo
+	private Map<Integer, LevelOfDetail> levelsOfDetail; // Por nivel; FULL si no está
+	private TickMetrics tickMetrics;
+	private DangerMap dangerMap; // Llegada más temprana de los enemigos
+	private boolean hashVerification; // Comparar el hash con el cálculo completo
 
 	// Constantes para el tamaño del mapa
 	private static final int DEFAULT_WIDTH = 20;
@@ -55,13 +62,39 @@ public class Game {
 	 * @param flavor2       flavor for player 2 (ignored if twoPlayerMode is false)
 	 */
 	public Game(int level, boolean twoPlayerMode, String flavor1, String flavor2) {
+		this(level, twoPlayerMode, flavor1, flavor2, DEFAULT_WIDTH, DEFAULT_HEIGHT);
+	}
+
+	/**
+	 * Creates a new Game on a board of the given size. Large boards use a chunked
+	 * map (see {@link IceMap#CHUNKED_THRESHOLD}).
+	 * 
+	 * @param level         level number
+	 * @param twoPlayerMode true for 2 players, false for 1 player
+	 * @param flavor1       flavor for player 1
+	 * @param flavor2       flavor for player 2 (ignored if twoPlayerMode is false)
+	 * @param width         number of columns of the map
+	 * @param height        number of rows of the map
+	 * @throws IllegalArgumentException if the board is smaller than the level
+	 *                                  layout (20x15)
+	 */
+	public Game(int level, boolean twoPlayerMode, String flavor1, String flavor2, int width, int height) {
+		if (width < DEFAULT_WIDTH || height < DEFAULT_HEIGHT)
+			throw new IllegalArgumentException("Board must be at least " + DEFAULT_WIDTH + "x" + DEFAULT_HEIGHT
+					+ ": " + width + "x" + height);
 		currentLevel = level;
 		this.twoPlayerMode = twoPlayerMode;
-		map = new IceMap(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+		map = new IceMap(width, height);
 		players = new ArrayList<>();
 		enemies = new ArrayList<>();
 		fruits = new ArrayList<>();
-		random = new Random();
+		chaseFields = new ArrayList<>();
+		pathCache = new PathCache();
+		dormantEnemies = new DormantEnemies();
+		levelsOfDetail = new HashMap<>();
+		tickMetrics = new TickMetrics();
+		dangerMap = new DangerMap();
+		random = new CopyableRandom();
 		gameOver = false;
 		gameWon = false;
 
@@ -78,50 +111,78 @@ public class Game {
 	 * @param flavor2       player 2 flavor
 	 */
 	private void initializeLevel(int level, boolean twoPlayerMode, String flavor1, String flavor2) {
-		// Limpiar el mapa
-		map.clearObstacles();
+		// Construir un mapa nuevo del mismo tamaño y almacenamiento
+		IceMapBuilder builder = new IceMapBuilder(map.getWidth(), map.getHeight());
+		builder.setOffHeap(map.isOffHeap());
+		keepBorder(builder);
 
 		// Crear el diseño único de cada nivel
 		switch (level) {
 		case 1:
-			initLevel1();
+			initLevel1(builder);
 			break;
 		case 2:
-			initLevel2();
+			initLevel2(builder);
 			break;
 		case 3:
-			initLevel3();
+			initLevel3(builder);
 			break;
 		default:
-			initLevel1(); // Fallback
+			initLevel1(builder); // Fallback
 		}
+		map = builder.build();
 
 		// Inicializar jugadores después de crear el mapa
 		initPlayers(twoPlayerMode, flavor1, flavor2);
 
+		// Niveles sin diseño propio: enemigos y frutas al azar en casillas libres
+		if (level > 3) {
+			initEnemiesForLevel(level);
+			initFruitsForLevel(level);
+		}
+
 		// Crear el GameState con el número total de frutas
 		this.gameState = new GameState(level, fruits.size());
 	}
 
+	/**
+	 * Carries the border walls of the current map over to the new layout, so
+	 * walls the players shot out stay open when the level is reset.
+	 */
+	private void keepBorder(IceMapBuilder builder) {
+		int width = map.getWidth();
+		int height = map.getHeight();
+		for (int x = 0; x < width; x++) {
+			keepBorderTile(builder, x, 0);
+			keepBorderTile(builder, x, height - 1);
+		}
+		for (int y = 1; y < height - 1; y++) {
+			keepBorderTile(builder, 0, y);
+			keepBorderTile(builder, width - 1, y);
+		}
+	}
+
+	private void keepBorderTile(IceMapBuilder builder, int x, int y) {
+		if (!map.hasIce(x, y))
+			builder.clearIceRect(x, y, 1, 1);
+	}
+
 	/**
 	 * LEVEL 1: "Ice Cave" Theme: Tutorial level with igloos and basic ice
 	 * structures. Enemies: 2 Trolls Fruits: 8 Grapes + 8 Bananas Obstacles: Igloos,
 	 * ice walls
 	 */
-	private void initLevel1() {
+	private void initLevel1(IceMapBuilder builder) {
 		// Crear estructuras de hielo tipo cuadrícula
 		for (int y = 3; y < 12; y += 4) {
 			for (int x = 3; x < 17; x += 4) {
-				map.toggleIce(x, y);
-				map.toggleIce(x + 1, y);
-				map.toggleIce(x, y + 1);
-				map.toggleIce(x + 1, y + 1);
+				builder.addIceRect(x, y, 2, 2);
 			}
 		}
 
 		// Agregar iglús en las esquinas (decoración nivel 1)
-		map.addIgloo(new Igloo(2, 2, 2, 2));
-		map.addIgloo(new Igloo(2, 16, 2, 2));
+		builder.addIgloo(new Igloo(2, 2, 2, 2));
+		builder.addIgloo(new Igloo(2, 16, 2, 2));
 
 		// Enemigos: 2 Trolls
 		enemies.add(new Troll(2, 9));
@@ -137,31 +198,24 @@ public class Game {
 	 * Enemies: 1 Pot (chases player) Fruits: 4 Pineapples + 4 Bananas + 4 Cherries
 	 * Obstacles: Firepits, hot tiles, ice barriers
 	 */
-	private void initLevel2() {
+	private void initLevel2(IceMapBuilder builder) {
 		// Crear paredes de hielo tipo laberinto
-		for (int y = 4; y < 11; y++) {
-			map.toggleIce(7, y);
-			map.toggleIce(12, y);
-		}
-
-		for (int x = 4; x < 16; x++) {
-			if (x != 7 && x != 12) {
-				map.toggleIce(x, 7);
-			}
-		}
+		builder.addIceLine(7, 4, 0, 1, 7);
+		builder.addIceLine(12, 4, 0, 1, 7);
+		builder.addIceLine(4, 7, 1, 0, 12);
 
 		// Agregar fogatas en puntos estratégicos
-		map.addFirepit(new Firepit(3, 5));
-		map.addFirepit(new Firepit(3, 14));
-		map.addFirepit(new Firepit(11, 5));
-		map.addFirepit(new Firepit(11, 14));
+		builder.addFirepit(new Firepit(3, 5));
+		builder.addFirepit(new Firepit(3, 14));
+		builder.addFirepit(new Firepit(11, 5));
+		builder.addFirepit(new Firepit(11, 14));
 
-		// Agregar baldosas calientes en el centro
+		// Agregar baldosas calientes en el centro (el hielo queda debajo)
 		for (int x = 8; x <= 11; x++) {
-			map.addHotTile(new HotTile(7, x));
+			builder.addHotTile(new HotTile(7, x));
 		}
-		map.addHotTile(new HotTile(8, 9));
-		map.addHotTile(new HotTile(8, 10));
+		builder.addHotTile(new HotTile(8, 9));
+		builder.addHotTile(new HotTile(8, 10));
 
 		// Enemigo: 1 Maceta
 		enemies.add(new Pot(2, 2));
@@ -177,33 +231,22 @@ public class Game {
 	 * Enemies: 1 Orange Squid (breaks ice) Fruits: 4 Pineapples + 4 Cactus + 4
 	 * Cherries Obstacles: Hot tiles, scattered ice
 	 */
-	private void initLevel3() {
+	private void initLevel3(IceMapBuilder builder) {
 		// Crear estructuras de hielo dispersas
 		// Pirámides de hielo
-		map.toggleIce(5, 5);
-		map.toggleIce(5, 6);
-		map.toggleIce(6, 5);
-
-		map.toggleIce(14, 5);
-		map.toggleIce(14, 6);
-		map.toggleIce(13, 5);
-
-		map.toggleIce(5, 9);
-		map.toggleIce(5, 10);
-		map.toggleIce(6, 10);
-
-		map.toggleIce(14, 9);
-		map.toggleIce(14, 10);
-		map.toggleIce(13, 10);
+		builder.stamp(5, 5, "XX", "X.");
+		builder.stamp(13, 5, "XX", ".X");
+		builder.stamp(5, 9, "X.", "XX");
+		builder.stamp(13, 9, ".X", "XX");
 
 		// Baldosas calientes formando caminos
 		for (int y = 3; y < 12; y++) {
-			map.addHotTile(new HotTile(y, 10));
+			builder.addHotTile(new HotTile(y, 10));
 		}
 
 		for (int x = 5; x < 15; x++) {
 			if (x != 10) {
-				map.addHotTile(new HotTile(7, x));
+				builder.addHotTile(new HotTile(7, x));
 			}
 		}
 
@@ -294,6 +337,7 @@ public class Game {
 	 */
 	private void initPlayers(boolean twoPlayerMode, String flavor1, String flavor2) {
 		players.clear();
+		chaseFields.clear();
 
 		if (twoPlayerMode) {
 			// Jugador 1: lado izquierdo
@@ -343,13 +387,26 @@ public class Game {
 			// Niveles adicionales: aumentar progresivamente
 			int enemyCount = 2 + level;
 			for (int i = 0; i < enemyCount; i++) {
-				int row = random.nextInt(map.getHeight() - 4) + 2;
-				int col = random.nextInt(map.getWidth() - 4) + 2;
-				enemies.add(new Troll(row, col));
+				int cell = map.randomWalkableCell(random);
+				// Nunca sobre un jugador: perdería al empezar
+				if (cell >= 0 && !isPlayerAt(cell / map.getWidth(), cell % map.getWidth())) {
+					enemies.add(new Troll(cell / map.getWidth(), cell % map.getWidth()));
+				}
 			}
 		}
 	}
 
+	/**
+	 * @return true if a player stands on the tile
+	 */
+	private boolean isPlayerAt(int row, int column) {
+		for (Player player : players) {
+			if (player.getRow() == row && player.getColumn() == column)
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Initializes fruits based on the current level. Higher levels have more fruits
 	 * and different types.
@@ -382,8 +439,12 @@ public class Game {
 			// Niveles adicionales: generar aleatoriamente
 			int fruitCount = 3 + (level * 2);
 			for (int i = 0; i < fruitCount; i++) {
-				int row = random.nextInt(map.getHeight() - 4) + 2;
-				int col = random.nextInt(map.getWidth() - 4) + 2;
+				int cell = map.randomWalkableCell(random);
+				if (cell < 0) {
+					break; // No queda ninguna casilla libre
+				}
+				int row = cell / map.getWidth();
+				int col = cell % map.getWidth();
 
 				// Alternar entre Uvas y Plátanos
 				if (i % 2 == 0) {
@@ -535,28 +596,8 @@ public class Game {
 	 * @param dy     direction y
 	 */
 	private void createIceInLine(int startX, int startY, int dx, int dy) {
-		int x = startX;
-		int y = startY;
-
-		// Crear hasta encontrar obstáculo
-		for (int i = 0; i < map.getWidth() && i < map.getHeight(); i++) {
-			// Verificar límites del mapa
-			if (x < 0 || x >= map.getWidth() || y < 0 || y >= map.getHeight()) {
-				break;
-			}
-
-			// Si ya hay hielo, no crear más
-			if (map.hasIce(x, y)) {
-				break;
-			}
-
-			// Crear bloque de hielo
-			map.toggleIce(x, y);
-
-			// Avanzar en la dirección
-			x += dx;
-			y += dy;
-		}
+		// Crear hasta encontrar hielo o el borde, como máximo el lado corto del mapa
+		map.fillIceLine(startX, startY, dx, dy, Math.min(map.getWidth(), map.getHeight()));
 	}
 
 	/**
@@ -568,33 +609,68 @@ public class Game {
 	 * @param dy     direction y
 	 */
 	private void destroyIceInLine(int startX, int startY, int dx, int dy) {
-		int x = startX;
-		int y = startY;
-
 		// Destruir bloques consecutivos
-		while (x >= 0 && x < map.getWidth() && y >= 0 && y < map.getHeight() && map.hasIce(x, y)) {
-
-			map.toggleIce(x, y); // Eliminar el hielo
-
-			x += dx;
-			y += dy;
-		}
+		map.clearIceLine(startX, startY, dx, dy);
 	}
 
 	/**
 	 * Updates all enemies' positions and behaviors. Called once per game tick
-	 * (approximately every 100ms).
+	 * (approximately every 100ms). Enemies far from every player follow the
+	 * level of detail of the current level; an enemy that lands on a player
+	 * during its catch-up steps ends the game there.
 	 */
 	public void updateEnemies() {
 		if (gameOver || gameWon)
 			return;
 
-		for (Enemy enemy : enemies) {
-			enemy.update(this);
+		long begin = System.nanoTime();
+		tickMetrics.startTick();
+		dormantEnemies.advance();
+		long tick = dormantEnemies.getTick();
+		LevelOfDetail detail = getLevelOfDetail(currentLevel);
+		for (int i = 0; i < enemies.size(); i++) {
+			Enemy enemy = enemies.get(i);
+			enemy.pendingTicks++;
+			if (!detail.isDue(distanceToClosestPlayer(enemy), tick, i)) {
+				tickMetrics.countDeferred();
+				continue;
+			}
+			int steps = Math.min(enemy.pendingTicks, detail.getMaxCatchUp());
+			enemy.pendingTicks = 0;
+			// Despertar los trolls cuyo tramo cambió, también por un enemigo anterior de este tick
+			dormantEnemies.sync(map);
+			boolean asleep = enemy.isAsleepIn(dormantEnemies, map);
+			for (int step = 0; step < steps; step++) {
+				enemy.update(this); // dormido: avanza por su ciclo sin leer el mapa
+				if (distanceToClosestPlayer(enemy) == 0) {
+					// Lo alcanzó a mitad de camino: no puede pasar de largo
+					gameOver = true;
+					break;
+				}
+			}
+			if (asleep) {
+				tickMetrics.countAsleep(steps);
+			} else {
+				tickMetrics.countUpdated(steps);
+			}
 		}
 
 		// Verificar colisión después de mover enemigos
 		checkEnemyCollision();
+		tickMetrics.endTick(System.nanoTime() - begin);
+	}
+
+	/**
+	 * @return Manhattan distance from the enemy to the closest player
+	 */
+	private int distanceToClosestPlayer(Enemy enemy) {
+		int closest = Integer.MAX_VALUE;
+		int row = enemy.getRow();
+		int column = enemy.getColumn();
+		for (Player player : players) {
+			closest = Math.min(closest, Math.abs(player.getRow() - row) + Math.abs(player.getColumn() - column));
+		}
+		return closest;
 	}
 
 	/**
@@ -626,20 +702,13 @@ public class Game {
 	}
 
 	/**
-	 * Teleports a cherry to a random valid position.
+	 * Teleports a cherry to a uniformly random walkable position. The map keeps
+	 * an index of walkable tiles, so this never fails while one is free.
 	 */
 	private void teleportCherry(Cherry cherry) {
-		int newRow, newCol;
-		int attempts = 0;
-
-		do {
-			newRow = random.nextInt(map.getHeight() - 4) + 2;
-			newCol = random.nextInt(map.getWidth() - 4) + 2;
-			attempts++;
-		} while (!map.isWalkable(newCol, newRow) && attempts < 50);
-
-		if (map.isWalkable(newCol, newRow)) {
-			cherry.teleportTo(newRow, newCol);
+		int cell = map.randomWalkableCell(random);
+		if (cell >= 0) {
+			cherry.teleportTo(cell / map.getWidth(), cell % map.getWidth());
 		}
 	}
 
@@ -760,6 +829,281 @@ public class Game {
 		return players;
 	}
 
+	/**
+	 * Returns the walking distance field toward the closest player, brought up
+	 * to date with the current map and the players' positions. The field is
+	 * shared by every chasing enemy and only repairs the tiles whose distance
+	 * changed since the last call.
+	 * 
+	 * @return distance field toward the players
+	 */
+	public DistanceField getChaseField() {
+		return getChaseField(DistanceField.BLOCKED);
+	}
+
+	/**
+	 * Returns the distance field toward the closest player for enemies that
+	 * break ice, where entering an ice tile takes iceCost ticks. Enemies with
+	 * the same cost share the field; its target indexes follow
+	 * {@link #getPlayers()}.
+	 * 
+	 * @param iceCost ticks to break and enter an ice tile, or
+	 *                {@link DistanceField#BLOCKED}
+	 * @return distance field toward the players
+	 */
+	public DistanceField getChaseField(int iceCost) {
+		DistanceField field = null;
+		for (DistanceField candidate : chaseFields) {
+			if (candidate.getIceCost() == iceCost) {
+				field = candidate;
+			}
+		}
+		if (field == null) {
+			field = new DistanceField(iceCost);
+			chaseFields.add(field);
+		}
+		field.update(map, players);
+		return field;
+	}
+
+	/**
+	 * Returns the earliest tick at which an enemy can be on each tile, brought
+	 * up to date with the current map and the enemies' positions. Only the
+	 * tiles whose arrival tick changed since the last call are recomputed.
+	 * 
+	 * @return danger map of the current level
+	 */
+	public DangerMap getDangerMap() {
+		dangerMap.update(map, enemies);
+		return dangerMap;
+	}
+
+	/**
+	 * Returns a 64-bit Zobrist hash of the game state: ice and obstacles of
+	 * the map, firepit phases, position and direction of players and enemies,
+	 * position and collected flag of fruits, the cactus, cherry and squid
+	 * timers, and whether the game ended. Scores and random generators are
+	 * not part of it. Every change updates the key of its tile or entity, so
+	 * the board is never scanned; entity keys are only combined with their
+	 * slot in the lists.
+	 * 
+	 * @return hash of the current state
+	 * @throws IllegalStateException if hash verification is on and the kept
+	 *                               hash does not match a full recompute
+	 */
+	public long getStateHash() {
+		long hash = map.getStateHash() ^ statusKey();
+		for (int i = 0; i < players.size(); i++) {
+			hash ^= Zobrist.key(Zobrist.PLAYER, i, players.get(i).getZobrist());
+		}
+		for (int i = 0; i < enemies.size(); i++) {
+			hash ^= Zobrist.key(Zobrist.ENEMY, i, enemies.get(i).getZobrist());
+		}
+		for (int i = 0; i < fruits.size(); i++) {
+			hash ^= Zobrist.key(Zobrist.FRUIT, i, fruits.get(i).getZobrist());
+		}
+		if (hashVerification && hash != computeStateHash())
+			throw new IllegalStateException("The kept state hash does not match the full recompute");
+		return hash;
+	}
+
+	/**
+	 * Computes the same hash as {@link #getStateHash()} from scratch, reading
+	 * every tile of the map and the whole state of every entity. Slow; meant
+	 * to check the incremental hash in tests and while debugging.
+	 * 
+	 * @return hash of the current state
+	 */
+	public long computeStateHash() {
+		long hash = map.computeStateHash() ^ statusKey();
+		for (int i = 0; i < players.size(); i++) {
+			hash ^= Zobrist.key(Zobrist.PLAYER, i, players.get(i).computeZobrist());
+		}
+		for (int i = 0; i < enemies.size(); i++) {
+			hash ^= Zobrist.key(Zobrist.ENEMY, i, enemies.get(i).computeZobrist());
+		}
+		for (int i = 0; i < fruits.size(); i++) {
+			hash ^= Zobrist.key(Zobrist.FRUIT, i, fruits.get(i).computeZobrist());
+		}
+		return hash;
+	}
+
+	/**
+	 * Turns on or off the check of {@link #getStateHash()} against
+	 * {@link #computeStateHash()} on every call.
+	 * 
+	 * @param on true to check every hash
+	 */
+	public void setHashVerification(boolean on) {
+		hashVerification = on;
+	}
+
+	/**
+	 * @return true if every hash is checked against a full recompute
+	 */
+	public boolean isHashVerification() {
+		return hashVerification;
+	}
+
+	private long statusKey() {
+		return Zobrist.key(Zobrist.STATUS, gameOver ? 1 : 0, gameWon ? 1 : 0);
+	}
+
+	/**
+	 * Returns the path cache shared by everything that searches paths on this
+	 * game's map. It drops its entries by itself when the map changes or is
+	 * replaced.
+	 * 
+	 * @return the shared path cache
+	 */
+	public PathCache getPathCache() {
+		return pathCache;
+	}
+
+	/**
+	 * Reseeds the generator the game draws random tiles from, so games
+	 * copied from the same one can go different ways.
+	 *
+	 * @param seed new seed
+	 */
+	void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	/**
+	 * Sets how often far enemies are updated on a level.
+	 * 
+	 * @param level  level number
+	 * @param detail level of detail, or null for {@link LevelOfDetail#FULL}
+	 */
+	public void setLevelOfDetail(int level, LevelOfDetail detail) {
+		if (detail == null) {
+			levelsOfDetail.remove(level);
+		} else {
+			levelsOfDetail.put(level, detail);
+		}
+	}
+
+	/**
+	 * @param level level number
+	 * @return level of detail of that level
+	 */
+	public LevelOfDetail getLevelOfDetail(int level) {
+		return levelsOfDetail.getOrDefault(level, LevelOfDetail.FULL);
+	}
+
+	/**
+	 * @return counters of the enemy updates
+	 */
+	public TickMetrics getTickMetrics() {
+		return tickMetrics;
+	}
+
+	/**
+	 * Copies the whole simulation state of this game into another one, for
+	 * look-ahead bots that play many copies of the game per decision. The
+	 * target keeps its own objects wherever it can: the map is copied word by
+	 * word into the target's map when both have the same size, and players,
+	 * enemies and fruits take the state of the ones of the same type at the
+	 * same position, timers included; only the rest are allocated, so copying
+	 * again into the same target allocates nothing. Trolls asleep on their
+	 * cycle are put to sleep on the same cycle in the target. The random generators are
+	 * copied too, so the copy plays exactly like this game. The target keeps
+	 * its own chase fields, path cache and danger map, which follow the copied
+	 * map by themselves, and its own tick metrics.
+	 * 
+	 * @param target game to overwrite
+	 */
+	public void copyInto(Game target) {
+		if (target == this)
+			return;
+		if (target.map == map || target.map.getWidth() != map.getWidth()
+				|| target.map.getHeight() != map.getHeight()) {
+			target.map = new IceMap(map.getWidth(), map.getHeight(), map.isChunked());
+		}
+		map.copyInto(target.map);
+
+		if (target.players == players)
+			target.players = new ArrayList<>();
+		List<Player> playerCopies = target.players;
+		for (int i = 0; i < players.size(); i++) {
+			Player player = players.get(i);
+			if (i == playerCopies.size()) {
+				playerCopies.add(player.copy());
+			} else if (playerCopies.get(i) == player) {
+				playerCopies.set(i, player.copy());
+			} else {
+				playerCopies.get(i).copyFrom(player);
+			}
+		}
+		truncate(playerCopies, players.size());
+
+		// Los trolls del destino se despiertan antes de tomar su estado
+		target.dormantEnemies.restart(dormantEnemies.getTick());
+		if (target.enemies == enemies)
+			target.enemies = new ArrayList<>();
+		List<Enemy> enemyCopies = target.enemies;
+		for (int i = 0; i < enemies.size(); i++) {
+			Enemy enemy = enemies.get(i);
+			if (i == enemyCopies.size()) {
+				enemyCopies.add(enemy.copy());
+			} else if (enemyCopies.get(i) == enemy || enemyCopies.get(i).getClass() != enemy.getClass()) {
+				enemyCopies.set(i, enemy.copy());
+			} else {
+				enemyCopies.get(i).copyFrom(enemy);
+			}
+		}
+		truncate(enemyCopies, enemies.size());
+		// Los trolls dormidos siguen dormidos en la copia
+		target.dormantEnemies.sync(target.map);
+		for (int i = 0; i < enemies.size(); i++) {
+			if (enemies.get(i).isAsleepIn(dormantEnemies, map))
+				target.dormantEnemies.sleep((Troll) enemyCopies.get(i));
+		}
+
+		if (target.fruits == fruits)
+			target.fruits = new ArrayList<>();
+		List<Fruit> fruitCopies = target.fruits;
+		for (int i = 0; i < fruits.size(); i++) {
+			Fruit fruit = fruits.get(i);
+			if (i == fruitCopies.size()) {
+				fruitCopies.add(fruit.copy());
+			} else if (fruitCopies.get(i) == fruit || fruitCopies.get(i).getClass() != fruit.getClass()) {
+				fruitCopies.set(i, fruit.copy());
+			} else {
+				fruitCopies.get(i).copyFrom(fruit);
+			}
+		}
+		truncate(fruitCopies, fruits.size());
+
+		if (target.gameState == gameState)
+			target.gameState = new GameState(currentLevel, 0);
+		target.gameState.copyFrom(gameState);
+		target.random.copyFrom(random);
+		target.gameOver = gameOver;
+		target.gameWon = gameWon;
+		target.currentLevel = currentLevel;
+		target.twoPlayerMode = twoPlayerMode;
+		target.levelsOfDetail.clear();
+		target.levelsOfDetail.putAll(levelsOfDetail);
+	}
+
+	/**
+	 * Drops the elements of a list past the given size.
+	 */
+	private static void truncate(List<?> list, int size) {
+		while (list.size() > size) {
+			list.remove(list.size() - 1);
+		}
+	}
+
+	/**
+	 * @return trolls of this game asleep on their cycle
+	 */
+	DormantEnemies getDormantEnemies() {
+		return dormantEnemies;
+	}
+
 	/**
 	 * @return true if in 2 player mode
 	 */
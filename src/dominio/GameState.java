@@ -93,4 +93,17 @@ public class GameState {
         int seconds = timeRemaining % 60;
         return String.format("%02d:%02d", minutes, seconds);
     }
+    
+    /**
+     * Takes the whole state of another game state.
+     * 
+     * @param other state to copy
+     */
+    void copyFrom(GameState other) {
+        this.score = other.score;
+        this.timeRemaining = other.timeRemaining;
+        this.currentLevel = other.currentLevel;
+        this.fruitsCollected = other.fruitsCollected;
+        this.totalFruits = other.totalFruits;
+    }
 }
\ No newline at end of file
@@ -24,6 +24,13 @@ private static final int GRAPE_POINTS = 50;
         // Las uvas son estáticas
     }
     
+    @Override
+    Fruit copy() {
+        Grape copy = new Grape(row, column);
+        copy.copyFrom(this);
+        return copy;
+    }
+    
     @Override
     public String getType() {
         return "GRAPE";
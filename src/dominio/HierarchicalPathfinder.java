@@ -0,0 +1,591 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical pathfinding (HPA*) for very large boards, walking one tick per
+ * tile. The board is split in square clusters. Where two clusters touch,
+ * every run of tiles that is free on both sides is an entrance, crossed at its
+ * middle or, when long, at both ends; the tiles of those crossings are the
+ * nodes of a small abstract graph, joined across the border at cost 1 and
+ * inside each cluster by their precomputed walking distances.
+ *
+ * A query links the start and the goal to the nodes of their clusters,
+ * searches the abstract graph with A* and only walks the tiles of each leg
+ * when the path is read. The graph follows the map through its change
+ * journal: a change rebuilds the cluster that holds it and, on a cluster edge,
+ * the entrances of that border and the cluster on the other side.
+ *
+ * Paths are usually a few tiles longer than the shortest one, since they pass
+ * through the chosen crossings. Read the path before the map changes again.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class HierarchicalPathfinder extends Pathfinder {
+
+	/** Default side of a cluster, in tiles. */
+	public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+	private static final int INF = Integer.MAX_VALUE;
+	private static final int LONG_ENTRANCE = 6; // desde este largo se cruza por ambos extremos
+	private static final int[] DX = { 1, -1, 0, 0 };
+	private static final int[] DY = { 0, 0, 1, -1 };
+
+	private final int clusterSize;
+
+	// Grafo abstracto
+	private IceMap graphMap;
+	private long version;
+	private boolean rebuildAll;
+	private int clustersX;
+	private int clustersY;
+	private Cluster[] clusters;
+	private int[][] eastBorders; // cruces con el cluster de la derecha: pares (este lado, otro lado)
+	private int[][] southBorders; // cruces con el cluster de abajo
+	private boolean[] dirtyEast;
+	private boolean[] dirtySouth;
+	private boolean[] dirtyClusters;
+	private int[] pending = new int[16]; // bordes y clusters marcados, codificados
+	private int pendingCount;
+
+	// Búsqueda dentro de un cluster
+	private int localGeneration;
+	private int[] localStamps = new int[0];
+	private int[] localDistances = new int[0];
+	private int[] localParents = new int[0];
+	private int[] localQueue = new int[0];
+	private int[] crossings = new int[16];
+
+	// Consulta actual
+	private Cluster startCluster;
+	private Cluster goalCluster;
+	private int[] startDistances = new int[16];
+	private int[] goalDistances = new int[16];
+	private int directDistance;
+	private int[] waypoints = new int[16];
+	private int waypointCount;
+	private int nextWaypoint;
+
+	private final IceMapListener changes = new IceMapListener() {
+		@Override
+		public void tileChanged(int x, int y, byte oldState, byte newState, long changeVersion) {
+			boolean wasFree = (oldState & (IceMap.TILE_ICE | IceMap.TILE_IGLOO)) == 0;
+			boolean isFree = (newState & (IceMap.TILE_ICE | IceMap.TILE_IGLOO)) == 0;
+			if (wasFree != isFree && !rebuildAll)
+				markChanged(x, y);
+		}
+
+		@Override
+		public void mapReset(long changeVersion) {
+			rebuildAll = true;
+		}
+	};
+
+	/**
+	 * Creates a pathfinder with clusters of {@link #DEFAULT_CLUSTER_SIZE} tiles.
+	 */
+	public HierarchicalPathfinder() {
+		this(DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Creates a pathfinder with clusters of the given side.
+	 *
+	 * @param clusterSize side of a cluster, in tiles
+	 * @throws IllegalArgumentException if the size is smaller than 2
+	 */
+	public HierarchicalPathfinder(int clusterSize) {
+		super(PathCost.WALKING, PathHeuristic.MANHATTAN);
+		if (clusterSize < 2)
+			throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+		this.clusterSize = clusterSize;
+		int area = clusterSize * clusterSize;
+		localStamps = new int[area];
+		localDistances = new int[area];
+		localParents = new int[area];
+		localQueue = new int[area];
+	}
+
+	@Override
+	protected boolean search(int goal) {
+		sync();
+		startCluster = clusterAt(start);
+		goalCluster = clusterAt(goal);
+
+		// Enlazar el inicio y la meta con los nodos de sus clusters
+		localSearch(goalCluster, goal);
+		goalDistances = fitted(goalDistances, goalCluster.nodeCount);
+		for (int i = 0; i < goalCluster.nodeCount; i++) {
+			goalDistances[i] = localDistance(goalCluster, goalCluster.nodes[i]);
+		}
+		localSearch(startCluster, start);
+		startDistances = fitted(startDistances, startCluster.nodeCount);
+		for (int i = 0; i < startCluster.nodeCount; i++) {
+			startDistances[i] = localDistance(startCluster, startCluster.nodes[i]);
+		}
+		directDistance = startCluster == goalCluster ? localDistance(startCluster, goal) : INF;
+
+		while (!isOpenEmpty()) {
+			int tile = pollOpen();
+			if (tile == goal)
+				return true;
+			int base = costOf(tile);
+			if (tile == start) {
+				for (int i = 0; i < startCluster.nodeCount; i++) {
+					if (startDistances[i] != INF)
+						relax(startCluster.nodes[i], startDistances[i], tile);
+				}
+				if (directDistance != INF)
+					relax(goal, directDistance, tile);
+				if (stepCost(tile % width, tile / width) == PathCost.BLOCKED)
+					enterNeighbours(tile);
+			}
+			Cluster cluster = clusterAt(tile);
+			int index = cluster.indexOf(tile);
+			if (index < 0) {
+				if (tile != start)
+					linkEntry(cluster, tile, base, goal);
+				continue;
+			}
+			int count = cluster.nodeCount;
+			for (int j = 0; j < count; j++) {
+				int distance = cluster.distances[index * count + j];
+				if (j != index && distance != INF)
+					relax(cluster.nodes[j], base + distance, tile);
+			}
+			for (int k = 0; k < cluster.linkCount; k += 2) {
+				if (cluster.links[k] == index)
+					relax(cluster.links[k + 1], base + 1, tile);
+			}
+			if (cluster == goalCluster && goalDistances[index] != INF)
+				relax(goal, base + goalDistances[index], tile);
+		}
+		return false;
+	}
+
+	/**
+	 * A searcher standing on a blocked tile may step straight into the next
+	 * cluster without using a crossing, which needs both sides free.
+	 */
+	private void enterNeighbours(int tile) {
+		int x = tile % width;
+		int y = tile / width;
+		for (int d = 0; d < 4; d++) {
+			int nx = x + DX[d];
+			int ny = y + DY[d];
+			if (inside(nx, ny) && map.isWalkable(nx, ny)) {
+				int neighbour = ny * width + nx;
+				if (clusterAt(neighbour) != startCluster)
+					relax(neighbour, 1, tile);
+			}
+		}
+	}
+
+	/**
+	 * Links a tile entered from a blocked start with the nodes of its cluster and
+	 * with the goal.
+	 */
+	private void linkEntry(Cluster cluster, int tile, int base, int goal) {
+		localSearch(cluster, tile);
+		for (int j = 0; j < cluster.nodeCount; j++) {
+			int distance = localDistance(cluster, cluster.nodes[j]);
+			if (distance != INF)
+				relax(cluster.nodes[j], base + distance, tile);
+		}
+		if (cluster == goalCluster) {
+			int distance = localDistance(cluster, goal);
+			if (distance != INF)
+				relax(goal, base + distance, tile);
+		}
+	}
+
+	/**
+	 * Keeps the abstract path; its legs are walked when the path is read.
+	 */
+	@Override
+	protected void tracePath(int goal) {
+		waypointCount = 0;
+		for (int tile = goal; tile >= 0; tile = parentOf(tile)) {
+			if (waypointCount == waypoints.length)
+				waypoints = Arrays.copyOf(waypoints, waypointCount * 2);
+			waypoints[waypointCount++] = tile;
+		}
+		for (int i = 0, j = waypointCount - 1; i < j; i++, j--) {
+			int swap = waypoints[i];
+			waypoints[i] = waypoints[j];
+			waypoints[j] = swap;
+		}
+		appendPathTile(waypoints[0]);
+		nextWaypoint = 1;
+	}
+
+	@Override
+	public int getPathLength() {
+		return getPathCost() < 0 ? 0 : getPathCost() + 1;
+	}
+
+	/**
+	 * @throws IllegalStateException if the map changed since the query and a
+	 *                               leg can no longer be walked
+	 */
+	@Override
+	public int getPathX(int index) {
+		refineTo(index);
+		return super.getPathX(index);
+	}
+
+	/**
+	 * @throws IllegalStateException if the map changed since the query and a
+	 *                               leg can no longer be walked
+	 */
+	@Override
+	public int getPathY(int index) {
+		refineTo(index);
+		return super.getPathY(index);
+	}
+
+	/**
+	 * @return number of nodes of the abstract graph, after bringing it up to
+	 *         date with the map
+	 */
+	public int getNodeCount(IceMap map) {
+		this.map = map;
+		width = map.getWidth();
+		height = map.getHeight();
+		sync();
+		int count = 0;
+		for (Cluster cluster : clusters) {
+			count += cluster.nodeCount;
+		}
+		return count;
+	}
+
+	/**
+	 * Walks the legs of the abstract path until the tile at the index is known.
+	 */
+	private void refineTo(int index) {
+		while (getStoredLength() <= index && nextWaypoint < waypointCount) {
+			int from = waypoints[nextWaypoint - 1];
+			int to = waypoints[nextWaypoint++];
+			if (Math.abs(from % width - to % width) + Math.abs(from / width - to / width) == 1) {
+				appendPathTile(to);
+				continue;
+			}
+			// Ambos extremos de un tramo interno están en el mismo cluster
+			Cluster cluster = clusterAt(from);
+			localSearch(cluster, from);
+			if (localDistance(cluster, to) == INF)
+				throw new IllegalStateException("The map changed since the path was found");
+			int count = 0;
+			for (int tile = to; tile != from; tile = localParents[localIndex(cluster, tile)]) {
+				crossings = grown(crossings, count);
+				crossings[count++] = tile;
+			}
+			for (int i = count - 1; i >= 0; i--) {
+				appendPathTile(crossings[i]);
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------
+	// Mantenimiento del grafo
+
+	/**
+	 * Brings the abstract graph up to date with the map being searched.
+	 */
+	private void sync() {
+		if (map != graphMap || clusters == null || width != graphMap.getWidth() || height != graphMap.getHeight()) {
+			graphMap = map;
+			clustersX = (width + clusterSize - 1) / clusterSize;
+			clustersY = (height + clusterSize - 1) / clusterSize;
+			clusters = new Cluster[clustersX * clustersY];
+			for (int cy = 0; cy < clustersY; cy++) {
+				for (int cx = 0; cx < clustersX; cx++) {
+					int x0 = cx * clusterSize;
+					int y0 = cy * clusterSize;
+					clusters[cy * clustersX + cx] = new Cluster(x0, y0, Math.min(x0 + clusterSize, width),
+							Math.min(y0 + clusterSize, height));
+				}
+			}
+			eastBorders = new int[clusters.length][];
+			southBorders = new int[clusters.length][];
+			dirtyEast = new boolean[clusters.length];
+			dirtySouth = new boolean[clusters.length];
+			dirtyClusters = new boolean[clusters.length];
+			rebuildAll = true;
+		} else {
+			version = map.drainChanges(version, changes);
+		}
+
+		if (rebuildAll) {
+			rebuildAll = false;
+			version = map.getVersion();
+			pendingCount = 0;
+			Arrays.fill(dirtyEast, false);
+			Arrays.fill(dirtySouth, false);
+			Arrays.fill(dirtyClusters, false);
+			for (int i = 0; i < clusters.length; i++) {
+				eastBorders[i] = buildBorder(i, true);
+				southBorders[i] = buildBorder(i, false);
+			}
+			for (int i = 0; i < clusters.length; i++) {
+				buildCluster(i);
+			}
+			return;
+		}
+
+		// Primero los bordes, que ensucian los clusters de ambos lados
+		for (int i = 0; i < pendingCount; i++) {
+			int entry = pending[i];
+			int index = entry >> 2;
+			int kind = entry & 3;
+			if (kind == 1) {
+				eastBorders[index] = buildBorder(index, true);
+				dirtyEast[index] = false;
+				markCluster(index + 1);
+			} else if (kind == 2) {
+				southBorders[index] = buildBorder(index, false);
+				dirtySouth[index] = false;
+				markCluster(index + clustersX);
+			}
+		}
+		for (int i = 0; i < pendingCount; i++) {
+			int entry = pending[i];
+			if ((entry & 3) == 0) {
+				buildCluster(entry >> 2);
+				dirtyClusters[entry >> 2] = false;
+			}
+		}
+		pendingCount = 0;
+	}
+
+	/**
+	 * Marks what a change of walkability at (x, y) invalidates.
+	 */
+	private void markChanged(int x, int y) {
+		int cx = x / clusterSize;
+		int cy = y / clusterSize;
+		int index = cy * clustersX + cx;
+		markCluster(index);
+		if (x == cx * clusterSize && cx > 0)
+			markBorder(index - 1, true);
+		if (x == clusters[index].x1 - 1 && cx < clustersX - 1)
+			markBorder(index, true);
+		if (y == cy * clusterSize && cy > 0)
+			markBorder(index - clustersX, false);
+		if (y == clusters[index].y1 - 1 && cy < clustersY - 1)
+			markBorder(index, false);
+	}
+
+	private void markCluster(int index) {
+		if (!dirtyClusters[index]) {
+			dirtyClusters[index] = true;
+			addPending(index << 2);
+		}
+	}
+
+	private void markBorder(int index, boolean east) {
+		boolean[] dirty = east ? dirtyEast : dirtySouth;
+		if (!dirty[index]) {
+			dirty[index] = true;
+			markCluster(index);
+			addPending(index << 2 | (east ? 1 : 2));
+		}
+	}
+
+	private void addPending(int entry) {
+		pending = grown(pending, pendingCount);
+		pending[pendingCount++] = entry;
+	}
+
+	/**
+	 * Finds the crossings between a cluster and its neighbour to the east or to
+	 * the south.
+	 *
+	 * @return pairs (tile on this side, tile on the other side)
+	 */
+	private int[] buildBorder(int index, boolean east) {
+		Cluster cluster = clusters[index];
+		int cx = index % clustersX;
+		int cy = index / clustersX;
+		if (east ? cx == clustersX - 1 : cy == clustersY - 1)
+			return new int[0];
+		int length = east ? cluster.y1 - cluster.y0 : cluster.x1 - cluster.x0;
+		int count = 0;
+		int runStart = -1;
+		for (int p = 0; p <= length; p++) {
+			boolean open = p < length && isOpenPair(cluster, east, p);
+			if (open && runStart < 0) {
+				runStart = p;
+			} else if (!open && runStart >= 0) {
+				// Cerrar la entrada [runStart, p)
+				int runLength = p - runStart;
+				if (runLength < LONG_ENTRANCE) {
+					count = addCrossing(cluster, east, runStart + runLength / 2, count);
+				} else {
+					count = addCrossing(cluster, east, runStart, count);
+					count = addCrossing(cluster, east, p - 1, count);
+				}
+				runStart = -1;
+			}
+		}
+		return Arrays.copyOf(crossings, count);
+	}
+
+	private boolean isOpenPair(Cluster cluster, boolean east, int p) {
+		if (east)
+			return map.isWalkable(cluster.x1 - 1, cluster.y0 + p) && map.isWalkable(cluster.x1, cluster.y0 + p);
+		return map.isWalkable(cluster.x0 + p, cluster.y1 - 1) && map.isWalkable(cluster.x0 + p, cluster.y1);
+	}
+
+	private int addCrossing(Cluster cluster, boolean east, int p, int count) {
+		crossings = grown(crossings, count + 1);
+		if (east) {
+			crossings[count] = (cluster.y0 + p) * width + cluster.x1 - 1;
+			crossings[count + 1] = (cluster.y0 + p) * width + cluster.x1;
+		} else {
+			crossings[count] = (cluster.y1 - 1) * width + cluster.x0 + p;
+			crossings[count + 1] = cluster.y1 * width + cluster.x0 + p;
+		}
+		return count + 2;
+	}
+
+	/**
+	 * Collects the nodes of a cluster from its four borders and measures the
+	 * walking distance between every pair of them inside the cluster.
+	 */
+	private void buildCluster(int index) {
+		Cluster cluster = clusters[index];
+		cluster.nodeCount = 0;
+		cluster.linkCount = 0;
+		int cx = index % clustersX;
+		int cy = index / clustersX;
+		addLinks(cluster, eastBorders[index], 0);
+		addLinks(cluster, southBorders[index], 0);
+		if (cx > 0)
+			addLinks(cluster, eastBorders[index - 1], 1);
+		if (cy > 0)
+			addLinks(cluster, southBorders[index - clustersX], 1);
+
+		int count = cluster.nodeCount;
+		if (cluster.distances.length < count * count)
+			cluster.distances = new int[count * count];
+		for (int i = 0; i < count; i++) {
+			localSearch(cluster, cluster.nodes[i]);
+			for (int j = 0; j < count; j++) {
+				cluster.distances[i * count + j] = localDistance(cluster, cluster.nodes[j]);
+			}
+		}
+	}
+
+	private void addLinks(Cluster cluster, int[] border, int side) {
+		for (int k = 0; k < border.length; k += 2) {
+			cluster.addLink(border[k + side], border[k + 1 - side]);
+		}
+	}
+
+	// ------------------------------------------------------------------
+	// Búsqueda dentro de un cluster
+
+	/**
+	 * Breadth-first search from a tile that never leaves its cluster.
+	 */
+	private void localSearch(Cluster cluster, int source) {
+		if (++localGeneration == Integer.MAX_VALUE) {
+			Arrays.fill(localStamps, 0);
+			localGeneration = 1;
+		}
+		int sourceIndex = localIndex(cluster, source);
+		localStamps[sourceIndex] = localGeneration;
+		localDistances[sourceIndex] = 0;
+		localParents[sourceIndex] = -1;
+		int head = 0;
+		int tail = 0;
+		localQueue[tail++] = source;
+		while (head < tail) {
+			int tile = localQueue[head++];
+			int x = tile % width;
+			int y = tile / width;
+			int next = localDistances[localIndex(cluster, tile)] + 1;
+			for (int d = 0; d < 4; d++) {
+				int nx = x + DX[d];
+				int ny = y + DY[d];
+				if (nx < cluster.x0 || nx >= cluster.x1 || ny < cluster.y0 || ny >= cluster.y1
+						|| !map.isWalkable(nx, ny))
+					continue;
+				int neighbour = ny * width + nx;
+				int li = localIndex(cluster, neighbour);
+				if (localStamps[li] == localGeneration)
+					continue;
+				localStamps[li] = localGeneration;
+				localDistances[li] = next;
+				localParents[li] = tile;
+				localQueue[tail++] = neighbour;
+			}
+		}
+	}
+
+	private int localDistance(Cluster cluster, int tile) {
+		int li = localIndex(cluster, tile);
+		return localStamps[li] == localGeneration ? localDistances[li] : INF;
+	}
+
+	private int localIndex(Cluster cluster, int tile) {
+		return (tile / width - cluster.y0) * (cluster.x1 - cluster.x0) + tile % width - cluster.x0;
+	}
+
+	private Cluster clusterAt(int tile) {
+		return clusters[(tile / width) / clusterSize * clustersX + (tile % width) / clusterSize];
+	}
+
+	private static int[] fitted(int[] array, int size) {
+		return array.length >= size ? array : new int[Math.max(size, array.length * 2)];
+	}
+
+	private static int[] grown(int[] array, int index) {
+		return index < array.length ? array : Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+	}
+
+	/**
+	 * Bounds, nodes and links of one cluster.
+	 */
+	private static final class Cluster {
+
+		final int x0;
+		final int y0;
+		final int x1; // exclusivo
+		final int y1;
+		int[] nodes = new int[8];
+		int nodeCount;
+		int[] links = new int[16]; // pares (índice del nodo, casilla al otro lado)
+		int linkCount;
+		int[] distances = new int[0]; // nodeCount x nodeCount
+
+		Cluster(int x0, int y0, int x1, int y1) {
+			this.x0 = x0;
+			this.y0 = y0;
+			this.x1 = x1;
+			this.y1 = y1;
+		}
+
+		int indexOf(int tile) {
+			for (int i = 0; i < nodeCount; i++) {
+				if (nodes[i] == tile)
+					return i;
+			}
+			return -1;
+		}
+
+		void addLink(int tile, int partner) {
+			int index = indexOf(tile);
+			if (index < 0) {
+				nodes = grown(nodes, nodeCount);
+				index = nodeCount;
+				nodes[nodeCount++] = tile;
+			}
+			links = grown(links, linkCount + 1);
+			links[linkCount++] = index;
+			links[linkCount++] = partner;
+		}
+	}
+}
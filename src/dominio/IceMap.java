@@ -1,52 +1,156 @@
 package dominio;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
- * Represents the game map made of walkable tiles and ice blocks. A value of
- * true in the grid means there is an ice block.
+ * Represents the game map made of walkable tiles and ice blocks. Ice is kept in
+ * a packed bit grid: a set bit means there is an ice block. Whole rays of ice
+ * can be created, destroyed or scanned at once with the line operations.
+ * 
+ * Every tile also stores which obstacles cover it (igloo, firepit, hot tile)
+ * and a handle back to the obstacle object, so tile queries never have to walk
+ * the obstacle lists.
+ * 
+ * Each change of a tile bumps the map version and is written to a change
+ * journal, so consumers can catch up with only the tiles that changed. Once a
+ * snapshot has been taken, tile states are also mirrored in a persistent tree so
+ * later snapshots cost O(1) and only copy the rows modified in between.
+ * 
+ * The map keeps a Zobrist hash of its tiles that every published change
+ * updates, so {@link #getStateHash()} does not scan the board.
  */
 public class IceMap {
 
+	/** Tile kind flag: no obstacle. */
+	public static final byte TILE_NONE = 0;
+	/** Tile kind flag: covered by an igloo. */
+	public static final byte TILE_IGLOO = 1;
+	/** Tile kind flag: has a firepit. */
+	public static final byte TILE_FIREPIT = 2;
+	/** Tile kind flag: has a hot tile. */
+	public static final byte TILE_HOT_TILE = 4;
+	/** Cell state flag: has an ice block. */
+	public static final byte TILE_ICE = 8;
+	/** Cell state flag: the firepit on the tile is extinguished. */
+	public static final byte TILE_FIRE_OUT = 16;
+
+	/** Boards with more tiles than this are built chunked by default. */
+	public static final long CHUNKED_THRESHOLD = 1L << 22;
+
+	// Banderas que entran al hash; el fuego apagado lo cubre la clave de la fogata
+	private static final int HASHED_FLAGS = TILE_IGLOO | TILE_FIREPIT | TILE_HOT_TILE | TILE_ICE;
+	private static final int KIND_FLAGS = TILE_IGLOO | TILE_FIREPIT | TILE_HOT_TILE;
+
+	// Los bits altos del tipo de casilla cuentan sus fogatas encendidas
+	private static final int LIT_SHIFT = 5;
+	private static final int LIT_ONE = 1 << LIT_SHIFT;
+	/** Most firepits that can be stacked on one tile. */
+	public static final int MAX_FIREPITS_PER_TILE = 0xFF >>> LIT_SHIFT;
+
+	private static final int FILE_MAGIC = 0x49434D31; // "ICM1"
+	private static final int FILE_HEADER_BYTES = 4 * Integer.BYTES;
+
 	private int width;
 	private int height;
-	private boolean[][] iceGrid; // true, hay hielo
+	private BitGrid iceGrid; // bit encendido, hay hielo
+	private BitGrid tileMask; // bit encendido, hay algún obstáculo
+	private TileLayer tiles; // banderas TILE_*, fogatas encendidas y dueño de cada casilla
+	private boolean chunked;
+	private OffHeapRegion region; // solo en mapas fuera del heap
+	private WalkableCellIndex walkableCells; // se construye al primer uso
+	private RegionIndex regions; // se construye con la primera consulta
+	private BitGrid blockedTiles; // hielo o iglú; se construye al primer uso
+	private MapJournal journal;
+	private long tileHash; // hash Zobrist de las banderas de todas las casillas
+	private List<IceMapListener> listeners;
+	private CellTree cellTree; // se construye con la primera instantánea
+	private Firepit[] firepitArray; // copias compartidas por las instantáneas
+	private HotTile[] hotTileArray;
+	private Igloo[] iglooArray;
 
 	private List<Firepit> firepits;
 	private List<HotTile> hotTiles;
 	private List<Igloo> igloos;
 
 	/**
-	 * Creates a new IceMap with the given size.
+	 * Creates a new IceMap with the given size. Boards larger than
+	 * {@link #CHUNKED_THRESHOLD} tiles are chunked.
 	 * 
 	 * @param width  number of columns
 	 * @param height number of rows
 	 */
 	public IceMap(int width, int height) {
+		this(width, height, (long) width * height > CHUNKED_THRESHOLD);
+	}
+
+	/**
+	 * Creates a new IceMap with the given size and storage mode. A chunked map
+	 * splits every layer in 64x64 chunks that are allocated on the first write,
+	 * so memory grows with the touched area instead of the whole board.
+	 * 
+	 * @param width   number of columns
+	 * @param height  number of rows
+	 * @param chunked true for chunked storage, false for flat arrays
+	 */
+	public IceMap(int width, int height, boolean chunked) {
+		this(width, height,
+				chunked ? new ChunkedBitGrid(width, height) : new DenseBitGrid(width, height),
+				chunked ? new ChunkedBitGrid(width, height) : new DenseBitGrid(width, height),
+				chunked ? new ChunkedTileLayer(width, height) : new DenseTileLayer(width, height));
+		this.chunked = chunked;
+		generateBasicWalls();
+	}
+
+	/**
+	 * Creates a map over the given layers, without walls.
+	 */
+	private IceMap(int width, int height, BitGrid iceGrid, BitGrid tileMask, TileLayer tiles) {
 		this.width = width;
 		this.height = height;
-		iceGrid = new boolean[height][width];
+		this.iceGrid = iceGrid;
+		this.tileMask = tileMask;
+		this.tiles = tiles;
 		firepits = new ArrayList<>();
 		hotTiles = new ArrayList<>();
 		igloos = new ArrayList<>();
+		journal = new MapJournal();
+		listeners = new ArrayList<>();
+	}
 
-		generateBasicWalls();
+	/**
+	 * Creates a map whose ice grid and tile layer live in a single off-heap
+	 * region. The board adds no objects to the Java heap and can be saved or
+	 * loaded with one bulk transfer through {@link #writeTo(FileChannel)} and
+	 * {@link #readFrom(FileChannel)}.
+	 * 
+	 * @param width  number of columns
+	 * @param height number of rows
+	 * @return the new map, with border walls
+	 * @throws IllegalArgumentException if the board does not fit in one region
+	 */
+	public static IceMap createOffHeap(int width, int height) {
+		OffHeapRegion region = new OffHeapRegion(width, height);
+		IceMap map = new IceMap(width, height, region.getIceGrid(), region.getTileMask(), region.getTiles());
+		map.region = region;
+		map.generateBasicWalls();
+		return map;
 	}
 
 	/**
 	 * Generates simple border walls around the map.
 	 */
 	private void generateBasicWalls() {
-		for (int x = 0; x < width; x++) {
-			iceGrid[0][x] = true;
-			iceGrid[height - 1][x] = true;
-		}
-
-		for (int y = 0; y < height; y++) {
-			iceGrid[y][0] = true;
-			iceGrid[y][width - 1] = true;
-		}
+		iceGrid.setRowRange(0, 0, width, true);
+		iceGrid.setRowRange(height - 1, 0, width, true);
+		iceGrid.setColumnRange(0, 0, height, true);
+		iceGrid.setColumnRange(width - 1, 0, height, true);
+		rehashTiles();
 	}
 
 	/**
@@ -60,24 +164,19 @@ public class IceMap {
 		if (!inBounds(x, y))
 			return false;
 
-		if (iceGrid[y][x])
+		if (iceGrid.get(x, y))
 			return false; // Verificar que no sea hielo
 
 		// Verifica que no sea iglus
-		for (Igloo igloo : igloos) {
-			if (igloo.occupiesPosition(y, x)) {
-				return false;
-			}
-		}
 		// Las fogatas y baldosas calientes si se pueden caminar
 		// fogatas eliminan al jugador
-		return true;
-
+		return (tiles.getKind(x, y) & TILE_IGLOO) == 0;
 	}
 
 	/**
 	 * Checks if a position is safe for the player. Returns false if there's a lit
-	 * firepit.
+	 * firepit. The tile layer keeps how many lit firepits each tile holds, so
+	 * stacked firepits cost a single lookup too.
 	 * 
 	 * @param x tile x
 	 * @param y tile y
@@ -85,12 +184,62 @@ public class IceMap {
 	 */
 	public boolean isSafeForPlayer(int x, int y) {
 		// Verificar si hay una fogata encendida en esta posición
+		return !inBounds(x, y) || litFirepits(tiles.getKind(x, y)) == 0;
+	}
+
+	private static int litFirepits(byte kind) {
+		return (kind & 0xFF) >>> LIT_SHIFT;
+	}
+
+	/**
+	 * Called by an attached firepit when it is lit or extinguished, to keep the
+	 * count of lit firepits of its tile.
+	 */
+	void firepitLitChanged(Firepit firepit) {
+		countLit(firepit, firepit.isLit() ? 1 : -1);
+	}
+
+	private void countLit(Firepit firepit, int delta) {
+		int x = firepit.getColumn();
+		int y = firepit.getRow();
+		if (!inBounds(x, y))
+			return;
+		byte kind = tiles.getKind(x, y);
+		tiles.set(x, y, (byte) (kind + delta * LIT_ONE), tiles.getHandle(x, y));
+	}
+
+	/**
+	 * Makes the map count a firepit already on its list, so that the firepit
+	 * reports when it is lit or extinguished.
+	 */
+	private void attachFirepit(Firepit firepit) {
+		firepit.setMap(this);
+		if (firepit.isLit())
+			countLit(firepit, 1);
+	}
+
+	private void detachFirepits() {
 		for (Firepit firepit : firepits) {
-			if (firepit.getColumn() == x && firepit.getRow() == y && firepit.isLit()) {
-				return false; // Fogata encendida
-			}
+			firepit.setMap(null);
 		}
-		return true;
+	}
+
+	/**
+	 * Rejects a firepit that would overflow the lit count of its tile.
+	 */
+	private void checkStack(Firepit firepit) {
+		int x = firepit.getColumn();
+		int y = firepit.getRow();
+		if (!inBounds(x, y) || (tiles.getKind(x, y) & TILE_FIREPIT) == 0)
+			return;
+		int stacked = 0;
+		for (Firepit other : firepits) {
+			if (other.getColumn() == x && other.getRow() == y)
+				stacked++;
+		}
+		if (stacked >= MAX_FIREPITS_PER_TILE)
+			throw new IllegalArgumentException(
+					"At most " + MAX_FIREPITS_PER_TILE + " firepits fit on tile " + x + "," + y);
 	}
 
 	/**
@@ -105,36 +254,38 @@ public class IceMap {
 		if (!inBounds(x, y))
 			return false;
 
+		byte kind = tiles.getKind(x, y);
+
 		// Si hay un iglú, no se puede poner hielo
-		for (Igloo igloo : igloos) {
-			if (igloo.occupiesPosition(y, x)) {
-				return false;
-			}
-		}
+		if ((kind & TILE_IGLOO) != 0)
+			return false;
+
+		byte before = getCellState(x, y);
 
 		// Si estamos creando hielo
-		if (!iceGrid[y][x]) {
+		if (!iceGrid.get(x, y)) {
 			// Verificar si hay una fogata aquí
-			for (Firepit firepit : firepits) {
-				if (firepit.getColumn() == x && firepit.getRow() == y) {
-					// No crear hielo, pero apagar la fogata
-					firepit.extinguish();
-					return true;
-				}
+			if ((kind & TILE_FIREPIT) != 0) {
+				// No crear hielo, pero apagar la fogata
+				firepits.get(tiles.getHandle(x, y)).extinguish();
+				tileChanged(x, y, before);
+				return true;
 			}
 
 			// Verificar si hay una baldosa caliente
-			if (hasHotTile(x, y)) {
+			if ((kind & TILE_HOT_TILE) != 0) {
 				// El hielo se derrite instantáneamente, no se crea
 				return false;
 			}
 
 			// Crear hielo normalmente
-			iceGrid[y][x] = true;
+			iceGrid.set(x, y, true);
+			tileChanged(x, y, before);
 			return true;
 		} else {
 			// Destruir hielo
-			iceGrid[y][x] = false;
+			iceGrid.set(x, y, false);
+			tileChanged(x, y, before);
 			return true;
 		}
 
@@ -161,7 +312,485 @@ public class IceMap {
 	public boolean hasIce(int x, int y) {
 		if (!inBounds(x, y))
 			return false;
-		return iceGrid[y][x];
+		return iceGrid.get(x, y);
+	}
+
+	/**
+	 * Finds the first ice block along a ray. The ray starts at (x, y) and moves
+	 * one tile per step in the direction (dx, dy), which must be horizontal or
+	 * vertical.
+	 * 
+	 * @param x  starting tile x
+	 * @param y  starting tile y
+	 * @param dx direction x (-1, 0 or 1)
+	 * @param dy direction y (-1, 0 or 1)
+	 * @return number of steps from the start to the first ice block, or -1 if the
+	 *         ray leaves the map without finding ice
+	 */
+	public int nextIceAlong(int x, int y, int dx, int dy) {
+		if (!inBounds(x, y))
+			return -1;
+		if (dx == 0 && dy == 0)
+			return iceGrid.get(x, y) ? 0 : -1;
+
+		int found;
+		if (dy == 0) {
+			found = dx > 0 ? iceGrid.nextInRow(y, x, true) : iceGrid.previousInRow(y, x, true);
+			return found < 0 ? -1 : Math.abs(found - x);
+		}
+		found = dy > 0 ? iceGrid.nextInColumn(x, y, true) : iceGrid.previousInColumn(x, y, true);
+		return found < 0 ? -1 : Math.abs(found - y);
+	}
+
+	/**
+	 * Creates a line of ice starting at (x, y) in the direction (dx, dy). The line
+	 * stops before the first existing ice block, at the map edge or after
+	 * maxLength tiles. Every tile of the line follows the same rules as
+	 * {@link #toggleIce(int, int)}: igloos and hot tiles stay free and firepits are
+	 * extinguished instead of frozen.
+	 * 
+	 * @param x         starting tile x
+	 * @param y         starting tile y
+	 * @param dx        direction x (-1, 0 or 1)
+	 * @param dy        direction y (-1, 0 or 1)
+	 * @param maxLength maximum number of tiles covered by the line
+	 * @return number of tiles covered by the line
+	 */
+	public int fillIceLine(int x, int y, int dx, int dy, int maxLength) {
+		if (!inBounds(x, y) || maxLength <= 0)
+			return 0;
+
+		int length = freeRunLength(x, y, dx, dy, maxLength);
+		if (length == 0)
+			return 0;
+
+		// Llenar el tramo completo palabra a palabra
+		setLine(x, y, dx, dy, length, true);
+
+		// Respetar las reglas de cada obstáculo dentro del tramo
+		int from = lineStart(x, y, dx, dy, length);
+		int end = from + length;
+		int position = nextObstacleOnLine(x, y, dx, dy, from, end);
+		while (position >= 0) {
+			int tx = dy == 0 ? position : x;
+			int ty = dy == 0 ? y : position;
+			byte kind = tiles.getKind(tx, ty);
+			iceGrid.set(tx, ty, false);
+			if ((kind & TILE_IGLOO) == 0 && (kind & TILE_FIREPIT) != 0) {
+				byte before = getCellState(tx, ty);
+				firepits.get(tiles.getHandle(tx, ty)).extinguish();
+				tileChanged(tx, ty, before);
+			}
+			position = nextObstacleOnLine(x, y, dx, dy, position + 1, end);
+		}
+
+		// Registrar las casillas que quedaron con hielo
+		for (int i = 0; i < length; i++) {
+			int tx = x + i * dx;
+			int ty = y + i * dy;
+			tileChanged(tx, ty, (byte) (getCellState(tx, ty) & ~TILE_ICE));
+		}
+		return length;
+	}
+
+	/**
+	 * Destroys the run of consecutive ice blocks that starts at (x, y) in the
+	 * direction (dx, dy). Ice inside igloos is kept, as with
+	 * {@link #toggleIce(int, int)}.
+	 * 
+	 * @param x  starting tile x
+	 * @param y  starting tile y
+	 * @param dx direction x (-1, 0 or 1)
+	 * @param dy direction y (-1, 0 or 1)
+	 * @return number of tiles in the destroyed run
+	 */
+	public int clearIceLine(int x, int y, int dx, int dy) {
+		if (!inBounds(x, y) || !iceGrid.get(x, y))
+			return 0;
+
+		int length = iceRunLength(x, y, dx, dy);
+		setLine(x, y, dx, dy, length, false);
+
+		// El hielo dentro de un iglú no se puede romper
+		int from = lineStart(x, y, dx, dy, length);
+		int end = from + length;
+		int position = nextObstacleOnLine(x, y, dx, dy, from, end);
+		while (position >= 0) {
+			int tx = dy == 0 ? position : x;
+			int ty = dy == 0 ? y : position;
+			if ((tiles.getKind(tx, ty) & TILE_IGLOO) != 0) {
+				iceGrid.set(tx, ty, true);
+			}
+			position = nextObstacleOnLine(x, y, dx, dy, position + 1, end);
+		}
+
+		// Registrar las casillas que perdieron el hielo
+		for (int i = 0; i < length; i++) {
+			int tx = x + i * dx;
+			int ty = y + i * dy;
+			tileChanged(tx, ty, (byte) (getCellState(tx, ty) | TILE_ICE));
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the full state of a tile: its obstacle flags plus TILE_ICE when it
+	 * has ice and TILE_FIRE_OUT when its firepit is extinguished.
+	 * 
+	 * @param x tile x
+	 * @param y tile y
+	 * @return state flags of the tile, or TILE_NONE outside the map
+	 */
+	public byte getCellState(int x, int y) {
+		if (!inBounds(x, y))
+			return TILE_NONE;
+		byte kind = tiles.getKind(x, y);
+		byte state = (byte) (kind & KIND_FLAGS);
+		if (iceGrid.get(x, y))
+			state |= TILE_ICE;
+		if ((state & TILE_FIREPIT) != 0 && litFirepits(kind) == 0)
+			state |= TILE_FIRE_OUT;
+		return state;
+	}
+
+	/**
+	 * Records that a tile may have changed. If its state differs from the given
+	 * one, the version advances, the change goes to the journal and to the
+	 * listeners, and the indexes kept by the map are updated.
+	 */
+	private void tileChanged(int x, int y, byte before) {
+		byte after = getCellState(x, y);
+		if (after == before)
+			return;
+		if (cellTree != null) {
+			cellTree.set(x, y, after);
+		}
+		publish(x, y, before, after);
+	}
+
+	/**
+	 * Sends a tile change to the journal, the indexes and the listeners.
+	 */
+	private void publish(int x, int y, byte before, byte after) {
+		long version = journal.append(x, y, before, after);
+		tileHash ^= tileKeys(x, y, (before ^ after) & HASHED_FLAGS);
+		if (((before ^ after) & (TILE_ICE | TILE_IGLOO)) != 0) {
+			boolean walkable = isWalkable(x, y);
+			if (walkableCells != null) {
+				walkableCells.update(x, y, walkable);
+			}
+			if (regions != null) {
+				regions.update(x, y, walkable);
+			}
+			if (blockedTiles != null) {
+				blockedTiles.set(x, y, !walkable);
+			}
+		}
+		for (IceMapListener listener : listeners) {
+			listener.tileChanged(x, y, before, after, version);
+		}
+	}
+
+	/**
+	 * Records that the whole map changed at once.
+	 */
+	private void mapReset() {
+		long version = journal.reset();
+		walkableCells = null; // se reconstruyen al próximo uso
+		regions = null;
+		blockedTiles = null;
+		for (IceMapListener listener : listeners) {
+			listener.mapReset(version);
+		}
+	}
+
+	/**
+	 * Returns the Zobrist hash of the map: the ice and obstacles of every tile
+	 * and the phase of every firepit. The tile part is kept up to date by each
+	 * change; only the firepits are walked.
+	 * 
+	 * @return 64-bit hash of the map state
+	 */
+	public long getStateHash() {
+		long hash = tileHash;
+		for (Firepit firepit : firepits) {
+			hash ^= firepit.getZobrist();
+		}
+		return hash;
+	}
+
+	/**
+	 * Computes the same hash as {@link #getStateHash()} from scratch, reading
+	 * every tile of the board. Slow; meant to check the kept hash.
+	 * 
+	 * @return 64-bit hash of the map state
+	 */
+	public long computeStateHash() {
+		long hash = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				hash ^= tileKeys(x, y, getCellState(x, y) & HASHED_FLAGS);
+			}
+		}
+		for (Firepit firepit : firepits) {
+			hash ^= firepit.computeZobrist();
+		}
+		return hash;
+	}
+
+	/**
+	 * @return XOR of the keys of the given flags of a tile
+	 */
+	private static long tileKeys(int x, int y, int flags) {
+		long keys = 0;
+		while (flags != 0) {
+			int flag = Integer.lowestOneBit(flags);
+			keys ^= Zobrist.key(Zobrist.TILE + flag, x, y);
+			flags ^= flag;
+		}
+		return keys;
+	}
+
+	/**
+	 * Recomputes the tile hash after a change made without publishing each
+	 * tile. Only the set bits of the layers are visited.
+	 */
+	private void rehashTiles() {
+		long hash = 0;
+		for (int y = 0; y < height; y++) {
+			int x = iceGrid.nextInRow(y, 0, true);
+			while (x >= 0) {
+				hash ^= tileKeys(x, y, TILE_ICE);
+				x = x + 1 < width ? iceGrid.nextInRow(y, x + 1, true) : -1;
+			}
+			x = tileMask.nextInRow(y, 0, true);
+			while (x >= 0) {
+				hash ^= tileKeys(x, y, tiles.getKind(x, y) & HASHED_FLAGS);
+				x = x + 1 < width ? tileMask.nextInRow(y, x + 1, true) : -1;
+			}
+		}
+		tileHash = hash;
+	}
+
+	/**
+	 * @return current map version; it grows by one with every change
+	 */
+	public long getVersion() {
+		return journal.getVersion();
+	}
+
+	/**
+	 * Replays every change made after a version. If the journal no longer holds
+	 * all of them, the listener gets a single mapReset instead.
+	 * 
+	 * @param sinceVersion last version the caller has seen
+	 * @param listener     receives the changes
+	 * @return the current version, to pass on the next call
+	 */
+	public long drainChanges(long sinceVersion, IceMapListener listener) {
+		return journal.drain(sinceVersion, listener);
+	}
+
+	/**
+	 * Registers a listener that is told about every change as it happens.
+	 * 
+	 * @param listener the listener to add
+	 */
+	public void addListener(IceMapListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(IceMapListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Draws a uniformly random walkable tile. The first call builds an index of
+	 * the walkable tiles, which is then kept up to date by every change of the
+	 * map, so each draw takes constant time.
+	 * 
+	 * @param random source of randomness
+	 * @return the tile as y * width + x, or -1 if no tile is walkable
+	 */
+	public int randomWalkableCell(Random random) {
+		return walkableCells().random(random);
+	}
+
+	/**
+	 * @return number of walkable tiles
+	 */
+	public int countWalkableCells() {
+		return walkableCells().size();
+	}
+
+	/**
+	 * @return the walkable tile index, built from the whole map if needed
+	 */
+	private WalkableCellIndex walkableCells() {
+		if (walkableCells == null) {
+			walkableCells = new WalkableCellIndex(width, height);
+			for (int y = 0; y < height; y++) {
+				int x = iceGrid.nextInRow(y, 0, false);
+				while (x >= 0) {
+					walkableCells.update(x, y, isWalkable(x, y));
+					x = iceGrid.nextInRow(y, x + 1, false);
+				}
+			}
+		}
+		return walkableCells;
+	}
+
+	/**
+	 * Returns a grid with the tiles that cannot be walked (ice or igloo), kept up
+	 * to date with the map, so searches can scan whole rows and columns 64 tiles
+	 * at a time. The grid must not be modified.
+	 * 
+	 * @return the blocked tile grid, built from the whole map if needed
+	 */
+	BitGrid blockedGrid() {
+		if (blockedTiles == null) {
+			BitGrid grid = (long) width * height > CHUNKED_THRESHOLD ? new ChunkedBitGrid(width, height)
+					: new DenseBitGrid(width, height);
+			for (int y = 0; y < height; y++) {
+				// Copiar el hielo por tramos
+				int x = iceGrid.nextInRow(y, 0, true);
+				while (x >= 0) {
+					int end = iceGrid.nextInRow(y, x, false);
+					if (end < 0)
+						end = width;
+					grid.setRowRange(y, x, end, true);
+					x = iceGrid.nextInRow(y, end, true);
+				}
+				// Agregar los iglús
+				x = tileMask.nextInRow(y, 0, true);
+				while (x >= 0) {
+					if ((tiles.getKind(x, y) & TILE_IGLOO) != 0)
+						grid.set(x, y, true);
+					x = tileMask.nextInRow(y, x + 1, true);
+				}
+			}
+			blockedTiles = grid;
+		}
+		return blockedTiles;
+	}
+
+	/**
+	 * Checks if two tiles can reach each other walking through free tiles. The
+	 * first call labels the connected regions of the map; afterwards every
+	 * change of the map repairs the labels locally, so queries take constant
+	 * time.
+	 * 
+	 * @param x1 first tile x
+	 * @param y1 first tile y
+	 * @param x2 second tile x
+	 * @param y2 second tile y
+	 * @return true if both tiles are walkable and connected
+	 */
+	public boolean sameRegion(int x1, int y1, int x2, int y2) {
+		if (!inBounds(x1, y1) || !inBounds(x2, y2))
+			return false;
+		return regions().sameRegion(x1, y1, x2, y2);
+	}
+
+	/**
+	 * Returns the number of tiles reachable from a tile, the tile included.
+	 * 
+	 * @param x tile x
+	 * @param y tile y
+	 * @return size of the region of the tile, or 0 if it is not walkable
+	 */
+	public int regionSize(int x, int y) {
+		if (!inBounds(x, y))
+			return 0;
+		return regions().regionSize(x, y);
+	}
+
+	/**
+	 * @return the region index, labelled from the whole map if needed
+	 */
+	private RegionIndex regions() {
+		if (regions == null) {
+			boolean[] walkable = new boolean[width * height];
+			for (int y = 0; y < height; y++) {
+				int x = iceGrid.nextInRow(y, 0, false);
+				while (x >= 0) {
+					walkable[y * width + x] = isWalkable(x, y);
+					x = iceGrid.nextInRow(y, x + 1, false);
+				}
+			}
+			regions = new RegionIndex(width, height);
+			regions.build(walkable);
+		}
+		return regions;
+	}
+
+	/**
+	 * @return number of tiles without ice from (x, y) along the ray, capped by
+	 *         maxLength
+	 */
+	private int freeRunLength(int x, int y, int dx, int dy, int maxLength) {
+		if (dx == 0 && dy == 0)
+			return iceGrid.get(x, y) ? 0 : 1;
+
+		int ice = nextIceAlong(x, y, dx, dy);
+		int toEdge = dx > 0 ? width - x : dx < 0 ? x + 1 : dy > 0 ? height - y : y + 1;
+		int length = ice < 0 ? toEdge : ice;
+		return Math.min(length, maxLength);
+	}
+
+	/**
+	 * @return number of consecutive ice tiles from (x, y) along the ray
+	 */
+	private int iceRunLength(int x, int y, int dx, int dy) {
+		if (dx == 0 && dy == 0)
+			return 1;
+
+		int free;
+		if (dy == 0) {
+			free = dx > 0 ? iceGrid.nextInRow(y, x, false) : iceGrid.previousInRow(y, x, false);
+			return free < 0 ? (dx > 0 ? width - x : x + 1) : Math.abs(free - x);
+		}
+		free = dy > 0 ? iceGrid.nextInColumn(x, y, false) : iceGrid.previousInColumn(x, y, false);
+		return free < 0 ? (dy > 0 ? height - y : y + 1) : Math.abs(free - y);
+	}
+
+	/**
+	 * Sets or clears length tiles from (x, y) along the ray.
+	 */
+	private void setLine(int x, int y, int dx, int dy, int length, boolean value) {
+		if (dy == 0 && dx > 0) {
+			iceGrid.setRowRange(y, x, x + length, value);
+		} else if (dy == 0 && dx < 0) {
+			iceGrid.setRowRange(y, x - length + 1, x + 1, value);
+		} else if (dy > 0) {
+			iceGrid.setColumnRange(x, y, y + length, value);
+		} else if (dy < 0) {
+			iceGrid.setColumnRange(x, y - length + 1, y + 1, value);
+		} else {
+			iceGrid.set(x, y, value);
+		}
+	}
+
+	/**
+	 * @return lowest coordinate along the ray axis covered by a ray of the given
+	 *         length
+	 */
+	private static int lineStart(int x, int y, int dx, int dy, int length) {
+		if (dy == 0)
+			return dx < 0 ? x - length + 1 : x;
+		return dy < 0 ? y - length + 1 : y;
+	}
+
+	/**
+	 * @return coordinate along the ray axis of the next obstacle tile in [from,
+	 *         end), or -1
+	 */
+	private int nextObstacleOnLine(int x, int y, int dx, int dy, int from, int end) {
+		int found = dy == 0 ? tileMask.nextInRow(y, from, true) : tileMask.nextInColumn(x, from, true);
+		return found >= 0 && found < end ? found : -1;
 	}
 
 	/**
@@ -172,21 +801,70 @@ public class IceMap {
 	 * @return true if there is a hot tile
 	 */
 	public boolean hasHotTile(int x, int y) {
-		for (HotTile tile : hotTiles) {
-			if (tile.getColumn() == x && tile.getRow() == y) {
-				return true;
-			}
+		if (!inBounds(x, y))
+			return false;
+		return (tiles.getKind(x, y) & TILE_HOT_TILE) != 0;
+	}
+
+	/**
+	 * Returns the obstacle flags of a tile.
+	 * 
+	 * @param x tile x
+	 * @param y tile y
+	 * @return combination of TILE_IGLOO, TILE_FIREPIT and TILE_HOT_TILE, or
+	 *         TILE_NONE
+	 */
+	public byte getTileKind(int x, int y) {
+		if (!inBounds(x, y))
+			return TILE_NONE;
+		return (byte) (tiles.getKind(x, y) & KIND_FLAGS);
+	}
+
+	/**
+	 * Returns the firepit placed on a tile.
+	 * 
+	 * @param x tile x
+	 * @param y tile y
+	 * @return the first firepit added on the tile, or null
+	 */
+	public Firepit getFirepitAt(int x, int y) {
+		if (!inBounds(x, y) || (tiles.getKind(x, y) & TILE_FIREPIT) == 0)
+			return null;
+		return firepits.get(tiles.getHandle(x, y));
+	}
+
+	/**
+	 * Marks a tile with an obstacle flag. The firepit handle wins over the others
+	 * because it is the only obstacle with state.
+	 */
+	private void markTile(int x, int y, byte kind, int handle) {
+		if (!inBounds(x, y))
+			return;
+		byte current = tiles.getKind(x, y);
+		int owner = tiles.getHandle(x, y);
+		if (owner == TileLayer.NO_HANDLE || (kind == TILE_FIREPIT && (current & TILE_FIREPIT) == 0)) {
+			owner = handle;
 		}
-		return false;
+		tiles.set(x, y, (byte) (current | kind), owner);
+		tileMask.set(x, y, true);
 	}
 
 	/**
 	 * Adds a firepit to the map.
 	 * 
 	 * @param firepit the firepit to add
+	 * @throws IllegalArgumentException if its tile already holds
+	 *                                  {@link #MAX_FIREPITS_PER_TILE} firepits
 	 */
 	public void addFirepit(Firepit firepit) {
+		checkStack(firepit);
+		firepitArray = null;
+		byte before = getCellState(firepit.getColumn(), firepit.getRow());
 		firepits.add(firepit);
+		markTile(firepit.getColumn(), firepit.getRow(), TILE_FIREPIT, firepits.size() - 1);
+		attachFirepit(firepit);
+		if (inBounds(firepit.getColumn(), firepit.getRow()))
+			tileChanged(firepit.getColumn(), firepit.getRow(), before);
 	}
 
 	/**
@@ -195,7 +873,12 @@ public class IceMap {
 	 * @param hotTile the hot tile to add
 	 */
 	public void addHotTile(HotTile hotTile) {
+		hotTileArray = null;
+		byte before = getCellState(hotTile.getColumn(), hotTile.getRow());
 		hotTiles.add(hotTile);
+		markTile(hotTile.getColumn(), hotTile.getRow(), TILE_HOT_TILE, hotTiles.size() - 1);
+		if (inBounds(hotTile.getColumn(), hotTile.getRow()))
+			tileChanged(hotTile.getColumn(), hotTile.getRow(), before);
 	}
 
 	/**
@@ -204,7 +887,16 @@ public class IceMap {
 	 * @param igloo the igloo to add
 	 */
 	public void addIgloo(Igloo igloo) {
+		iglooArray = null;
 		igloos.add(igloo);
+		for (int y = igloo.getRow(); y < igloo.getRow() + igloo.getHeight(); y++) {
+			for (int x = igloo.getColumn(); x < igloo.getColumn() + igloo.getWidth(); x++) {
+				byte before = getCellState(x, y);
+				markTile(x, y, TILE_IGLOO, igloos.size() - 1);
+				if (inBounds(x, y))
+					tileChanged(x, y, before);
+			}
+		}
 	}
 
 	/**
@@ -212,7 +904,12 @@ public class IceMap {
 	 */
 	public void updateObstacles() {
 		for (Firepit firepit : firepits) {
+			int x = firepit.getColumn();
+			int y = firepit.getRow();
+			byte before = getCellState(x, y);
 			firepit.update();
+			if (inBounds(x, y))
+				tileChanged(x, y, before);
 		}
 	}
 
@@ -244,7 +941,9 @@ public class IceMap {
     public void setIcePattern(boolean[][] pattern) {
         for (int y = 0; y < Math.min(pattern.length, height); y++) {
             for (int x = 0; x < Math.min(pattern[y].length, width); x++) {
-                iceGrid[y][x] = pattern[y][x];
+                byte before = getCellState(x, y);
+                iceGrid.set(x, y, pattern[y][x]);
+                tileChanged(x, y, before);
             }
         }
     }
@@ -263,19 +962,380 @@ public class IceMap {
 		return height;
 	}
 
+	/**
+	 * @return true if the map uses chunked storage
+	 */
+	public boolean isChunked() {
+		return chunked;
+	}
+
+	/**
+	 * @return true if the map is stored in an off-heap region
+	 */
+	public boolean isOffHeap() {
+		return region != null;
+	}
+
+	/**
+	 * Writes an off-heap map to a channel: a small header, the whole region in
+	 * one bulk transfer, and the obstacle list.
+	 * 
+	 * @param channel channel open for writing
+	 * @throws IOException           if the channel fails
+	 * @throws IllegalStateException if the map is not off-heap
+	 */
+	public void writeTo(FileChannel channel) throws IOException {
+		if (region == null)
+			throw new IllegalStateException("Only off-heap maps can be written directly");
+
+		ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(FILE_MAGIC).putInt(width).putInt(height).putInt(region.size());
+		writeFully(channel, header);
+
+		region.writeTo(channel);
+
+		// Lista de obstáculos: pocos datos, en un solo bloque
+		int obstacleBytes = Integer.BYTES * (3 + 4 * firepits.size() + 2 * hotTiles.size() + 4 * igloos.size());
+		ByteBuffer obstacles = ByteBuffer.allocate(obstacleBytes).order(ByteOrder.LITTLE_ENDIAN);
+		obstacles.putInt(firepits.size()).putInt(hotTiles.size()).putInt(igloos.size());
+		for (Firepit firepit : firepits) {
+			obstacles.putInt(firepit.getRow()).putInt(firepit.getColumn());
+			obstacles.putInt(firepit.isLit() ? 1 : 0).putInt(firepit.getExtinguishTimer());
+		}
+		for (HotTile hotTile : hotTiles) {
+			obstacles.putInt(hotTile.getRow()).putInt(hotTile.getColumn());
+		}
+		for (Igloo igloo : igloos) {
+			obstacles.putInt(igloo.getRow()).putInt(igloo.getColumn());
+			obstacles.putInt(igloo.getWidth()).putInt(igloo.getHeight());
+		}
+		writeFully(channel, obstacles);
+	}
+
+	/**
+	 * Reads a map written by {@link #writeTo(FileChannel)}. The region is filled
+	 * straight from the channel; only the obstacle objects are rebuilt.
+	 * 
+	 * @param channel channel open for reading
+	 * @return the loaded off-heap map
+	 * @throws IOException if the channel fails or does not hold a map
+	 */
+	public static IceMap readFrom(FileChannel channel) throws IOException {
+		ByteBuffer header = readFully(channel, FILE_HEADER_BYTES);
+		if (header.getInt() != FILE_MAGIC)
+			throw new IOException("El archivo no contiene un mapa");
+		int width = header.getInt();
+		int height = header.getInt();
+		int size = header.getInt();
+		if (width <= 0 || height <= 0)
+			throw new IOException("Tamaño de mapa inválido: " + width + "x" + height);
+
+		OffHeapRegion region = new OffHeapRegion(width, height);
+		if (region.size() != size)
+			throw new IOException("El tamaño del mapa no coincide con el archivo");
+		region.readFrom(channel);
+		IceMap map = new IceMap(width, height, region.getIceGrid(), region.getTileMask(), region.getTiles());
+		map.region = region;
+
+		ByteBuffer counts = readFully(channel, 3 * Integer.BYTES);
+		int firepitCount = counts.getInt();
+		int hotTileCount = counts.getInt();
+		int iglooCount = counts.getInt();
+		if (firepitCount < 0 || hotTileCount < 0 || iglooCount < 0)
+			throw new IOException("Lista de obstáculos inválida");
+		ByteBuffer obstacles = readFully(channel,
+				Integer.BYTES * (4 * firepitCount + 2 * hotTileCount + 4 * iglooCount));
+
+		// Las casillas ya vienen marcadas en la región, con sus fogatas encendidas contadas
+		for (int i = 0; i < firepitCount; i++) {
+			Firepit firepit = new Firepit(obstacles.getInt(), obstacles.getInt());
+			firepit.restoreState(obstacles.getInt() != 0, obstacles.getInt());
+			firepit.setMap(map);
+			map.firepits.add(firepit);
+		}
+		for (int i = 0; i < hotTileCount; i++) {
+			map.hotTiles.add(new HotTile(obstacles.getInt(), obstacles.getInt()));
+		}
+		for (int i = 0; i < iglooCount; i++) {
+			map.igloos.add(new Igloo(obstacles.getInt(), obstacles.getInt(), obstacles.getInt(), obstacles.getInt()));
+		}
+		map.rehashTiles();
+		return map;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0)
+				throw new IOException("El archivo del mapa está incompleto");
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Loads a whole layout at once: the ice becomes an exact copy of the given
+	 * grid and every obstacle is added, without the per-tile rules and
+	 * notifications of toggleIce and the add methods. Listeners get a single
+	 * mapReset. Used by {@link IceMapBuilder}.
+	 */
+	void load(BitGrid ice, List<Firepit> newFirepits, List<HotTile> newHotTiles, List<Igloo> newIgloos) {
+		for (int y = 0; y < height; y++) {
+			iceGrid.setRowRange(y, 0, width, false);
+			int from = ice.nextInRow(y, 0, true);
+			while (from >= 0) {
+				int to = ice.nextInRow(y, from, false);
+				if (to < 0)
+					to = width;
+				iceGrid.setRowRange(y, from, to, true);
+				from = ice.nextInRow(y, to, true);
+			}
+		}
+		for (Igloo igloo : newIgloos) {
+			igloos.add(igloo);
+			for (int y = igloo.getRow(); y < igloo.getRow() + igloo.getHeight(); y++) {
+				for (int x = igloo.getColumn(); x < igloo.getColumn() + igloo.getWidth(); x++) {
+					markTile(x, y, TILE_IGLOO, igloos.size() - 1);
+				}
+			}
+		}
+		for (Firepit firepit : newFirepits) {
+			checkStack(firepit);
+			firepits.add(firepit);
+			markTile(firepit.getColumn(), firepit.getRow(), TILE_FIREPIT, firepits.size() - 1);
+			attachFirepit(firepit);
+		}
+		for (HotTile hotTile : newHotTiles) {
+			hotTiles.add(hotTile);
+			markTile(hotTile.getColumn(), hotTile.getRow(), TILE_HOT_TILE, hotTiles.size() - 1);
+		}
+		firepitArray = null;
+		hotTileArray = null;
+		iglooArray = null;
+		cellTree = null;
+		rehashTiles();
+		mapReset();
+	}
+
 	/**
 	 * Clears all obstacles (except walls). Used when resetting a level.
 	 */
 	public void clearObstacles() {
+		detachFirepits();
 		firepits.clear();
 		hotTiles.clear();
 		igloos.clear();
+		tileMask.clear();
+		tiles.clear();
+		firepitArray = null;
+		hotTileArray = null;
+		iglooArray = null;
 
 		// Limpiar hielo interno (mantener bordes)
 		for (int y = 1; y < height - 1; y++) {
-			for (int x = 1; x < width - 1; x++) {
-				iceGrid[y][x] = false;
+			iceGrid.setRowRange(y, 1, width - 1, false);
+		}
+
+		cellTree = null; // se reconstruye con la próxima instantánea
+		rehashTiles();
+		mapReset();
+	}
+
+	/**
+	 * Takes an immutable snapshot of the map. The first call builds the tree of
+	 * tile states; afterwards each call is O(1) plus a copy of the firepit
+	 * timers.
+	 * 
+	 * @return snapshot of the current state
+	 */
+	public IceMapSnapshot snapshot() {
+		if (firepitArray == null)
+			firepitArray = firepits.toArray(new Firepit[0]);
+		if (hotTileArray == null)
+			hotTileArray = hotTiles.toArray(new HotTile[0]);
+		if (iglooArray == null)
+			iglooArray = igloos.toArray(new Igloo[0]);
+
+		int[] fireTimers = new int[firepitArray.length];
+		for (int i = 0; i < fireTimers.length; i++) {
+			Firepit firepit = firepitArray[i];
+			fireTimers[i] = firepit.isLit() ? -1 : firepit.getExtinguishTimer();
+		}
+		CellTree tree = cellTree();
+		return new IceMapSnapshot(tree, tree.freeze(), getVersion(), firepitArray, hotTileArray, iglooArray,
+				fireTimers);
+	}
+
+	/**
+	 * Puts the map back in the state of a snapshot. Only the tiles that differ
+	 * from the snapshot are rewritten; they are reported to listeners and to the
+	 * journal as normal changes. If the obstacles themselves changed since the
+	 * snapshot, listeners get a single mapReset instead.
+	 * 
+	 * @param snapshot a snapshot taken from this map
+	 * @throws IllegalArgumentException if the snapshot has another size
+	 */
+	public void restore(IceMapSnapshot snapshot) {
+		if (snapshot.getWidth() != width || snapshot.getHeight() != height)
+			throw new IllegalArgumentException("Snapshot size does not match the map");
+
+		CellTree tree = cellTree();
+		boolean sameObstacles = snapshot.firepits == firepitArray && snapshot.hotTiles == hotTileArray
+				&& snapshot.igloos == iglooArray;
+		if (!sameObstacles) {
+			restoreObstacles(snapshot);
+		}
+		for (int i = 0; i < snapshot.fireTimers.length; i++) {
+			int timer = snapshot.fireTimers[i];
+			snapshot.firepits[i].restoreState(timer < 0, Math.max(timer, 0));
+		}
+
+		// Solo se recorren las ramas que no comparten con la instantánea
+		tree.diff(tree.getRoot(), snapshot.getRoot(), (x, y, before, after) -> {
+			iceGrid.set(x, y, (after & TILE_ICE) != 0);
+			if (sameObstacles) {
+				publish(x, y, before, after);
+			}
+		});
+		tree.adopt(snapshot.getRoot());
+		if (!sameObstacles) {
+			rehashTiles();
+			mapReset();
+		}
+	}
+
+	/**
+	 * Makes another map of the same size an exact copy of this one, for search
+	 * bots that copy a game many times. The target keeps its own storage: the
+	 * layers are copied word by word, its firepits are reused when they stand
+	 * on the same tiles, and hot tiles and igloos, which never change, are
+	 * shared. The walkable tile index is copied in its slot order, so both
+	 * maps draw the same random tiles afterwards. The target's listeners and
+	 * journal readers get a single mapReset.
+	 * 
+	 * @param target map to overwrite
+	 * @throws IllegalArgumentException if the target has another size
+	 */
+	public void copyInto(IceMap target) {
+		if (target == this)
+			return;
+		if (target.width != width || target.height != height)
+			throw new IllegalArgumentException("Target map size does not match");
+		// Primero las fogatas: sus avisos tocan la capa que se copia después
+		copyObstaclesInto(target);
+		target.iceGrid.copyFrom(iceGrid);
+		target.tileMask.copyFrom(tileMask);
+		target.tiles.copyFrom(tiles, width, height);
+		target.cellTree = null;
+		target.tileHash = tileHash;
+
+		WalkableCellIndex index = target.walkableCells;
+		target.mapReset();
+		if (walkableCells != null) {
+			// El orden de los espacios decide qué casilla sale al azar
+			if (index == null)
+				index = new WalkableCellIndex(width, height);
+			index.copyFrom(walkableCells);
+			target.walkableCells = index;
+		}
+	}
+
+	/**
+	 * Copies the obstacle lists into a target map whose tile layer already
+	 * holds the same handles.
+	 */
+	private void copyObstaclesInto(IceMap target) {
+		boolean sameFirepits = target.firepits.size() == firepits.size();
+		for (int i = 0; sameFirepits && i < firepits.size(); i++) {
+			Firepit own = firepits.get(i);
+			Firepit other = target.firepits.get(i);
+			sameFirepits = own != other && own.getRow() == other.getRow() && own.getColumn() == other.getColumn();
+		}
+		if (sameFirepits) {
+			for (int i = 0; i < firepits.size(); i++) {
+				Firepit firepit = firepits.get(i);
+				target.firepits.get(i).restoreState(firepit.isLit(), firepit.getExtinguishTimer());
+			}
+		} else {
+			target.detachFirepits();
+			target.firepits.clear();
+			for (Firepit firepit : firepits) {
+				Firepit copy = new Firepit(firepit.getRow(), firepit.getColumn(), firepit.isLit(),
+						firepit.getExtinguishTimer());
+				copy.setMap(target);
+				target.firepits.add(copy);
 			}
 		}
+		target.hotTiles.clear();
+		target.hotTiles.addAll(hotTiles);
+		target.igloos.clear();
+		target.igloos.addAll(igloos);
+		target.firepitArray = null;
+		target.hotTileArray = null;
+		target.iglooArray = null;
+	}
+
+	/**
+	 * Replaces the obstacle lists and the tile layer with those of a snapshot.
+	 */
+	private void restoreObstacles(IceMapSnapshot snapshot) {
+		detachFirepits();
+		firepits.clear();
+		hotTiles.clear();
+		igloos.clear();
+		tileMask.clear();
+		tiles.clear();
+		for (Firepit firepit : snapshot.firepits) {
+			firepits.add(firepit);
+			markTile(firepit.getColumn(), firepit.getRow(), TILE_FIREPIT, firepits.size() - 1);
+			attachFirepit(firepit);
+		}
+		for (HotTile hotTile : snapshot.hotTiles) {
+			hotTiles.add(hotTile);
+			markTile(hotTile.getColumn(), hotTile.getRow(), TILE_HOT_TILE, hotTiles.size() - 1);
+		}
+		for (Igloo igloo : snapshot.igloos) {
+			igloos.add(igloo);
+			for (int y = igloo.getRow(); y < igloo.getRow() + igloo.getHeight(); y++) {
+				for (int x = igloo.getColumn(); x < igloo.getColumn() + igloo.getWidth(); x++) {
+					markTile(x, y, TILE_IGLOO, igloos.size() - 1);
+				}
+			}
+		}
+		firepitArray = snapshot.firepits;
+		hotTileArray = snapshot.hotTiles;
+		iglooArray = snapshot.igloos;
+	}
+
+	/**
+	 * @return the tree of tile states, built from the layers on first use
+	 */
+	private CellTree cellTree() {
+		if (cellTree == null) {
+			cellTree = new CellTree(width, height);
+			for (int y = 0; y < height; y++) {
+				copyRowToTree(iceGrid, y);
+				copyRowToTree(tileMask, y);
+			}
+		}
+		return cellTree;
+	}
+
+	/**
+	 * Writes into the tree the state of every set tile of a row of a layer.
+	 */
+	private void copyRowToTree(BitGrid layer, int y) {
+		int x = layer.nextInRow(y, 0, true);
+		while (x >= 0) {
+			cellTree.set(x, y, getCellState(x, y));
+			x = x + 1 < width ? layer.nextInRow(y, x + 1, true) : -1;
+		}
 	}
 }
\ No newline at end of file
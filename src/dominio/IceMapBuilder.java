@@ -0,0 +1,235 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the layout of a level and produces a ready {@link IceMap} in one
+ * pass. The layout starts with the border walls. Ice primitives have set
+ * semantics: stamping the same tile twice keeps the ice, unlike
+ * {@link IceMap#toggleIce(int, int)}. Ice and obstacles are independent layers,
+ * so ice may sit under an igloo or a hot tile, as in the built-in levels. The
+ * layout is validated once by {@link #build()}.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class IceMapBuilder {
+
+	private final int width;
+	private final int height;
+	private final BitGrid ice;
+	private final List<Firepit> firepits;
+	private final Set<Firepit> restoredFirepits; // pueden quedar bajo hielo
+	private final List<HotTile> hotTiles;
+	private final List<Igloo> igloos;
+	private boolean offHeap;
+
+	/**
+	 * Creates a builder for a board of the given size, with border walls.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	public IceMapBuilder(int width, int height) {
+		if (width <= 0 || height <= 0)
+			throw new IllegalArgumentException("Invalid board size: " + width + "x" + height);
+		this.width = width;
+		this.height = height;
+		boolean chunked = (long) width * height > IceMap.CHUNKED_THRESHOLD;
+		ice = chunked ? new ChunkedBitGrid(width, height) : new DenseBitGrid(width, height);
+		firepits = new ArrayList<>();
+		restoredFirepits = Collections.newSetFromMap(new IdentityHashMap<>());
+		hotTiles = new ArrayList<>();
+		igloos = new ArrayList<>();
+
+		// Paredes del borde, igual que un mapa nuevo
+		ice.setRowRange(0, 0, width, true);
+		ice.setRowRange(height - 1, 0, width, true);
+		ice.setColumnRange(0, 0, height, true);
+		ice.setColumnRange(width - 1, 0, height, true);
+	}
+
+	/**
+	 * Builds the map in an off-heap region instead of the default storage.
+	 *
+	 * @param offHeap true for {@link IceMap#createOffHeap(int, int)}
+	 * @return this builder
+	 */
+	public IceMapBuilder setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+		return this;
+	}
+
+	/**
+	 * Puts ice on one tile.
+	 *
+	 * @param x tile x
+	 * @param y tile y
+	 * @return this builder
+	 */
+	public IceMapBuilder addIce(int x, int y) {
+		return addIceRect(x, y, 1, 1);
+	}
+
+	/**
+	 * Fills a rectangle with ice.
+	 *
+	 * @param x          left column
+	 * @param y          top row
+	 * @param rectWidth  number of columns
+	 * @param rectHeight number of rows
+	 * @return this builder
+	 * @throws IllegalArgumentException if the rectangle leaves the board
+	 */
+	public IceMapBuilder addIceRect(int x, int y, int rectWidth, int rectHeight) {
+		checkArea(x, y, rectWidth, rectHeight);
+		for (int row = y; row < y + rectHeight; row++) {
+			ice.setRowRange(row, x, x + rectWidth, true);
+		}
+		return this;
+	}
+
+	/**
+	 * Removes the ice of a rectangle, walls included.
+	 *
+	 * @param x          left column
+	 * @param y          top row
+	 * @param rectWidth  number of columns
+	 * @param rectHeight number of rows
+	 * @return this builder
+	 * @throws IllegalArgumentException if the rectangle leaves the board
+	 */
+	public IceMapBuilder clearIceRect(int x, int y, int rectWidth, int rectHeight) {
+		checkArea(x, y, rectWidth, rectHeight);
+		for (int row = y; row < y + rectHeight; row++) {
+			ice.setRowRange(row, x, x + rectWidth, false);
+		}
+		return this;
+	}
+
+	/**
+	 * Puts ice on length tiles from (x, y) in the direction (dx, dy).
+	 *
+	 * @param x      starting tile x
+	 * @param y      starting tile y
+	 * @param dx     direction x (-1, 0 or 1)
+	 * @param dy     direction y (-1, 0 or 1)
+	 * @param length number of tiles
+	 * @return this builder
+	 * @throws IllegalArgumentException if the line leaves the board
+	 */
+	public IceMapBuilder addIceLine(int x, int y, int dx, int dy, int length) {
+		if (length <= 0)
+			return this;
+		int endX = x + dx * (length - 1);
+		int endY = y + dy * (length - 1);
+		checkArea(Math.min(x, endX), Math.min(y, endY), 1, 1);
+		checkArea(Math.max(x, endX), Math.max(y, endY), 1, 1);
+		if (dy == 0) {
+			ice.setRowRange(y, Math.min(x, endX), Math.max(x, endX) + 1, true);
+		} else if (dx == 0) {
+			ice.setColumnRange(x, Math.min(y, endY), Math.max(y, endY) + 1, true);
+		} else {
+			for (int i = 0; i < length; i++) {
+				ice.set(x + i * dx, y + i * dy, true);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Stamps a pattern of ice with its top-left corner at (x, y). Every 'X' or
+	 * '#' puts ice; any other character leaves the tile as it was.
+	 *
+	 * @param x    left column
+	 * @param y    top row
+	 * @param rows one string per row of the pattern
+	 * @return this builder
+	 * @throws IllegalArgumentException if the pattern leaves the board
+	 */
+	public IceMapBuilder stamp(int x, int y, String... rows) {
+		for (int dy = 0; dy < rows.length; dy++) {
+			String row = rows[dy];
+			checkArea(x, y + dy, row.length(), row.isEmpty() ? 0 : 1);
+			for (int dx = 0; dx < row.length(); dx++) {
+				char c = row.charAt(dx);
+				if (c == 'X' || c == '#') {
+					ice.set(x + dx, y + dy, true);
+				}
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * @param firepit firepit to place
+	 * @return this builder
+	 */
+	public IceMapBuilder addFirepit(Firepit firepit) {
+		firepits.add(firepit);
+		return this;
+	}
+
+	/**
+	 * Places a firepit taken from a saved map, in the state it was saved. Unlike
+	 * {@link #addFirepit(Firepit)} it may lie under ice, as a firepit does once
+	 * ice is laid over it during a game.
+	 *
+	 * @param firepit firepit to place
+	 * @return this builder
+	 */
+	public IceMapBuilder restoreFirepit(Firepit firepit) {
+		firepits.add(firepit);
+		restoredFirepits.add(firepit);
+		return this;
+	}
+
+	/**
+	 * @param hotTile hot tile to place
+	 * @return this builder
+	 */
+	public IceMapBuilder addHotTile(HotTile hotTile) {
+		hotTiles.add(hotTile);
+		return this;
+	}
+
+	/**
+	 * @param igloo igloo to place
+	 * @return this builder
+	 */
+	public IceMapBuilder addIgloo(Igloo igloo) {
+		igloos.add(igloo);
+		return this;
+	}
+
+	/**
+	 * Validates the layout and produces the map.
+	 *
+	 * @return a new map with the ice and obstacles of the layout
+	 * @throws IllegalStateException if ice covers a firepit added with
+	 *                               {@link #addFirepit(Firepit)}
+	 */
+	public IceMap build() {
+		for (Firepit firepit : firepits) {
+			if (restoredFirepits.contains(firepit))
+				continue;
+			int x = firepit.getColumn();
+			int y = firepit.getRow();
+			if (x >= 0 && x < width && y >= 0 && y < height && ice.get(x, y))
+				throw new IllegalStateException("Ice cannot cover the firepit at (" + x + ", " + y + ")");
+		}
+
+		IceMap map = offHeap ? IceMap.createOffHeap(width, height) : new IceMap(width, height);
+		map.load(ice, firepits, hotTiles, igloos);
+		return map;
+	}
+
+	private void checkArea(int x, int y, int areaWidth, int areaHeight) {
+		if (x < 0 || y < 0 || areaWidth < 0 || areaHeight < 0 || x + areaWidth > width || y + areaHeight > height)
+			throw new IllegalArgumentException("Area (" + x + ", " + y + ", " + areaWidth + "x" + areaHeight
+					+ ") leaves the " + width + "x" + height + " board");
+	}
+}
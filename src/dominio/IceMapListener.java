@@ -0,0 +1,31 @@
+package dominio;
+
+/**
+ * Receives the changes of an IceMap, either pushed as they happen (see
+ * {@link IceMap#addListener(IceMapListener)}) or replayed from the journal (see
+ * {@link IceMap#drainChanges(long, IceMapListener)}).
+ * 
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public interface IceMapListener {
+
+	/**
+	 * Called when the state of a tile changes.
+	 * 
+	 * @param x        tile x
+	 * @param y        tile y
+	 * @param oldState state before the change (see {@link IceMap#getCellState})
+	 * @param newState state after the change
+	 * @param version  map version reached with this change
+	 */
+	void tileChanged(int x, int y, byte oldState, byte newState, long version);
+
+	/**
+	 * Called when the whole map changed at once, or when the journal no longer
+	 * holds every change since the last drain. The receiver must read the map
+	 * again from scratch.
+	 * 
+	 * @param version map version after the reset
+	 */
+	void mapReset(long version);
+}
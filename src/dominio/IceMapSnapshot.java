@@ -0,0 +1,97 @@
+package dominio;
+
+/**
+ * Immutable view of an {@link IceMap} at one version. Taking a snapshot is
+ * O(1): tile states live in a persistent tree shared with the map, and the map
+ * only copies the rows it modifies afterwards. A snapshot never changes once
+ * created, so other threads can read it without locks while the game keeps
+ * mutating the live map, and it can be handed back to
+ * {@link IceMap#restore(IceMapSnapshot)} to rewind the board.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public final class IceMapSnapshot {
+
+	private final CellTree tree;
+	private final CellTree.Node root;
+	private final long version;
+
+	// Los obstáculos se comparten entre instantáneas hasta que cambia la lista
+	final Firepit[] firepits;
+	final HotTile[] hotTiles;
+	final Igloo[] igloos;
+	final int[] fireTimers; // -1 si la fogata está encendida
+
+	IceMapSnapshot(CellTree tree, CellTree.Node root, long version, Firepit[] firepits, HotTile[] hotTiles,
+			Igloo[] igloos, int[] fireTimers) {
+		this.tree = tree;
+		this.root = root;
+		this.version = version;
+		this.firepits = firepits;
+		this.hotTiles = hotTiles;
+		this.igloos = igloos;
+		this.fireTimers = fireTimers;
+	}
+
+	/**
+	 * Returns the state of a tile when the snapshot was taken.
+	 *
+	 * @param x tile x
+	 * @param y tile y
+	 * @return same flags as {@link IceMap#getCellState(int, int)}
+	 */
+	public byte getCellState(int x, int y) {
+		if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight())
+			return IceMap.TILE_NONE;
+		return tree.get(root, x, y);
+	}
+
+	/**
+	 * @return true if the tile had ice
+	 */
+	public boolean hasIce(int x, int y) {
+		return (getCellState(x, y) & IceMap.TILE_ICE) != 0;
+	}
+
+	/**
+	 * @return true if the tile was inside the map, free of ice and not in an igloo
+	 */
+	public boolean isWalkable(int x, int y) {
+		if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight())
+			return false;
+		return (getCellState(x, y) & (IceMap.TILE_ICE | IceMap.TILE_IGLOO)) == 0;
+	}
+
+	/**
+	 * @return false if the tile had a lit firepit
+	 */
+	public boolean isSafeForPlayer(int x, int y) {
+		byte state = getCellState(x, y);
+		return (state & IceMap.TILE_FIREPIT) == 0 || (state & IceMap.TILE_FIRE_OUT) != 0;
+	}
+
+	/**
+	 * @return map version the snapshot was taken at
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return map width
+	 */
+	public int getWidth() {
+		return tree.getWidth();
+	}
+
+	/**
+	 * @return map height
+	 */
+	public int getHeight() {
+		return tree.getHeight();
+	}
+
+	CellTree.Node getRoot() {
+		return root;
+	}
+}
@@ -0,0 +1,148 @@
+package dominio;
+
+/**
+ * Jump Point Search for the 4-connected board, where every walkable tile costs
+ * one tick. Among the many equally short paths of an open floor it only
+ * follows the ones that move horizontally first and turn vertically at the
+ * last moment, so runs of tiles are crossed by scanning instead of being
+ * pushed through the open set one by one. Scans read the map's blocked tile
+ * grid, so a vertical jump covers 64 tiles per step:
+ *
+ * - A horizontal jump stops at the goal, at a tile whose vertical neighbour
+ * opens up behind an obstacle, or at a tile from which a vertical jump finds
+ * something.
+ * - A vertical jump stops at the goal or at a tile whose horizontal neighbour
+ * opens up behind an obstacle.
+ *
+ * Paths have the same cost as {@link AStarPathfinder} with
+ * {@link PathCost#WALKING}.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class JumpPointPathfinder extends Pathfinder {
+
+	private BitGrid blocked; // casillas no caminables del mapa consultado
+
+	/**
+	 * Creates a walking pathfinder guided by the Manhattan distance.
+	 */
+	public JumpPointPathfinder() {
+		super(PathCost.WALKING, PathHeuristic.MANHATTAN);
+	}
+
+	@Override
+	protected boolean search(int goal) {
+		blocked = map.blockedGrid();
+		while (!isOpenEmpty()) {
+			int tile = pollOpen();
+			if (tile == goal)
+				return true;
+			int x = tile % width;
+			int y = tile / width;
+			int parent = parentOf(tile);
+			if (parent < 0) {
+				// El inicio explora las cuatro direcciones
+				jumpFrom(tile, x, y, 1, 0);
+				jumpFrom(tile, x, y, -1, 0);
+				jumpFrom(tile, x, y, 0, 1);
+				jumpFrom(tile, x, y, 0, -1);
+			} else if (parent / width == y) {
+				// Llegó horizontalmente: seguir y probar ambas verticales
+				int dx = parent < tile ? 1 : -1;
+				jumpFrom(tile, x, y, dx, 0);
+				jumpFrom(tile, x, y, 0, 1);
+				jumpFrom(tile, x, y, 0, -1);
+			} else {
+				// Llegó verticalmente: seguir y tomar los vecinos forzados
+				int dy = parent < tile ? 1 : -1;
+				jumpFrom(tile, x, y, 0, dy);
+				for (int side = -1; side <= 1; side += 2) {
+					if (isFree(x + side, y) && !isFree(x + side, y - dy))
+						jumpFrom(tile, x, y, side, 0);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Jumps from a tile in one direction and records the jump point found.
+	 */
+	private void jumpFrom(int tile, int x, int y, int dx, int dy) {
+		int point = dx != 0 ? jumpHorizontal(x, y, dx) : jumpVertical(x, y, dy);
+		if (point >= 0) {
+			int distance = Math.abs(point % width - x) + Math.abs(point / width - y);
+			relax(point, costOf(tile) + distance, tile);
+		}
+	}
+
+	/**
+	 * @return the jump point reached moving horizontally, or -1
+	 */
+	private int jumpHorizontal(int x, int y, int dx) {
+		int first = x + dx;
+		if (first < 0 || first >= width || blocked.get(first, y))
+			return -1;
+		int wall = dx > 0 ? blocked.nextInRow(y, first, true) : blocked.previousInRow(y, first, true);
+		int last = wall >= 0 ? wall - dx : (dx > 0 ? width - 1 : 0);
+		for (int cx = first;; cx += dx) {
+			if (cx == goalX && y == goalY)
+				return y * width + cx;
+			for (int side = -1; side <= 1; side += 2) {
+				if (isFree(cx, y + side) && !isFree(cx - dx, y + side))
+					return y * width + cx;
+			}
+			if (jumpVertical(cx, y, 1) >= 0 || jumpVertical(cx, y, -1) >= 0)
+				return y * width + cx;
+			if (cx == last)
+				return -1;
+		}
+	}
+
+	/**
+	 * Finds the jump point reached moving vertically with whole-column scans:
+	 * the closest of the goal and the first tile of each side column that is
+	 * free after a blocked one.
+	 *
+	 * @return the jump point, or -1
+	 */
+	private int jumpVertical(int x, int y, int dy) {
+		int first = y + dy;
+		if (first < 0 || first >= height || blocked.get(x, first))
+			return -1;
+		int wall = scanColumn(x, first, dy, true);
+		int last = wall >= 0 ? wall - dy : (dy > 0 ? height - 1 : 0);
+		int found = -1;
+		if (x == goalX && isBetween(goalY, first, last, dy))
+			found = goalY;
+		for (int side = -1; side <= 1; side += 2) {
+			int column = x + side;
+			if (column < 0 || column >= width)
+				continue;
+			// La fila de partida cuenta como la casilla de atrás de la primera
+			int behind = scanColumn(column, y, dy, true);
+			if (behind < 0)
+				continue;
+			int opening = scanColumn(column, behind, dy, false);
+			if (opening >= 0 && isBetween(opening, first, last, dy) && (found < 0 || (opening - found) * dy < 0))
+				found = opening;
+		}
+		return found < 0 ? -1 : found * width + x;
+	}
+
+	/**
+	 * @return first row from the given one, moving in dy, whose blocked bit in
+	 *         the column equals value, or -1
+	 */
+	private int scanColumn(int x, int from, int dy, boolean value) {
+		return dy > 0 ? blocked.nextInColumn(x, from, value) : blocked.previousInColumn(x, from, value);
+	}
+
+	private static boolean isBetween(int value, int first, int last, int direction) {
+		return (value - first) * direction >= 0 && (last - value) * direction >= 0;
+	}
+
+	private boolean isFree(int x, int y) {
+		return inside(x, y) && !blocked.get(x, y);
+	}
+}
@@ -0,0 +1,79 @@
+package dominio;
+
+/**
+ * How often enemies far from every player are updated. Enemies within the
+ * near radius (Manhattan distance to the closest player) are updated every
+ * tick. The rest are visited once every farCadence ticks; a visit runs the
+ * ticks the enemy missed as catch-up steps, at most maxCatchUp of them, and
+ * the ticks beyond that are dropped, so far enemies may move slower than near
+ * ones. Enemies never jump: every step is a normal update, and the game checks
+ * collisions with the players after each one. Trolls asleep on their cycle
+ * (see {@link Troll}) are scheduled the same way; a visit moves them along
+ * the cycle one step per catch-up tick.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public final class LevelOfDetail {
+
+	/** Every enemy updated every tick; the default for every level. */
+	public static final LevelOfDetail FULL = new LevelOfDetail(Integer.MAX_VALUE, 1, 1);
+
+	private final int nearRadius;
+	private final int farCadence;
+	private final int maxCatchUp;
+
+	/**
+	 * Creates a level of detail.
+	 *
+	 * @param nearRadius distance to the closest player up to which an enemy is
+	 *                   updated every tick
+	 * @param farCadence ticks between two visits of a far enemy
+	 * @param maxCatchUp most steps run in one visit
+	 * @throws IllegalArgumentException if a value is out of range
+	 */
+	public LevelOfDetail(int nearRadius, int farCadence, int maxCatchUp) {
+		if (nearRadius < 0)
+			throw new IllegalArgumentException("Near radius must not be negative: " + nearRadius);
+		if (farCadence < 1)
+			throw new IllegalArgumentException("Far cadence must be at least 1: " + farCadence);
+		if (maxCatchUp < 1)
+			throw new IllegalArgumentException("Catch-up steps must be at least 1: " + maxCatchUp);
+		this.nearRadius = nearRadius;
+		this.farCadence = farCadence;
+		this.maxCatchUp = maxCatchUp;
+	}
+
+	/**
+	 * @return distance up to which enemies are updated every tick
+	 */
+	public int getNearRadius() {
+		return nearRadius;
+	}
+
+	/**
+	 * @return ticks between two visits of a far enemy
+	 */
+	public int getFarCadence() {
+		return farCadence;
+	}
+
+	/**
+	 * @return most steps run in one visit
+	 */
+	public int getMaxCatchUp() {
+		return maxCatchUp;
+	}
+
+	/**
+	 * Tells whether an enemy must be visited this tick.
+	 *
+	 * @param distance distance from the enemy to the closest player
+	 * @param tick     current tick
+	 * @param slot     position of the enemy in the list, to spread the visits
+	 *                 of far enemies over the ticks
+	 * @return true if the enemy is near or it is its turn
+	 */
+	boolean isDue(int distance, long tick, int slot) {
+		return distance <= nearRadius || (tick + slot) % farCadence == 0;
+	}
+}
@@ -0,0 +1,72 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of primitive longs. Searches pack a priority in the high
+ * half and a tile in the low half, so entries need no objects.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class LongHeap {
+
+	private long[] items = new long[64];
+	private int size;
+
+	/**
+	 * @return a key ordering first by priority, then by tile
+	 */
+	static long key(int priority, int tile) {
+		return (long) priority << 32 | (tile & 0xFFFFFFFFL);
+	}
+
+	static int priorityOf(long key) {
+		return (int) (key >> 32);
+	}
+
+	static int tileOf(long key) {
+		return (int) key;
+	}
+
+	void push(long item) {
+		if (size == items.length) {
+			items = Arrays.copyOf(items, size * 2);
+		}
+		int i = size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (items[parent] <= item)
+				break;
+			items[i] = items[parent];
+			i = parent;
+		}
+		items[i] = item;
+	}
+
+	long pop() {
+		long top = items[0];
+		long last = items[--size];
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && items[child + 1] < items[child])
+				child++;
+			if (last <= items[child])
+				break;
+			items[i] = items[child];
+			i = child;
+		}
+		if (size > 0)
+			items[i] = last;
+		return top;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,76 @@
+package dominio;
+
+/**
+ * Fixed size ring of the latest tile changes of a map. Every change gets the
+ * next version number; the journal keeps the last CAPACITY of them so readers
+ * can catch up from the version they saw last.
+ * 
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class MapJournal {
+
+	static final int CAPACITY = 1 << 12;
+	private static final int MASK = CAPACITY - 1;
+
+	private final int[] xs = new int[CAPACITY];
+	private final int[] ys = new int[CAPACITY];
+	private final byte[] oldStates = new byte[CAPACITY];
+	private final byte[] newStates = new byte[CAPACITY];
+
+	private long version; // versión de la última entrada
+	private long resetVersion; // versión del último reinicio completo
+
+	/**
+	 * Records a change.
+	 * 
+	 * @return version given to the change
+	 */
+	long append(int x, int y, byte oldState, byte newState) {
+		version++;
+		int slot = (int) (version & MASK);
+		xs[slot] = x;
+		ys[slot] = y;
+		oldStates[slot] = oldState;
+		newStates[slot] = newState;
+		return version;
+	}
+
+	/**
+	 * Records a change of the whole map. Readers behind this version must read
+	 * the map again.
+	 * 
+	 * @return version given to the reset
+	 */
+	long reset() {
+		version++;
+		resetVersion = version;
+		return version;
+	}
+
+	/**
+	 * Replays the changes made after a version.
+	 * 
+	 * @param since    last version the reader has seen
+	 * @param listener receives the changes, or one mapReset if they are gone
+	 * @return the current version
+	 */
+	long drain(long since, IceMapListener listener) {
+		long oldest = Math.max(resetVersion + 1, version - CAPACITY + 1);
+		if (since < oldest - 1) {
+			listener.mapReset(version);
+			return version;
+		}
+		for (long v = since + 1; v <= version; v++) {
+			int slot = (int) (v & MASK);
+			listener.tileChanged(xs[slot], ys[slot], oldStates[slot], newStates[slot], v);
+		}
+		return version;
+	}
+
+	/**
+	 * @return version of the latest change
+	 */
+	long getVersion() {
+		return version;
+	}
+}
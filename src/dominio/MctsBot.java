@@ -0,0 +1,419 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computer-controlled player that chooses its actions with Monte Carlo Tree
+ * Search, for single-player demos or as the second player of a two-player
+ * game. Each decision searches for a fixed time budget: an iteration copies
+ * the game with {@link Game#copyInto(Game)}, plays the actions down the tree
+ * one tick each, adds one node, and finishes with a short random rollout whose
+ * outcome is scored between 0 (caught) and 1 (level won), rewarding the points
+ * gained and being close to a fruit. Other players stay still in the
+ * simulations.
+ *
+ * The search uses root parallelization: every worker thread grows its own
+ * tree from its own copy of the game, and the visits of the root actions are
+ * added up at the end; the most visited action is chosen. Rollouts per
+ * second are counted so the budget and the number of threads can be tuned.
+ *
+ * A bot is meant to be used from the game thread; call {@link #shutdown()}
+ * when it is no longer needed.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class MctsBot {
+
+	/** Default time per decision, in milliseconds. */
+	public static final long DEFAULT_BUDGET_MILLIS = 50;
+
+	/** Default number of random ticks played after the tree. */
+	public static final int DEFAULT_ROLLOUT_DEPTH = 20;
+
+	private static final double EXPLORATION = 1.4;
+	private static final int SCORE_SCALE = 200; // puntos de unas pocas frutas
+	private static final double SHOT_CHANCE = 0.1; // en los rollouts, casi siempre se camina
+
+	private final Worker[] workers;
+	private final ExecutorService pool; // null con un solo hilo: busca el llamador
+	private final SplittableRandom seeds;
+	private long budgetNanos;
+	private int iterationLimit;
+	private int rolloutDepth = DEFAULT_ROLLOUT_DEPTH;
+
+	private long lastRollouts;
+	private long lastNanos;
+	private long totalRollouts;
+	private long totalNanos;
+
+	/**
+	 * Creates a bot with the default budget and one worker per core.
+	 */
+	public MctsBot() {
+		this(DEFAULT_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a bot.
+	 *
+	 * @param budgetMillis time per decision, in milliseconds
+	 * @param threads      number of worker threads, each with its own tree
+	 * @throws IllegalArgumentException if a value is not positive
+	 */
+	public MctsBot(long budgetMillis, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+		setBudgetMillis(budgetMillis);
+		seeds = new SplittableRandom();
+		workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker();
+		}
+		pool = threads == 1 ? null : Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "mcts-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Searches the best action for a player from the current state of a game.
+	 * The game is only read.
+	 *
+	 * @param game        game to play
+	 * @param playerIndex index of the player the bot controls
+	 * @return one of the {@link PlayerAction} constants; STAY if the game has
+	 *         ended
+	 * @throws IllegalArgumentException if the game has no such player
+	 */
+	public int chooseAction(Game game, int playerIndex) {
+		if (playerIndex < 0 || playerIndex >= game.getPlayers().size())
+			throw new IllegalArgumentException("No player " + playerIndex);
+		if (game.isGameOver() || game.isGameWon())
+			return PlayerAction.STAY;
+
+		long start = System.nanoTime();
+		for (Worker worker : workers) {
+			// Cada hilo busca sobre su propia copia
+			game.copyInto(worker.root);
+			worker.prepare(playerIndex, start + budgetNanos, iterationLimit, rolloutDepth, seeds.split());
+		}
+		if (!runWorkers())
+			return PlayerAction.STAY;
+
+		long[] visits = new long[PlayerAction.COUNT];
+		double[] values = new double[PlayerAction.COUNT];
+		long rollouts = 0;
+		for (Worker worker : workers) {
+			rollouts += worker.rollouts;
+			for (int action = 0; action < PlayerAction.COUNT; action++) {
+				Node child = worker.tree.children[action];
+				if (child != null) {
+					visits[action] += child.visits;
+					values[action] += child.value;
+				}
+			}
+		}
+		int best = PlayerAction.STAY;
+		for (int action = 0; action < PlayerAction.COUNT; action++) {
+			if (visits[action] > visits[best] || visits[action] == visits[best] && visits[action] > 0
+					&& values[action] / visits[action] > values[best] / visits[best])
+				best = action;
+		}
+
+		lastNanos = System.nanoTime() - start;
+		lastRollouts = rollouts;
+		totalNanos += lastNanos;
+		totalRollouts += rollouts;
+		return best;
+	}
+
+	/**
+	 * Chooses an action for a player and applies it to the game. Enemies and
+	 * fruits are not updated; the game loop does that.
+	 *
+	 * @param game        game to play
+	 * @param playerIndex index of the player the bot controls
+	 * @return the action applied
+	 */
+	public int play(Game game, int playerIndex) {
+		int action = chooseAction(game, playerIndex);
+		PlayerAction.apply(game, playerIndex, action);
+		return action;
+	}
+
+	/**
+	 * @return false if the caller was interrupted before the workers finished
+	 */
+	private boolean runWorkers() {
+		if (pool == null) {
+			workers[0].call();
+			return true;
+		}
+		List<Callable<Long>> tasks = new ArrayList<>(workers.length);
+		for (Worker worker : workers) {
+			tasks.add(worker);
+		}
+		try {
+			for (Future<Long> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Search worker failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Plays one tick of a simulation: the action, then enemies and fruits.
+	 */
+	static void playTick(Game game, int playerIndex, int action) {
+		PlayerAction.apply(game, playerIndex, action);
+		game.updateEnemies();
+		game.updateFruits();
+	}
+
+	/**
+	 * @return value of a simulated state, from 0 (caught) to 1 (level won)
+	 */
+	static double evaluate(Game game, int playerIndex, int startScore) {
+		if (game.isGameOver())
+			return 0;
+		if (game.isGameWon())
+			return 1;
+		double gained = Math.min(1.0, (game.getGameState().getScore() - startScore) / (double) SCORE_SCALE);
+		Player player = game.getPlayers().get(playerIndex);
+		int nearest = Integer.MAX_VALUE;
+		for (Fruit fruit : game.getFruits()) {
+			if (!fruit.isCollected()) {
+				nearest = Math.min(nearest,
+						Math.abs(fruit.getRow() - player.getRow()) + Math.abs(fruit.getColumn() - player.getColumn()));
+			}
+		}
+		double closeness = nearest == Integer.MAX_VALUE ? 0 : 1.0 / (1 + nearest);
+		return 0.3 + 0.5 * gained + 0.2 * closeness;
+	}
+
+	/**
+	 * Sets the time per decision.
+	 *
+	 * @param budgetMillis time in milliseconds
+	 * @throws IllegalArgumentException if it is not positive
+	 */
+	public void setBudgetMillis(long budgetMillis) {
+		if (budgetMillis <= 0)
+			throw new IllegalArgumentException("Budget must be positive: " + budgetMillis);
+		budgetNanos = budgetMillis * 1_000_000L;
+	}
+
+	/**
+	 * @return time per decision, in milliseconds
+	 */
+	public long getBudgetMillis() {
+		return budgetNanos / 1_000_000L;
+	}
+
+	/**
+	 * Caps the iterations of each worker per decision, so a decision can end
+	 * before its time budget; useful for repeatable runs.
+	 *
+	 * @param iterations most iterations per worker, or 0 for no cap
+	 */
+	public void setIterationLimit(int iterations) {
+		if (iterations < 0)
+			throw new IllegalArgumentException("Iteration limit must not be negative: " + iterations);
+		iterationLimit = iterations;
+	}
+
+	/**
+	 * @param depth random ticks played after the tree in every rollout
+	 */
+	public void setRolloutDepth(int depth) {
+		if (depth < 0)
+			throw new IllegalArgumentException("Rollout depth must not be negative: " + depth);
+		rolloutDepth = depth;
+	}
+
+	/**
+	 * @return number of worker threads
+	 */
+	public int getThreads() {
+		return workers.length;
+	}
+
+	/**
+	 * @return rollouts run in the last decision, all workers together
+	 */
+	public long getLastRollouts() {
+		return lastRollouts;
+	}
+
+	/**
+	 * @return rollouts per second in the last decision
+	 */
+	public double getLastRolloutsPerSecond() {
+		return lastNanos == 0 ? 0 : lastRollouts * 1e9 / lastNanos;
+	}
+
+	/**
+	 * @return rollouts run since the bot was created
+	 */
+	public long getTotalRollouts() {
+		return totalRollouts;
+	}
+
+	/**
+	 * @return rollouts per second over every decision so far
+	 */
+	public double getRolloutsPerSecond() {
+		return totalNanos == 0 ? 0 : totalRollouts * 1e9 / totalNanos;
+	}
+
+	/**
+	 * Stops the worker threads. The bot can still decide on the calling
+	 * thread afterwards only if it has a single worker.
+	 */
+	public void shutdown() {
+		if (pool != null)
+			pool.shutdownNow();
+	}
+
+	/**
+	 * Node of a search tree: the state reached by the actions from the root.
+	 * The simulation is deterministic, so each node is a single state.
+	 */
+	private static final class Node {
+
+		final Node[] children = new Node[PlayerAction.COUNT];
+		int nextAction; // siguiente acción por expandir
+		int visits;
+		double value;
+	}
+
+	/**
+	 * One tree of the root parallel search, with its own copies of the game.
+	 */
+	private static final class Worker implements Callable<Long> {
+
+		final Game root = new Game();
+		final Game scratch = new Game();
+		final List<Node> path = new ArrayList<>();
+		Node tree;
+		int playerIndex;
+		long deadline;
+		int limit;
+		int depth;
+		SplittableRandom random;
+		long rollouts;
+
+		void prepare(int playerIndex, long deadline, int limit, int depth, SplittableRandom random) {
+			this.playerIndex = playerIndex;
+			this.deadline = deadline;
+			this.limit = limit;
+			this.depth = depth;
+			this.random = random;
+			tree = new Node();
+			rollouts = 0;
+		}
+
+		@Override
+		public Long call() {
+			int startScore = root.getGameState().getScore();
+			do {
+				iterate(startScore);
+				rollouts++;
+			} while ((limit == 0 || rollouts < limit) && System.nanoTime() < deadline);
+			return rollouts;
+		}
+
+		private void iterate(int startScore) {
+			root.copyInto(scratch);
+			path.clear();
+			Node node = tree;
+			path.add(node);
+
+			// Selección: bajar mientras el nodo esté completamente expandido
+			while (!isOver(scratch)) {
+				int action = nextUntried(node);
+				if (action >= 0) {
+					node.nextAction = action + 1;
+					Node child = new Node();
+					node.children[action] = child;
+					playTick(scratch, playerIndex, action);
+					node = child;
+					path.add(node);
+					break;
+				}
+				action = select(node);
+				playTick(scratch, playerIndex, action);
+				node = node.children[action];
+				path.add(node);
+			}
+
+			// Rollout al azar desde el nodo nuevo
+			for (int tick = 0; tick < depth && !isOver(scratch); tick++) {
+				playTick(scratch, playerIndex, randomAction());
+			}
+			double value = evaluate(scratch, playerIndex, startScore);
+			for (Node visited : path) {
+				visited.visits++;
+				visited.value += value;
+			}
+		}
+
+		/**
+		 * @return next action of the node not yet expanded, skipping moves into
+		 *         blocked tiles, which play like STAY; or -1 if there is none
+		 */
+		private int nextUntried(Node node) {
+			Player player = scratch.getPlayers().get(playerIndex);
+			for (int action = node.nextAction; action < PlayerAction.COUNT; action++) {
+				if (!PlayerAction.isMove(action) || scratch.getMap().isWalkable(
+						player.getColumn() + PlayerAction.dx(action), player.getRow() + PlayerAction.dy(action)))
+					return action;
+			}
+			node.nextAction = PlayerAction.COUNT;
+			return -1;
+		}
+
+		/**
+		 * @return child action with the best upper confidence bound
+		 */
+		private int select(Node node) {
+			double logVisits = Math.log(node.visits);
+			int best = -1;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (int action = 0; action < PlayerAction.COUNT; action++) {
+				Node child = node.children[action];
+				if (child == null)
+					continue;
+				double score = child.value / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+				if (score > bestScore) {
+					bestScore = score;
+					best = action;
+				}
+			}
+			return best;
+		}
+
+		private int randomAction() {
+			if (random.nextDouble() < SHOT_CHANCE)
+				return PlayerAction.SHOOT_RIGHT + random.nextInt(4);
+			return random.nextInt(PlayerAction.MOVE_UP + 1);
+		}
+
+		private static boolean isOver(Game game) {
+			return game.isGameOver() || game.isGameWon();
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package dominio;
+
+import java.nio.LongBuffer;
+
+/**
+ * Bit grid whose words live in a slice of an off-heap region. The layout is the
+ * same as {@link DenseBitGrid}: every row word, then every column word.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class OffHeapBitGrid extends BitGrid {
+
+	private static final long ALL_ONES = -1L;
+
+	private final int rowWords; // palabras por fila
+	private final int columnWords; // palabras por columna
+	private final int columnBase; // primera palabra de las columnas
+	private final LongBuffer words;
+
+	/**
+	 * Wraps a slice of words. The slice must hold {@link #wordCount} words.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 * @param words  storage of the grid
+	 */
+	OffHeapBitGrid(int width, int height, LongBuffer words) {
+		super(width, height);
+		rowWords = wordsFor(width);
+		columnWords = wordsFor(height);
+		columnBase = height * rowWords;
+		this.words = words;
+	}
+
+	/**
+	 * @return number of words used by a grid of the given size
+	 */
+	static long wordCount(int width, int height) {
+		return (long) height * wordsFor(width) + (long) width * wordsFor(height);
+	}
+
+	@Override
+	boolean get(int x, int y) {
+		return (words.get(y * rowWords + (x >>> 6)) & (1L << x)) != 0;
+	}
+
+	@Override
+	void set(int x, int y, boolean value) {
+		applyMask(y * rowWords + (x >>> 6), 1L << x, value);
+		applyMask(columnBase + x * columnWords + (y >>> 6), 1L << y, value);
+	}
+
+	@Override
+	void setRowRange(int y, int fromX, int toX, boolean value) {
+		if (fromX >= toX) {
+			return;
+		}
+		fillWords(y * rowWords, fromX, toX, value);
+		for (int x = fromX; x < toX; x++) {
+			applyMask(columnBase + x * columnWords + (y >>> 6), 1L << y, value);
+		}
+	}
+
+	@Override
+	void setColumnRange(int x, int fromY, int toY, boolean value) {
+		if (fromY >= toY) {
+			return;
+		}
+		fillWords(columnBase + x * columnWords, fromY, toY, value);
+		for (int y = fromY; y < toY; y++) {
+			applyMask(y * rowWords + (x >>> 6), 1L << x, value);
+		}
+	}
+
+	/**
+	 * Fills the bits [from, to) of a line that starts at word offset base.
+	 */
+	private void fillWords(int base, int from, int to, boolean value) {
+		int firstWord = from >>> 6;
+		int lastWord = (to - 1) >>> 6;
+		long firstMask = ALL_ONES << from;
+		long lastMask = ALL_ONES >>> -to;
+
+		if (firstWord == lastWord) {
+			applyMask(base + firstWord, firstMask & lastMask, value);
+			return;
+		}
+		applyMask(base + firstWord, firstMask, value);
+		for (int w = firstWord + 1; w < lastWord; w++) {
+			words.put(base + w, value ? ALL_ONES : 0L);
+		}
+		applyMask(base + lastWord, lastMask, value);
+	}
+
+	private void applyMask(int index, long mask, boolean value) {
+		long word = words.get(index);
+		words.put(index, value ? word | mask : word & ~mask);
+	}
+
+	@Override
+	int nextInRow(int y, int fromX, boolean value) {
+		return next(y * rowWords, rowWords, width, fromX, value);
+	}
+
+	@Override
+	int previousInRow(int y, int fromX, boolean value) {
+		return previous(y * rowWords, fromX, value);
+	}
+
+	@Override
+	int nextInColumn(int x, int fromY, boolean value) {
+		return next(columnBase + x * columnWords, columnWords, height, fromY, value);
+	}
+
+	@Override
+	int previousInColumn(int x, int fromY, boolean value) {
+		return previous(columnBase + x * columnWords, fromY, value);
+	}
+
+	private int next(int base, int count, int length, int from, boolean value) {
+		if (from < 0) {
+			from = 0;
+		}
+		if (from >= length) {
+			return -1;
+		}
+		int w = from >>> 6;
+		long word = read(base + w, value) & (ALL_ONES << from);
+		while (true) {
+			if (word != 0) {
+				int index = (w << 6) + Long.numberOfTrailingZeros(word);
+				return index < length ? index : -1;
+			}
+			if (++w == count) {
+				return -1;
+			}
+			word = read(base + w, value);
+		}
+	}
+
+	private int previous(int base, int from, boolean value) {
+		if (from < 0) {
+			return -1;
+		}
+		int w = from >>> 6;
+		long word = read(base + w, value) & (ALL_ONES >>> (63 - (from & 63)));
+		while (true) {
+			if (word != 0) {
+				return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+			}
+			if (w-- == 0) {
+				return -1;
+			}
+			word = read(base + w, value);
+		}
+	}
+
+	private long read(int index, boolean value) {
+		long word = words.get(index);
+		return value ? word : ~word;
+	}
+
+	@Override
+	void clear() {
+		for (int i = 0; i < words.capacity(); i++) {
+			words.put(i, 0L);
+		}
+	}
+
+	@Override
+	long count() {
+		long total = 0;
+		for (int i = 0; i < columnBase; i++) {
+			total += Long.bitCount(words.get(i));
+		}
+		return total;
+	}
+}
@@ -0,0 +1,97 @@
+package dominio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * One direct buffer holding every layer of an off-heap map: the ice grid, the
+ * obstacle mask, the tile handles and the tile kinds, one after the other. The
+ * layers are views over slices of the buffer, so the whole board moves to and
+ * from a file in a single bulk transfer and never touches the Java heap.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class OffHeapRegion {
+
+	private final ByteBuffer buffer;
+	private final OffHeapBitGrid iceGrid;
+	private final OffHeapBitGrid tileMask;
+	private final OffHeapTileLayer tiles;
+
+	/**
+	 * Allocates a zeroed region for a board of the given size.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 * @throws IllegalArgumentException if the board does not fit in one buffer
+	 */
+	OffHeapRegion(int width, int height) {
+		long gridBytes = OffHeapBitGrid.wordCount(width, height) * Long.BYTES;
+		long tileCount = (long) width * height;
+		long size = 2 * gridBytes + tileCount * Integer.BYTES + tileCount;
+		if (size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Board too large for off-heap storage: " + width + "x" + height);
+
+		// Orden fijo para que los archivos se lean igual en cualquier máquina
+		buffer = ByteBuffer.allocateDirect((int) size).order(ByteOrder.LITTLE_ENDIAN);
+		int offset = 0;
+		iceGrid = new OffHeapBitGrid(width, height, slice(offset, gridBytes).asLongBuffer());
+		offset += gridBytes;
+		tileMask = new OffHeapBitGrid(width, height, slice(offset, gridBytes).asLongBuffer());
+		offset += gridBytes;
+		ByteBuffer handles = slice(offset, tileCount * Integer.BYTES);
+		offset += tileCount * Integer.BYTES;
+		tiles = new OffHeapTileLayer(width, slice(offset, tileCount), handles.asIntBuffer());
+	}
+
+	private ByteBuffer slice(long offset, long length) {
+		return buffer.slice((int) offset, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Writes the whole region to the channel's current position.
+	 */
+	void writeTo(FileChannel channel) throws IOException {
+		ByteBuffer view = buffer.duplicate();
+		view.clear();
+		while (view.hasRemaining()) {
+			channel.write(view);
+		}
+	}
+
+	/**
+	 * Fills the whole region from the channel's current position.
+	 *
+	 * @throws EOFException if the channel ends first
+	 */
+	void readFrom(FileChannel channel) throws IOException {
+		ByteBuffer view = buffer.duplicate();
+		view.clear();
+		while (view.hasRemaining()) {
+			if (channel.read(view) < 0)
+				throw new EOFException("El archivo del mapa está incompleto");
+		}
+	}
+
+	/**
+	 * @return size of the region in bytes
+	 */
+	int size() {
+		return buffer.capacity();
+	}
+
+	BitGrid getIceGrid() {
+		return iceGrid;
+	}
+
+	BitGrid getTileMask() {
+		return tileMask;
+	}
+
+	TileLayer getTiles() {
+		return tiles;
+	}
+}
@@ -0,0 +1,55 @@
+package dominio;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Tile layer whose kinds and handles live in slices of an off-heap region.
+ * Handles are stored plus one, so that a freshly zeroed region already reads as
+ * NO_HANDLE everywhere.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class OffHeapTileLayer extends TileLayer {
+
+	private final int width;
+	private final ByteBuffer kinds;
+	private final IntBuffer handles;
+
+	/**
+	 * Wraps slices of kinds and handles with one entry per tile.
+	 *
+	 * @param width   number of columns
+	 * @param kinds   one byte per tile
+	 * @param handles one int per tile
+	 */
+	OffHeapTileLayer(int width, ByteBuffer kinds, IntBuffer handles) {
+		this.width = width;
+		this.kinds = kinds;
+		this.handles = handles;
+	}
+
+	@Override
+	byte getKind(int x, int y) {
+		return kinds.get(y * width + x);
+	}
+
+	@Override
+	int getHandle(int x, int y) {
+		return handles.get(y * width + x) - 1;
+	}
+
+	@Override
+	void set(int x, int y, byte kind, int handle) {
+		kinds.put(y * width + x, kind);
+		handles.put(y * width + x, handle + 1);
+	}
+
+	@Override
+	void clear() {
+		for (int i = 0; i < kinds.capacity(); i++) {
+			kinds.put(i, (byte) 0);
+			handles.put(i, 0);
+		}
+	}
+}
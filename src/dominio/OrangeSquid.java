@@ -26,10 +26,27 @@ public class OrangeSquid extends Enemy {
     }
     
     /**
-     * Orange Squid chases player and breaks ice blocks in its path.
+     * Orange Squid chases the closest player along the fastest route,
+     * counting the ticks it needs to break each ice block on the way.
+     * Off the board it heads straight to the player and breaks the ice
+     * blocks in its way.
      */
     @Override
     public void update(Game game) {
+        int[] step = findChaseStep(game, getIceCost());
+        if (step != null) {
+            if (game.getMap().hasIce(step[1], step[0])) {
+                setBreakCooldown(breakCooldown + 1);
+                if (breakCooldown >= breakDelay) {
+                    game.getMap().toggleIce(step[1], step[0]);
+                    setBreakCooldown(0);
+                }
+            } else {
+                moveTo(step[0], step[1]);
+                setBreakCooldown(0);
+            }
+            return;
+        }
         Player player = game.getPlayer();
         
         // Calcular dirección hacia el jugador
@@ -59,13 +76,13 @@ public class OrangeSquid extends Enemy {
         // Verificar si puede moverse
         if (game.getMap().isWalkable(newCol, newRow)) {
             moveTo(newRow, newCol);
-            breakCooldown = 0;
+            setBreakCooldown(0);
         } else if (game.getMap().hasIce(newCol, newRow)) {
             // Hay hielo, intentar romperlo
-            breakCooldown++;
+            setBreakCooldown(breakCooldown + 1);
             if (breakCooldown >= breakDelay) {
                 game.getMap().toggleIce(newCol, newRow); // Rompe el hielo
-                breakCooldown = 0;
+                setBreakCooldown(0);
             }
         } else {
             // Bloqueado por borde del mapa, intentar otro eje
@@ -89,17 +106,57 @@ public class OrangeSquid extends Enemy {
             
             if (game.getMap().isWalkable(newCol, newRow)) {
                 moveTo(newRow, newCol);
-                breakCooldown = 0;
+                setBreakCooldown(0);
             } else if (game.getMap().hasIce(newCol, newRow)) {
-                breakCooldown++;
+                setBreakCooldown(breakCooldown + 1);
                 if (breakCooldown >= breakDelay) {
                     game.getMap().toggleIce(newCol, newRow);
-                    breakCooldown = 0;
+                    setBreakCooldown(0);
                 }
             }
         }
     }
     
+    @Override
+    int getIceCost() {
+        // Romper un bloque toma breakDelay ticks y entrar a la casilla uno más
+        return breakDelay + 1;
+    }
+    
+    @Override
+    int getBreakProgress() {
+        return breakCooldown;
+    }
+    
+    @Override
+    void copyFrom(Enemy other) {
+        super.copyFrom(other);
+        breakCooldown = ((OrangeSquid) other).breakCooldown;
+        rehash();
+    }
+    
+    /**
+     * Changes the break timer, which is part of the key of the squid.
+     */
+    private void setBreakCooldown(int cooldown) {
+        if (cooldown != breakCooldown) {
+            breakCooldown = cooldown;
+            rehash();
+        }
+    }
+    
+    @Override
+    long computeZobrist() {
+        return Zobrist.key(super.computeZobrist(), breakCooldown, 0);
+    }
+    
+    @Override
+    Enemy copy() {
+        OrangeSquid copy = new OrangeSquid(row, column);
+        copy.copyFrom(this);
+        return copy;
+    }
+    
     @Override
     public String getType() {
         return "OrangeSquid";
@@ -0,0 +1,300 @@
+package dominio;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of path query results, shared by the enemies and bots that
+ * ask for the same path on the same map state. Entries are keyed by start,
+ * goal and cost model (compared by identity, so callers share one PathCost
+ * instance) and the least recently used one is evicted when the cache is
+ * full. Entries are shared by every pathfinder with the same cost model, so a
+ * cache should not mix optimal and hierarchical pathfinders.
+ *
+ * The cache follows the map through its change journal and drops only the
+ * entries a change can affect. Since every step costs at least one tick, a
+ * path of cost C never leaves the tiles whose distances to the start and to
+ * the goal add up to C or less; a change outside that region can neither
+ * break the cached path nor open a cheaper one. Failed queries are dropped by
+ * any change.
+ *
+ * A cache is not thread-safe; use one per thread.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class PathCache {
+
+	/** Default number of entries. */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private final int capacity;
+	private final LinkedHashMap<Key, Entry> entries;
+	private final Key probe = new Key();
+
+	private IceMap map;
+	private int width;
+	private long version;
+	private Entry current;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	private final IceMapListener changes = new IceMapListener() {
+		@Override
+		public void tileChanged(int x, int y, byte oldState, byte newState, long changeVersion) {
+			Iterator<Entry> iterator = entries.values().iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().isAffectedBy(x, y)) {
+					iterator.remove();
+					invalidations++;
+				}
+			}
+		}
+
+		@Override
+		public void mapReset(long changeVersion) {
+			invalidations += entries.size();
+			entries.clear();
+		}
+	};
+
+	/**
+	 * Creates a cache with {@link #DEFAULT_CAPACITY} entries.
+	 */
+	public PathCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param capacity maximum number of entries
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public PathCache(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		this.capacity = capacity;
+		entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				if (size() <= PathCache.this.capacity)
+					return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Answers a path query from the cache, or with the pathfinder on a miss.
+	 * The result is read with {@link #getPathLength()} and the other getters
+	 * until the next query.
+	 *
+	 * @param pathfinder pathfinder used on a miss
+	 * @param map        map to search
+	 * @param startX     start x
+	 * @param startY     start y
+	 * @param goalX      goal x
+	 * @param goalY      goal y
+	 * @return true if a path was found
+	 */
+	public boolean findPath(Pathfinder pathfinder, IceMap map, int startX, int startY, int goalX, int goalY) {
+		sync(map);
+		if (!inside(startX, startY) || !inside(goalX, goalY)) {
+			misses++;
+			return false;
+		}
+		probe.set(pathfinder.cost, startY * width + startX, goalY * width + goalX);
+		current = entries.get(probe);
+		if (current != null) {
+			hits++;
+			return current.cost >= 0;
+		}
+		misses++;
+		boolean found = pathfinder.findPath(map, startX, startY, goalX, goalY);
+		int length = pathfinder.getPathLength();
+		int[] tiles = new int[length];
+		for (int i = 0; i < length; i++) {
+			tiles[i] = pathfinder.getPathY(i) * width + pathfinder.getPathX(i);
+		}
+		current = new Entry(startX, startY, goalX, goalY, pathfinder.getPathCost(), tiles);
+		entries.put(new Key().set(pathfinder.cost, probe.start, probe.goal), current);
+		return found;
+	}
+
+	/**
+	 * @return number of tiles of the last path, or 0 if none was found
+	 */
+	public int getPathLength() {
+		return current == null ? 0 : current.tiles.length;
+	}
+
+	/**
+	 * @param index position along the last path, 0 being the start
+	 * @return x of that tile
+	 */
+	public int getPathX(int index) {
+		return tileAt(index) % width;
+	}
+
+	/**
+	 * @param index position along the last path, 0 being the start
+	 * @return y of that tile
+	 */
+	public int getPathY(int index) {
+		return tileAt(index) / width;
+	}
+
+	/**
+	 * @return cost of the last path, or -1 if none was found
+	 */
+	public int getPathCost() {
+		return current == null ? -1 : current.cost;
+	}
+
+	/**
+	 * @return queries answered from the cache
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return queries that had to search
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return entries dropped to make room
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return entries dropped because the map changed where they depend on it
+	 */
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * @return number of cached entries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return maximum number of entries
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Drops every entry and sets the counters to zero.
+	 */
+	public void clear() {
+		entries.clear();
+		current = null;
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+		invalidations = 0;
+	}
+
+	/**
+	 * Drops the entries a map change can affect since the last query, or all
+	 * of them when the map was replaced.
+	 */
+	private void sync(IceMap newMap) {
+		current = null;
+		if (newMap != map || newMap.getWidth() != width) {
+			invalidations += entries.size();
+			entries.clear();
+			map = newMap;
+			width = newMap.getWidth();
+			version = newMap.getVersion();
+		} else {
+			version = newMap.drainChanges(version, changes);
+		}
+	}
+
+	private boolean inside(int x, int y) {
+		return x >= 0 && y >= 0 && x < width && y < map.getHeight();
+	}
+
+	private int tileAt(int index) {
+		if (current == null || index < 0 || index >= current.tiles.length)
+			throw new IndexOutOfBoundsException("Path index " + index + " of " + getPathLength());
+		return current.tiles[index];
+	}
+
+	/**
+	 * Start, goal and cost model of a query.
+	 */
+	private static final class Key {
+
+		PathCost cost;
+		int start;
+		int goal;
+
+		Key set(PathCost cost, int start, int goal) {
+			this.cost = cost;
+			this.start = start;
+			this.goal = goal;
+			return this;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+			Key key = (Key) other;
+			return cost == key.cost && start == key.start && goal == key.goal;
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(cost) * 31 + start) * 31 + goal;
+		}
+	}
+
+	/**
+	 * Result of a query and the region it depends on.
+	 */
+	private static final class Entry {
+
+		final int startX;
+		final int startY;
+		final int goalX;
+		final int goalY;
+		final int cost; // -1 si no hubo camino
+		final int[] tiles;
+
+		Entry(int startX, int startY, int goalX, int goalY, int cost, int[] tiles) {
+			this.startX = startX;
+			this.startY = startY;
+			this.goalX = goalX;
+			this.goalY = goalY;
+			this.cost = cost;
+			this.tiles = tiles;
+		}
+
+		boolean isAffectedBy(int x, int y) {
+			if (cost < 0)
+				return true;
+			// Ningún camino de costo <= cost sale de esta región
+			return Math.abs(x - startX) + Math.abs(y - startY) + Math.abs(x - goalX) + Math.abs(y - goalY) <= cost;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package dominio;
+
+/**
+ * Cost of stepping onto a tile, used by the pathfinders. Costs are in ticks and
+ * must be at least 1 so that {@link PathHeuristic#MANHATTAN} never
+ * overestimates.
+ * 
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public interface PathCost {
+
+	/** Cost of tiles that cannot be entered. */
+	int BLOCKED = -1;
+
+	/** One tick per walkable tile, like the player and the pot. */
+	PathCost WALKING = (map, x, y) -> map.isWalkable(x, y) ? 1 : BLOCKED;
+
+	/**
+	 * @param map current map
+	 * @param x   tile x
+	 * @param y   tile y
+	 * @return ticks needed to step onto the tile, or BLOCKED
+	 */
+	int stepCost(IceMap map, int x, int y);
+
+	/**
+	 * Cost for enemies that break ice: one tick per free tile, iceCost ticks per
+	 * ice tile, and igloos block.
+	 * 
+	 * @param iceCost ticks to break and enter an ice tile
+	 * @return the cost model
+	 */
+	static PathCost breakingIce(int iceCost) {
+		return (map, x, y) -> {
+			byte state = map.getCellState(x, y);
+			if ((state & IceMap.TILE_IGLOO) != 0)
+				return BLOCKED;
+			return (state & IceMap.TILE_ICE) != 0 ? iceCost : 1;
+		};
+	}
+}
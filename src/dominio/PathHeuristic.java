@@ -0,0 +1,25 @@
+package dominio;
+
+/**
+ * Estimate of the remaining cost to the goal, used by the pathfinders. Paths
+ * are shortest only if the estimate never exceeds the real cost.
+ * 
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public interface PathHeuristic {
+
+	/** Steps on a 4-connected board. */
+	PathHeuristic MANHATTAN = (x, y, goalX, goalY) -> Math.abs(x - goalX) + Math.abs(y - goalY);
+
+	/** No estimate: the search behaves like Dijkstra. */
+	PathHeuristic NONE = (x, y, goalX, goalY) -> 0;
+
+	/**
+	 * @param x     tile x
+	 * @param y     tile y
+	 * @param goalX goal x
+	 * @param goalY goal y
+	 * @return estimated cost from the tile to the goal
+	 */
+	int estimate(int x, int y, int goalX, int goalY);
+}
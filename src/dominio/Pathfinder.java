@@ -0,0 +1,319 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Point-to-point path queries over an IceMap on the 4-connected board. A
+ * pathfinder keeps its work arrays between queries: every query starts a new
+ * generation, and a tile's entries only count when they carry the current
+ * generation, so nothing is cleared or allocated once the arrays have grown to
+ * the board size. Open tiles live in an indexed binary heap of tile numbers.
+ *
+ * A pathfinder is not thread-safe; use one per thread.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public abstract class Pathfinder {
+
+	private static final int INF = Integer.MAX_VALUE;
+
+	protected final PathCost cost;
+	protected final PathHeuristic heuristic;
+
+	protected IceMap map;
+	protected int width;
+	protected int height;
+	protected int start;
+	protected int goalX;
+	protected int goalY;
+	protected int expanded;
+
+	private int generation;
+	private int[] stamps = new int[0]; // generación en que se tocó cada casilla
+	private int[] costs = new int[0]; // costo conocido desde el inicio
+	private int[] estimates = new int[0]; // costo + heurística
+	private int[] parents = new int[0];
+	private int[] heapIndex = new int[0]; // posición en el montículo, -1 si salió
+
+	private int[] heap = new int[64];
+	private int heapSize;
+
+	private int[] path = new int[64];
+	private int pathLength;
+	private int pathCost = -1;
+
+	/**
+	 * Creates a pathfinder.
+	 *
+	 * @param cost      cost of stepping onto each tile
+	 * @param heuristic estimate of the remaining cost
+	 */
+	protected Pathfinder(PathCost cost, PathHeuristic heuristic) {
+		this.cost = cost;
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Searches the cheapest path between two tiles. The start tile may be
+	 * blocked (the searcher already stands there); the goal may not.
+	 *
+	 * @param map    map to search
+	 * @param startX start x
+	 * @param startY start y
+	 * @param goalX  goal x
+	 * @param goalY  goal y
+	 * @return true if a path was found
+	 */
+	public final boolean findPath(IceMap map, int startX, int startY, int goalX, int goalY) {
+		prepare(map);
+		pathLength = 0;
+		pathCost = -1;
+		expanded = 0;
+		if (!inside(startX, startY) || !inside(goalX, goalY) || stepCost(goalX, goalY) == PathCost.BLOCKED)
+			return false;
+		this.goalX = goalX;
+		this.goalY = goalY;
+
+		start = startY * width + startX;
+		int goal = goalY * width + goalX;
+		relax(start, 0, -1);
+		if (!search(goal))
+			return false;
+		pathCost = costs[goal];
+		tracePath(goal);
+		return true;
+	}
+
+	/**
+	 * Runs the search until the goal leaves the open set.
+	 *
+	 * @param goal goal tile number
+	 * @return true if the goal was reached
+	 */
+	protected abstract boolean search(int goal);
+
+	/**
+	 * @return number of tiles of the last path, start and goal included, or 0
+	 *         if no path was found
+	 */
+	public int getPathLength() {
+		return pathLength;
+	}
+
+	/**
+	 * @return number of tiles stored so far by {@link #appendPathTile(int)}
+	 */
+	protected final int getStoredLength() {
+		return pathLength;
+	}
+
+	/**
+	 * @param index position along the last path, 0 being the start
+	 * @return x of that tile
+	 */
+	public int getPathX(int index) {
+		checkIndex(index);
+		return path[index] % width;
+	}
+
+	/**
+	 * @param index position along the last path, 0 being the start
+	 * @return y of that tile
+	 */
+	public int getPathY(int index) {
+		checkIndex(index);
+		return path[index] / width;
+	}
+
+	/**
+	 * @return cost of the last path, or -1 if no path was found
+	 */
+	public int getPathCost() {
+		return pathCost;
+	}
+
+	/**
+	 * @return number of tiles expanded by the last query
+	 */
+	public int getExpandedCount() {
+		return expanded;
+	}
+
+	protected boolean inside(int x, int y) {
+		return x >= 0 && y >= 0 && x < width && y < height;
+	}
+
+	protected int stepCost(int x, int y) {
+		return cost.stepCost(map, x, y);
+	}
+
+	/**
+	 * @return cost from the start to the tile, or Integer.MAX_VALUE if it was
+	 *         not reached in this query
+	 */
+	protected int costOf(int tile) {
+		return stamps[tile] == generation ? costs[tile] : INF;
+	}
+
+	/**
+	 * @return previous tile of the best known path to the tile, -1 for the start
+	 */
+	protected int parentOf(int tile) {
+		return parents[tile];
+	}
+
+	protected boolean isOpenEmpty() {
+		return heapSize == 0;
+	}
+
+	/**
+	 * Records a path to a tile if it is cheaper than the known one, and puts the
+	 * tile in the open set.
+	 *
+	 * @param tile    tile number
+	 * @param newCost cost from the start
+	 * @param parent  previous tile of the path, -1 for the start
+	 */
+	protected void relax(int tile, int newCost, int parent) {
+		if (stamps[tile] != generation) {
+			stamps[tile] = generation;
+			heapIndex[tile] = -1;
+		} else if (newCost >= costs[tile]) {
+			return;
+		}
+		costs[tile] = newCost;
+		parents[tile] = parent;
+		estimates[tile] = newCost + heuristic.estimate(tile % width, tile / width, goalX, goalY);
+		if (heapIndex[tile] < 0) {
+			// Entra (o vuelve a entrar) al conjunto abierto
+			if (heapSize == heap.length)
+				heap = Arrays.copyOf(heap, heapSize * 2);
+			heapIndex[tile] = heapSize;
+			heap[heapSize++] = tile;
+		}
+		siftUp(heapIndex[tile]);
+	}
+
+	/**
+	 * Removes the open tile with the lowest estimate; ties go to the tile
+	 * furthest from the start, which keeps searches on open floors narrow.
+	 */
+	protected int pollOpen() {
+		int top = heap[0];
+		heapIndex[top] = -1;
+		int last = heap[--heapSize];
+		if (heapSize > 0) {
+			heap[0] = last;
+			heapIndex[last] = 0;
+			siftDown(0);
+		}
+		expanded++;
+		return top;
+	}
+
+	private void siftUp(int index) {
+		int tile = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (!before(tile, heap[parent]))
+				break;
+			heap[index] = heap[parent];
+			heapIndex[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = tile;
+		heapIndex[tile] = index;
+	}
+
+	private void siftDown(int index) {
+		int tile = heap[index];
+		int half = heapSize >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			if (child + 1 < heapSize && before(heap[child + 1], heap[child]))
+				child++;
+			if (!before(heap[child], tile))
+				break;
+			heap[index] = heap[child];
+			heapIndex[heap[index]] = index;
+			index = child;
+		}
+		heap[index] = tile;
+		heapIndex[tile] = index;
+	}
+
+	private boolean before(int a, int b) {
+		if (estimates[a] != estimates[b])
+			return estimates[a] < estimates[b];
+		return costs[a] > costs[b];
+	}
+
+	/**
+	 * Starts a new generation and grows the work arrays to the map if needed.
+	 */
+	private void prepare(IceMap newMap) {
+		map = newMap;
+		width = newMap.getWidth();
+		height = newMap.getHeight();
+		int tiles = width * height;
+		if (stamps.length < tiles) {
+			stamps = new int[tiles];
+			costs = new int[tiles];
+			estimates = new int[tiles];
+			parents = new int[tiles];
+			heapIndex = new int[tiles];
+			generation = 0;
+		}
+		if (++generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamps, 0);
+			generation = 1;
+		}
+		heapSize = 0;
+	}
+
+	/**
+	 * Builds the path of the last query with {@link #appendPathTile(int)}. By
+	 * default it walks the parents back from the goal; consecutive tiles of the
+	 * chain may be apart along a row or column (jump searches), and the tiles in
+	 * between are filled in.
+	 *
+	 * @param goal goal tile number
+	 */
+	protected void tracePath(int goal) {
+		for (int tile = goal; tile >= 0; tile = parents[tile]) {
+			int parent = parents[tile];
+			int step = parent < 0 ? 0 : stepBetween(tile, parent);
+			for (int between = tile; between != parent; between += step) {
+				appendPathTile(between);
+				if (step == 0)
+					break;
+			}
+		}
+		// Quedó de la meta al inicio: darle la vuelta
+		for (int i = 0, j = pathLength - 1; i < j; i++, j--) {
+			int swap = path[i];
+			path[i] = path[j];
+			path[j] = swap;
+		}
+	}
+
+	/**
+	 * Adds a tile at the end of the stored path.
+	 */
+	protected final void appendPathTile(int tile) {
+		if (pathLength == path.length)
+			path = Arrays.copyOf(path, pathLength * 2);
+		path[pathLength++] = tile;
+	}
+
+	private int stepBetween(int from, int to) {
+		if (from / width == to / width)
+			return to > from ? 1 : -1;
+		return to > from ? width : -width;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= pathLength)
+			throw new IndexOutOfBoundsException("Path index " + index + " of " + pathLength);
+	}
+}
@@ -22,6 +22,7 @@ public class Pineapple extends Fruit {
 		// Empieza moviéndose a la derecha
 		this.directionRow = 0;
 		this.directionColumn = 1;
+		rehash();
 	}
 
 	@Override
@@ -48,6 +49,7 @@ public class Pineapple extends Fruit {
 	public void reverseDirection() {
 		directionRow = -directionRow;
 		directionColumn = -directionColumn;
+		rehash();
 	}
 
 	/**
@@ -64,6 +66,27 @@ public class Pineapple extends Fruit {
 		return directionColumn;
 	}
 
+	@Override
+	void copyFrom(Fruit other) {
+		super.copyFrom(other);
+		Pineapple pineapple = (Pineapple) other;
+		directionRow = pineapple.directionRow;
+		directionColumn = pineapple.directionColumn;
+		rehash();
+	}
+
+	@Override
+	long computeZobrist() {
+		return Zobrist.key(super.computeZobrist(), Zobrist.pack(directionRow, directionColumn), 0);
+	}
+
+	@Override
+	Fruit copy() {
+		Pineapple copy = new Pineapple(row, column);
+		copy.copyFrom(this);
+		return copy;
+	}
+
 	@Override
 	public String getType() {
 		return "Pineapple";
@@ -52,6 +52,7 @@ public class Player extends Character {
 		row--;
 		lastDirectionX = 0;
         lastDirectionY = -1; // Ahora mira hacia arriba
+		rehash();
 		return row;
 	}
 
@@ -64,6 +65,7 @@ public class Player extends Character {
 		row++;
 		lastDirectionX = 0;
         lastDirectionY = 1; // Ahora mira hacia arriba
+		rehash();
 		return row;
 	}
 
@@ -76,6 +78,7 @@ public class Player extends Character {
 		column--;
 		lastDirectionX = -1; // Ahora mira a la izquierda
         lastDirectionY = 0;
+		rehash();
 		return column;
 	}
 
@@ -88,6 +91,7 @@ public class Player extends Character {
 		column++;
 		lastDirectionX = 1; // Ahora mira a la derecha
         lastDirectionY = 0;
+		rehash();
 		return column;
 	}
 
@@ -102,6 +106,7 @@ public class Player extends Character {
         if (dx != 0 || dy != 0) {
             this.lastDirectionX = dx;
             this.lastDirectionY = dy;
+            rehash();
         }
     }
     
@@ -176,4 +181,33 @@ public class Player extends Character {
 	public void onCollectFruit() {
 		// increment score in Game
 	}
+
+	/**
+	 * Takes the whole state of another player.
+	 * 
+	 * @param other player to copy
+	 */
+	void copyFrom(Player other) {
+		super.copyFrom(other);
+		flavor = other.flavor;
+		playerNumber = other.playerNumber;
+		score = other.score;
+		lastDirectionX = other.lastDirectionX;
+		lastDirectionY = other.lastDirectionY;
+		rehash();
+	}
+
+	@Override
+	long computeZobrist() {
+		return Zobrist.key(Zobrist.PLAYER, Zobrist.pack(row, column), Zobrist.pack(lastDirectionY, lastDirectionX));
+	}
+
+	/**
+	 * @return a new player with the same state
+	 */
+	Player copy() {
+		Player copy = new Player(row, column);
+		copy.copyFrom(this);
+		return copy;
+	}
 }
\ No newline at end of file
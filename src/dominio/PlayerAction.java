@@ -0,0 +1,108 @@
+package dominio;
+
+/**
+ * The actions a computer-controlled player can take in one tick, as small
+ * integers so bots can keep them in arrays: stay, move one tile, or shoot ice
+ * in one of the four directions. Actions are applied through
+ * {@link Game#movePlayer(int, int, int)} and
+ * {@link Game#playerShootIce(int, int, int)}, like the keyboard does.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public final class PlayerAction {
+
+	/** Do nothing this tick. */
+	public static final int STAY = 0;
+	/** Move one tile right. */
+	public static final int MOVE_RIGHT = 1;
+	/** Move one tile left. */
+	public static final int MOVE_LEFT = 2;
+	/** Move one tile down. */
+	public static final int MOVE_DOWN = 3;
+	/** Move one tile up. */
+	public static final int MOVE_UP = 4;
+	/** Create or destroy a line of ice to the right. */
+	public static final int SHOOT_RIGHT = 5;
+	/** Create or destroy a line of ice to the left. */
+	public static final int SHOOT_LEFT = 6;
+	/** Create or destroy a line of ice downward. */
+	public static final int SHOOT_DOWN = 7;
+	/** Create or destroy a line of ice upward. */
+	public static final int SHOOT_UP = 8;
+
+	/** Number of actions. */
+	public static final int COUNT = 9;
+
+	private static final int[] DX = { 0, 1, -1, 0, 0, 1, -1, 0, 0 };
+	private static final int[] DY = { 0, 0, 0, 1, -1, 0, 0, 1, -1 };
+	private static final String[] NAMES = { "STAY", "MOVE_RIGHT", "MOVE_LEFT", "MOVE_DOWN", "MOVE_UP", "SHOOT_RIGHT",
+			"SHOOT_LEFT", "SHOOT_DOWN", "SHOOT_UP" };
+
+	private PlayerAction() {
+	}
+
+	/**
+	 * Applies an action for one player.
+	 *
+	 * @param game        game to play on
+	 * @param playerIndex index of the player (0 or 1)
+	 * @param action      one of the action constants
+	 * @throws IllegalArgumentException if the action does not exist
+	 */
+	public static void apply(Game game, int playerIndex, int action) {
+		checkAction(action);
+		if (isMove(action)) {
+			game.movePlayer(playerIndex, DX[action], DY[action]);
+		} else if (action != STAY) {
+			game.playerShootIce(playerIndex, DX[action], DY[action]);
+		}
+	}
+
+	/**
+	 * @param action one of the action constants
+	 * @return true if the action moves the player
+	 */
+	public static boolean isMove(int action) {
+		return action >= MOVE_RIGHT && action <= MOVE_UP;
+	}
+
+	/**
+	 * @param action one of the action constants
+	 * @return true if the action shoots ice
+	 */
+	public static boolean isShot(int action) {
+		return action >= SHOOT_RIGHT && action < COUNT;
+	}
+
+	/**
+	 * @param action one of the action constants
+	 * @return column step of the action's direction, 0 for STAY
+	 */
+	public static int dx(int action) {
+		checkAction(action);
+		return DX[action];
+	}
+
+	/**
+	 * @param action one of the action constants
+	 * @return row step of the action's direction, 0 for STAY
+	 */
+	public static int dy(int action) {
+		checkAction(action);
+		return DY[action];
+	}
+
+	/**
+	 * @param action one of the action constants
+	 * @return name of the action, as in the constant
+	 */
+	public static String name(int action) {
+		checkAction(action);
+		return NAMES[action];
+	}
+
+	private static void checkAction(int action) {
+		if (action < 0 || action >= COUNT)
+			throw new IllegalArgumentException("Unknown action: " + action);
+	}
+}
@@ -21,11 +21,15 @@ public class Pot extends Enemy {
     }
     
     /**
-     * Pot chases the player using simple pathfinding.
-     * Moves towards player but cannot break ice.
+     * Pot chases the closest player along the shortest walkable path.
+     * If no player can be reached it moves greedily towards the player,
+     * since it cannot break ice.
      */
     @Override
     public void update(Game game) {
+        if (chaseNearestPlayer(game)) {
+            return;
+        }
         Player player = game.getPlayer();
         
         // Calcular dirección hacia el jugador
@@ -84,6 +88,13 @@ public class Pot extends Enemy {
         }
     }
     
+    @Override
+    Enemy copy() {
+        Pot copy = new Pot(row, column);
+        copy.copyFrom(this);
+        return copy;
+    }
+    
     @Override
     public String getType() {
         return "Pot";
@@ -0,0 +1,307 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Connected components of the walkable tiles of a map (4-neighbourhood), kept
+ * up to date one tile at a time. Opening a tile joins the regions around it by
+ * relabelling the smaller ones. Closing a tile runs one search from each
+ * walkable neighbour in lockstep: searches that meet are still the same region,
+ * and a search that runs out of tiles first has found a piece that split off,
+ * which is relabelled. Both cases only walk the smaller side.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class RegionIndex {
+
+	private static final int BLOCKED = -1;
+	private static final int[] DX = { 1, -1, 0, 0 };
+	private static final int[] DY = { 0, 0, 1, -1 };
+
+	private final int width;
+	private final int height;
+	private final int[] labels; // región de cada casilla, BLOCKED si no se camina
+	private int[] sizes = new int[16];
+	private int[] freeLabels = new int[16];
+	private int freeCount;
+	private int labelCount;
+
+	// Estado de las búsquedas al cerrar una casilla
+	private final int[] marks; // ronda << 2 | búsqueda que visitó la casilla
+	private int round;
+	private int[] queue = new int[64];
+
+	/**
+	 * Creates an index where every tile is blocked.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	RegionIndex(int width, int height) {
+		this.width = width;
+		this.height = height;
+		labels = new int[Math.multiplyExact(width, height)];
+		marks = new int[labels.length];
+		Arrays.fill(labels, BLOCKED);
+	}
+
+	/**
+	 * Labels every region from scratch. Tiles are given as walkable or not by
+	 * the map before the first call.
+	 *
+	 * @param walkable walkability of each tile, indexed y * width + x
+	 */
+	void build(boolean[] walkable) {
+		for (int cell = 0; cell < labels.length; cell++) {
+			labels[cell] = walkable[cell] ? 0 : BLOCKED;
+		}
+		for (int cell = 0; cell < labels.length; cell++) {
+			if (labels[cell] == 0) {
+				int label = newLabel();
+				labels[cell] = label;
+				sizes[label] = 1 + flood(cell, 0, label);
+			}
+		}
+	}
+
+	/**
+	 * @return true if both tiles are walkable and connected
+	 */
+	boolean sameRegion(int x1, int y1, int x2, int y2) {
+		int label = labels[y1 * width + x1];
+		return label != BLOCKED && label == labels[y2 * width + x2];
+	}
+
+	/**
+	 * @return number of tiles of the region containing the tile, 0 if blocked
+	 */
+	int regionSize(int x, int y) {
+		int label = labels[y * width + x];
+		return label == BLOCKED ? 0 : sizes[label];
+	}
+
+	/**
+	 * Opens or closes a tile and repairs the regions around it.
+	 */
+	void update(int x, int y, boolean walkable) {
+		int cell = y * width + x;
+		if (walkable == (labels[cell] != BLOCKED))
+			return;
+		if (walkable) {
+			open(cell, x, y);
+		} else {
+			close(cell, x, y);
+		}
+	}
+
+	private void open(int cell, int x, int y) {
+		// La región más grande alrededor se queda con su etiqueta
+		int target = BLOCKED;
+		for (int d = 0; d < 4; d++) {
+			int label = neighbourLabel(x, y, d);
+			if (label != BLOCKED && (target == BLOCKED || sizes[label] > sizes[target]))
+				target = label;
+		}
+		if (target == BLOCKED) {
+			target = newLabel();
+		}
+		labels[cell] = target;
+		sizes[target]++;
+
+		for (int d = 0; d < 4; d++) {
+			int label = neighbourLabel(x, y, d);
+			if (label != BLOCKED && label != target) {
+				int start = (y + DY[d]) * width + x + DX[d];
+				labels[start] = target;
+				int moved = 1 + flood(start, label, target);
+				sizes[target] += moved;
+				freeLabel(label);
+			}
+		}
+	}
+
+	private void close(int cell, int x, int y) {
+		int label = labels[cell];
+		labels[cell] = BLOCKED;
+		sizes[label]--;
+
+		int[] starts = new int[4];
+		int count = 0;
+		for (int d = 0; d < 4; d++) {
+			if (neighbourLabel(x, y, d) != BLOCKED)
+				starts[count++] = (y + DY[d]) * width + x + DX[d];
+		}
+		if (count == 0) {
+			freeLabel(label);
+			return;
+		}
+		if (count > 1) {
+			split(label, starts, count);
+		}
+	}
+
+	/**
+	 * Runs the lockstep searches from the neighbours of a closed tile and gives
+	 * a new label to every piece that turns out to be cut off.
+	 */
+	private void split(int label, int[] starts, int count) {
+		nextRound();
+		int tag = round << 2;
+		int[] group = new int[count]; // búsquedas que ya se encontraron
+		int[] heads = new int[count];
+		int[] tails = new int[count];
+
+		// Cada búsqueda guarda en orden las casillas que visitó
+		int[][] visited = new int[count][];
+		for (int i = 0; i < count; i++) {
+			group[i] = i;
+			visited[i] = new int[16];
+			visited[i][0] = starts[i];
+			tails[i] = 1;
+			marks[starts[i]] = tag | i;
+		}
+		int groups = count;
+		boolean[] done = new boolean[count];
+
+		while (groups > 1) {
+			boolean progressed = false;
+			for (int i = 0; i < count && groups > 1; i++) {
+				if (done[i] || heads[i] == tails[i])
+					continue;
+				progressed = true;
+				int current = visited[i][heads[i]++];
+				int cx = current % width;
+				int cy = current / width;
+				for (int d = 0; d < 4; d++) {
+					int nx = cx + DX[d];
+					int ny = cy + DY[d];
+					if (nx < 0 || ny < 0 || nx >= width || ny >= height)
+						continue;
+					int next = ny * width + nx;
+					if (labels[next] != label)
+						continue;
+					int mark = marks[next];
+					if ((mark >>> 2) == round) {
+						int a = groupOf(group, i);
+						int b = groupOf(group, mark & 3);
+						if (a != b) {
+							group[b] = a;
+							groups--;
+						}
+						continue;
+					}
+					marks[next] = tag | i;
+					if (tails[i] == visited[i].length)
+						visited[i] = Arrays.copyOf(visited[i], tails[i] * 2);
+					visited[i][tails[i]++] = next;
+				}
+			}
+
+			// Un grupo sin búsquedas pendientes es una región separada
+			for (int i = 0; i < count && groups > 1; i++) {
+				int root = groupOf(group, i);
+				if (done[root] || !exhausted(group, heads, tails, root, count))
+					continue;
+				int fresh = newLabel();
+				int moved = 0;
+				for (int j = 0; j < count; j++) {
+					if (groupOf(group, j) != root)
+						continue;
+					done[j] = true;
+					for (int k = 0; k < tails[j]; k++) {
+						labels[visited[j][k]] = fresh;
+					}
+					moved += tails[j];
+				}
+				sizes[fresh] = moved;
+				sizes[label] -= moved;
+				groups--;
+			}
+			if (!progressed)
+				break;
+		}
+	}
+
+	private static int groupOf(int[] group, int i) {
+		while (group[i] != i) {
+			i = group[i];
+		}
+		return i;
+	}
+
+	private static boolean exhausted(int[] group, int[] heads, int[] tails, int root, int count) {
+		for (int j = 0; j < count; j++) {
+			if (groupOf(group, j) == root && heads[j] < tails[j])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Relabels every tile reachable from start that has label from.
+	 *
+	 * @return number of tiles relabelled, start excluded
+	 */
+	private int flood(int start, int from, int to) {
+		int head = 0;
+		int tail = 0;
+		int moved = 0;
+		queue[tail++] = start;
+		while (head < tail) {
+			int current = queue[head++];
+			int cx = current % width;
+			int cy = current / width;
+			for (int d = 0; d < 4; d++) {
+				int nx = cx + DX[d];
+				int ny = cy + DY[d];
+				if (nx < 0 || ny < 0 || nx >= width || ny >= height)
+					continue;
+				int next = ny * width + nx;
+				if (labels[next] != from)
+					continue;
+				labels[next] = to;
+				moved++;
+				if (tail == queue.length)
+					queue = Arrays.copyOf(queue, tail * 2);
+				queue[tail++] = next;
+			}
+		}
+		return moved;
+	}
+
+	private int neighbourLabel(int x, int y, int d) {
+		int nx = x + DX[d];
+		int ny = y + DY[d];
+		if (nx < 0 || ny < 0 || nx >= width || ny >= height)
+			return BLOCKED;
+		return labels[ny * width + nx];
+	}
+
+	private int newLabel() {
+		int label;
+		if (freeCount > 0) {
+			label = freeLabels[--freeCount];
+		} else {
+			label = ++labelCount; // la etiqueta 0 queda libre para build
+			if (label >= sizes.length)
+				sizes = Arrays.copyOf(sizes, sizes.length * 2);
+		}
+		sizes[label] = 0;
+		return label;
+	}
+
+	private void freeLabel(int label) {
+		sizes[label] = 0;
+		if (freeCount == freeLabels.length)
+			freeLabels = Arrays.copyOf(freeLabels, freeCount * 2);
+		freeLabels[freeCount++] = label;
+	}
+
+	private void nextRound() {
+		round++;
+		if (round >= 1 << 29) {
+			Arrays.fill(marks, 0);
+			round = 1;
+		}
+	}
+}
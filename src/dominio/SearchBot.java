@@ -0,0 +1,374 @@
+package dominio;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computer-controlled player that chooses its actions with a deterministic
+ * iterative-deepening search, within a hard time budget per decision. The
+ * search tries every action of the player one tick at a time on copies of
+ * the game ({@link Game#copyInto(Game)}), one level deeper on each pass,
+ * until the deadline; the action of the last complete pass is played. A
+ * state is worth the points gained on the way plus a bonus for being close
+ * to a fruit, and being caught or winning the level end the line. Other
+ * players stay still in the search. The clock is read after every simulated
+ * tick, so a decision overruns its budget by at most one tick plus any pause
+ * of the JVM; a pass cut by the deadline is thrown away.
+ *
+ * Results are kept in a {@link TranspositionTable} keyed by the state hash,
+ * so states reached again, by another order of moves or on the next
+ * decision, are not searched twice. Actions are tried best first: the one
+ * the table remembers, then the moves that bring the player closer to an
+ * uncollected fruit by a walking distance field, then staying and the
+ * shots. Nodes per second and the depth reached are measured.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class SearchBot {
+
+	/** Default time per decision, in milliseconds. */
+	public static final long DEFAULT_BUDGET_MILLIS = 2;
+
+	/** Default number of entries of the transposition table. */
+	public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+	/** Deepest pass the search can reach. */
+	public static final int MAX_DEPTH = 64;
+
+	private static final float LOSS = -10; // por debajo de cualquier puntaje alcanzable
+	private static final float WIN = 10;
+	private static final float POINTS = 0.5f; // por cada SCORE_SCALE puntos
+	private static final int SCORE_SCALE = 200;
+	private static final float CLOSENESS = 0.2f; // junto a una fruta
+
+	private final TranspositionTable table;
+	private final DistanceField fruitField = new DistanceField(DistanceField.BLOCKED);
+	private Game[] games = new Game[0]; // estado en cada nivel de la búsqueda
+	private int[][] orders = new int[0][]; // acciones por probar en cada nivel
+	private int[] fruitColumns = new int[0];
+	private int[] fruitRows = new int[0];
+	private long budgetNanos;
+	private int maxDepth = MAX_DEPTH;
+
+	private int playerIndex; // de la búsqueda en curso
+	private long playerKey;
+	private long deadline;
+	private boolean aborted;
+	private int rootAction;
+	private long nodes;
+
+	private long lastNodes;
+	private long lastNanos;
+	private int lastDepth;
+	private long totalNodes;
+	private long totalNanos;
+
+	/**
+	 * Creates a bot with the default budget and its own table.
+	 */
+	public SearchBot() {
+		this(DEFAULT_BUDGET_MILLIS);
+	}
+
+	/**
+	 * Creates a bot with its own table.
+	 *
+	 * @param budgetMillis time per decision, in milliseconds
+	 * @throws IllegalArgumentException if it is not positive
+	 */
+	public SearchBot(long budgetMillis) {
+		this(budgetMillis, new TranspositionTable(DEFAULT_TABLE_SIZE));
+	}
+
+	/**
+	 * Creates a bot over a table that other bots may share, even from other
+	 * threads.
+	 *
+	 * @param budgetMillis time per decision, in milliseconds
+	 * @param table        transposition table to use
+	 * @throws IllegalArgumentException if the budget is not positive
+	 */
+	public SearchBot(long budgetMillis, TranspositionTable table) {
+		setBudgetMillis(budgetMillis);
+		this.table = table;
+		ensureDepth(8);
+	}
+
+	/**
+	 * Searches the best action for a player from the current state of a game.
+	 * The game is only read.
+	 *
+	 * @param game        game to play
+	 * @param playerIndex index of the player the bot controls
+	 * @return one of the {@link PlayerAction} constants; STAY if the game has
+	 *         ended
+	 * @throws IllegalArgumentException if the game has no such player
+	 */
+	public int chooseAction(Game game, int playerIndex) {
+		if (playerIndex < 0 || playerIndex >= game.getPlayers().size())
+			throw new IllegalArgumentException("No player " + playerIndex);
+		if (game.isGameOver() || game.isGameWon())
+			return PlayerAction.STAY;
+
+		long start = System.nanoTime();
+		deadline = start + budgetNanos;
+		aborted = false;
+		nodes = 0;
+		this.playerIndex = playerIndex;
+		playerKey = Zobrist.key(Zobrist.PLAYER, playerIndex, 0);
+		updateFruitField(game);
+		game.copyInto(games[0]);
+		table.newSearch();
+
+		// Si ni la primera pasada termina, se juega la que recuerde la tabla
+		long entry = table.probe(games[0].getStateHash() ^ playerKey);
+		orderActions(games[0], 0, entry == TranspositionTable.MISS ? -1 : TranspositionTable.action(entry));
+		int best = orders[0][0];
+		int depth = 0;
+		while (depth < maxDepth) {
+			ensureDepth(depth + 2);
+			if (System.nanoTime() >= deadline)
+				break;
+			search(0, depth + 1);
+			if (aborted)
+				break;
+			best = rootAction;
+			depth++;
+		}
+
+		lastNanos = System.nanoTime() - start;
+		lastNodes = nodes;
+		lastDepth = depth;
+		totalNanos += lastNanos;
+		totalNodes += nodes;
+		return best;
+	}
+
+	/**
+	 * Chooses an action for a player and applies it to the game. Enemies and
+	 * fruits are not updated; the game loop does that.
+	 *
+	 * @param game        game to play
+	 * @param playerIndex index of the player the bot controls
+	 * @return the action applied
+	 */
+	public int play(Game game, int playerIndex) {
+		int action = chooseAction(game, playerIndex);
+		PlayerAction.apply(game, playerIndex, action);
+		return action;
+	}
+
+	/**
+	 * Searches a state to a depth.
+	 *
+	 * @param ply   level of the state; its game is games[ply]
+	 * @param depth ticks still to play below it
+	 * @return value of the state, not counting the points already gained
+	 */
+	private float search(int ply, int depth) {
+		Game game = games[ply];
+		if (game.isGameOver())
+			return LOSS;
+		if (game.isGameWon())
+			return WIN;
+		if (depth == 0)
+			return closeness(game);
+
+		long key = game.getStateHash() ^ playerKey;
+		long entry = table.probe(key);
+		int remembered = -1;
+		if (entry != TranspositionTable.MISS) {
+			if (ply > 0 && TranspositionTable.depth(entry) >= depth)
+				return TranspositionTable.value(entry);
+			remembered = TranspositionTable.action(entry);
+		}
+
+		int count = orderActions(game, ply, remembered);
+		int[] order = orders[ply];
+		Game child = games[ply + 1];
+		int score = game.getGameState().getScore();
+		float best = Float.NEGATIVE_INFINITY;
+		int bestAction = PlayerAction.STAY;
+		for (int i = 0; i < count; i++) {
+			int action = order[i];
+			game.copyInto(child);
+			MctsBot.playTick(child, playerIndex, action);
+			nodes++;
+			float gained = POINTS * (child.getGameState().getScore() - score) / SCORE_SCALE;
+			float value = gained + search(ply + 1, depth - 1);
+			if (aborted || System.nanoTime() >= deadline) {
+				aborted = true;
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				bestAction = action;
+			}
+		}
+		table.store(key, best, depth, bestAction);
+		if (ply == 0)
+			rootAction = bestAction;
+		return best;
+	}
+
+	/**
+	 * @return bonus for standing close to an uncollected fruit of the root
+	 */
+	private float closeness(Game game) {
+		Player player = game.getPlayers().get(playerIndex);
+		int distance = fruitField.getDistance(player.getColumn(), player.getRow());
+		return distance == DistanceField.UNREACHABLE ? 0 : CLOSENESS / (1 + distance);
+	}
+
+	/**
+	 * Fills orders[ply] with the actions worth trying, best first: the
+	 * remembered one, the moves by walking distance to a fruit, staying, and
+	 * the shots. Moves into blocked tiles play like staying and are left out.
+	 *
+	 * @return number of actions
+	 */
+	private int orderActions(Game game, int ply, int remembered) {
+		int[] order = orders[ply];
+		Player player = game.getPlayers().get(playerIndex);
+		int x = player.getColumn();
+		int y = player.getRow();
+		IceMap map = game.getMap();
+		int count = 0;
+		if (remembered >= 0)
+			order[count++] = remembered;
+		int moves = count;
+		for (int action = PlayerAction.MOVE_RIGHT; action <= PlayerAction.MOVE_UP; action++) {
+			int nx = x + PlayerAction.dx(action);
+			int ny = y + PlayerAction.dy(action);
+			if (action == remembered || !map.isWalkable(nx, ny))
+				continue;
+			// Inserción por distancia a la fruta; las inalcanzables al final
+			int distance = fruitDistance(nx, ny);
+			int i = count++;
+			while (i > moves && fruitDistance(x + PlayerAction.dx(order[i - 1]),
+					y + PlayerAction.dy(order[i - 1])) > distance) {
+				order[i] = order[i - 1];
+				i--;
+			}
+			order[i] = action;
+		}
+		for (int action = PlayerAction.STAY; action < PlayerAction.COUNT; action++) {
+			if (action != remembered && !PlayerAction.isMove(action))
+				order[count++] = action;
+		}
+		return count;
+	}
+
+	private int fruitDistance(int x, int y) {
+		int distance = fruitField.getDistance(x, y);
+		return distance == DistanceField.UNREACHABLE ? Integer.MAX_VALUE : distance;
+	}
+
+	/**
+	 * Points the fruit field at the uncollected fruits of the game.
+	 */
+	private void updateFruitField(Game game) {
+		List<Fruit> fruits = game.getFruits();
+		if (fruitColumns.length < fruits.size()) {
+			fruitColumns = new int[fruits.size()];
+			fruitRows = new int[fruits.size()];
+		}
+		int count = 0;
+		for (Fruit fruit : fruits) {
+			if (!fruit.isCollected()) {
+				fruitColumns[count] = fruit.getColumn();
+				fruitRows[count] = fruit.getRow();
+				count++;
+			}
+		}
+		fruitField.update(game.getMap(), count, fruitColumns, fruitRows, null);
+	}
+
+	/**
+	 * Makes room for a search of the given number of levels.
+	 */
+	private void ensureDepth(int levels) {
+		if (games.length >= levels)
+			return;
+		int old = games.length;
+		games = Arrays.copyOf(games, levels);
+		orders = Arrays.copyOf(orders, levels);
+		for (int i = old; i < levels; i++) {
+			games[i] = new Game();
+			orders[i] = new int[PlayerAction.COUNT];
+		}
+	}
+
+	/**
+	 * Sets the time per decision.
+	 *
+	 * @param budgetMillis time in milliseconds
+	 * @throws IllegalArgumentException if it is not positive
+	 */
+	public void setBudgetMillis(long budgetMillis) {
+		if (budgetMillis <= 0)
+			throw new IllegalArgumentException("Budget must be positive: " + budgetMillis);
+		budgetNanos = budgetMillis * 1_000_000L;
+	}
+
+	/**
+	 * @return time per decision, in milliseconds
+	 */
+	public long getBudgetMillis() {
+		return budgetNanos / 1_000_000L;
+	}
+
+	/**
+	 * Caps the depth of the search, so a decision can end before its time
+	 * budget; useful for repeatable runs.
+	 *
+	 * @param depth deepest pass, from 1 to MAX_DEPTH
+	 */
+	public void setMaxDepth(int depth) {
+		if (depth < 1 || depth > MAX_DEPTH)
+			throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+		maxDepth = depth;
+	}
+
+	/**
+	 * @return transposition table of the bot
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * @return depth of the last complete pass of the last decision
+	 */
+	public int getLastDepth() {
+		return lastDepth;
+	}
+
+	/**
+	 * @return ticks simulated in the last decision
+	 */
+	public long getLastNodes() {
+		return lastNodes;
+	}
+
+	/**
+	 * @return nodes per second in the last decision
+	 */
+	public double getLastNodesPerSecond() {
+		return lastNanos == 0 ? 0 : lastNodes * 1e9 / lastNanos;
+	}
+
+	/**
+	 * @return ticks simulated since the bot was created
+	 */
+	public long getTotalNodes() {
+		return totalNodes;
+	}
+
+	/**
+	 * @return nodes per second over every decision so far
+	 */
+	public double getNodesPerSecond() {
+		return totalNanos == 0 ? 0 : totalNodes * 1e9 / totalNanos;
+	}
+}
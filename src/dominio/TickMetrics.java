@@ -0,0 +1,151 @@
+package dominio;
+
+/**
+ * Counters of the enemy updates done by {@link Game#updateEnemies()}, for the
+ * last tick and since the last reset. Every enemy goes through the level of
+ * detail first; a deferred one is counted as deferred. An enemy that is due
+ * is counted as asleep if it started the tick asleep on its cycle, and moves
+ * along the cycle without reading the map, or as updated otherwise. Steps
+ * count both.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class TickMetrics {
+
+	private long ticks;
+	private long totalNanos;
+	private long totalSteps;
+	private long totalCatchUpSteps;
+	private long totalDeferred;
+	private long totalAsleep;
+
+	private long lastNanos;
+	private int lastUpdated;
+	private int lastSteps;
+	private int lastDeferred;
+	private int lastAsleep;
+
+	void startTick() {
+		lastUpdated = 0;
+		lastSteps = 0;
+		lastDeferred = 0;
+		lastAsleep = 0;
+	}
+
+	void countUpdated(int steps) {
+		lastUpdated++;
+		lastSteps += steps;
+		totalSteps += steps;
+		totalCatchUpSteps += steps - 1;
+	}
+
+	void countDeferred() {
+		lastDeferred++;
+		totalDeferred++;
+	}
+
+	void countAsleep(int steps) {
+		lastAsleep++;
+		totalAsleep++;
+		lastSteps += steps;
+		totalSteps += steps;
+		totalCatchUpSteps += steps - 1;
+	}
+
+	void endTick(long nanos) {
+		ticks++;
+		lastNanos = nanos;
+		totalNanos += nanos;
+	}
+
+	/**
+	 * @return ticks counted since the last reset
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return awake enemies updated in the last tick
+	 */
+	public int getLastUpdated() {
+		return lastUpdated;
+	}
+
+	/**
+	 * @return update steps run in the last tick, catch-up steps included
+	 */
+	public int getLastSteps() {
+		return lastSteps;
+	}
+
+	/**
+	 * @return enemies left for a later tick in the last tick
+	 */
+	public int getLastDeferred() {
+		return lastDeferred;
+	}
+
+	/**
+	 * @return sleeping enemies moved along their cycle in the last tick
+	 */
+	public int getLastAsleep() {
+		return lastAsleep;
+	}
+
+	/**
+	 * @return duration of the last tick, in nanoseconds
+	 */
+	public long getLastNanos() {
+		return lastNanos;
+	}
+
+	/**
+	 * @return update steps run since the last reset
+	 */
+	public long getTotalSteps() {
+		return totalSteps;
+	}
+
+	/**
+	 * @return steps run to make up for deferred ticks since the last reset
+	 */
+	public long getTotalCatchUpSteps() {
+		return totalCatchUpSteps;
+	}
+
+	/**
+	 * @return enemy deferrals since the last reset
+	 */
+	public long getTotalDeferred() {
+		return totalDeferred;
+	}
+
+	/**
+	 * @return sleeping enemies moved along their cycle since the last reset
+	 */
+	public long getTotalAsleep() {
+		return totalAsleep;
+	}
+
+	/**
+	 * @return average tick duration since the last reset, in nanoseconds
+	 */
+	public double getAverageNanos() {
+		return ticks == 0 ? 0 : (double) totalNanos / ticks;
+	}
+
+	/**
+	 * Sets every counter to zero.
+	 */
+	public void reset() {
+		ticks = 0;
+		totalNanos = 0;
+		totalSteps = 0;
+		totalCatchUpSteps = 0;
+		totalDeferred = 0;
+		totalAsleep = 0;
+		startTick();
+		lastNanos = 0;
+	}
+}
@@ -0,0 +1,52 @@
+package dominio;
+
+/**
+ * Per-tile obstacle layer of the map. Each tile stores a combination of the
+ * IceMap.TILE_* flags, with the count of lit firepits in the high bits, and a
+ * handle, the index of the obstacle that owns the tile in its list.
+ * Subclasses decide how the tiles are allocated.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+abstract class TileLayer {
+
+	/** Handle of a tile without obstacle. */
+	static final int NO_HANDLE = -1;
+
+	/**
+	 * @return obstacle flags of the tile
+	 */
+	abstract byte getKind(int x, int y);
+
+	/**
+	 * @return handle of the tile, or NO_HANDLE
+	 */
+	abstract int getHandle(int x, int y);
+
+	/**
+	 * Stores the flags and handle of a tile.
+	 */
+	abstract void set(int x, int y, byte kind, int handle);
+
+	/**
+	 * Resets every tile to no obstacle.
+	 */
+	abstract void clear();
+
+	/**
+	 * Makes this layer an exact copy of another one of the same size, tile by
+	 * tile. Subclasses copy their arrays directly when both layers share the
+	 * layout.
+	 *
+	 * @param other  layer to copy
+	 * @param width  number of columns of both layers
+	 * @param height number of rows of both layers
+	 */
+	void copyFrom(TileLayer other, int width, int height) {
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				set(x, y, other.getKind(x, y), other.getHandle(x, y));
+			}
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package dominio;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of search results keyed by a 64-bit state hash, such as
+ * {@link Game#getStateHash()}. Each entry is two longs: the data and the key
+ * XORed with the data. A reader that sees half of one store and half of
+ * another gets a key that does not match and takes the entry as missing, so
+ * several searches can probe and store at the same time without locks; a
+ * lost or torn store only costs the work of searching that state again.
+ *
+ * The data packs the value of the state, the depth it was searched to, the
+ * best action found and the search that stored it. A slot keeps the deeper
+ * result of the current search and gives way to any result of a newer one.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public final class TranspositionTable {
+
+	/** Returned by a probe that finds nothing. */
+	static final long MISS = 0;
+
+	private static final int MAX_CAPACITY = 1 << 28;
+	private static final long PRESENT = 1L << 63; // los datos nunca valen MISS
+	private static final int DEPTH_SHIFT = 32;
+	private static final int ACTION_SHIFT = 40;
+	private static final int GENERATION_SHIFT = 44;
+	private static final int GENERATION_MASK = 0xFFF;
+
+	private final long[] entries; // pares: clave ^ datos, datos
+	private final int mask;
+	private volatile int generation;
+
+	/**
+	 * Creates an empty table.
+	 *
+	 * @param capacity number of entries, rounded up to a power of two
+	 * @throws IllegalArgumentException if it is not positive or too large
+	 */
+	public TranspositionTable(int capacity) {
+		if (capacity < 1 || capacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		entries = new long[2 * size];
+		mask = size - 1;
+	}
+
+	/**
+	 * @return number of entries
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Empties the table. Must not run while a search is using it.
+	 */
+	public void clear() {
+		Arrays.fill(entries, 0);
+	}
+
+	/**
+	 * Starts a new search: results stored from now on replace the older ones
+	 * whatever their depth.
+	 */
+	void newSearch() {
+		generation = (generation + 1) & GENERATION_MASK;
+	}
+
+	/**
+	 * @param key state hash
+	 * @return data stored for the key, or MISS
+	 */
+	long probe(long key) {
+		int slot = 2 * ((int) key & mask);
+		long data = entries[slot + 1];
+		long check = entries[slot];
+		return (check ^ data) == key && data != MISS ? data : MISS;
+	}
+
+	/**
+	 * Stores the result of a search, unless the slot holds a deeper result of
+	 * the current search.
+	 *
+	 * @param key    state hash
+	 * @param value  value of the state
+	 * @param depth  plies searched below the state, up to 255
+	 * @param action best action found, or -1
+	 */
+	void store(long key, float value, int depth, int action) {
+		int slot = 2 * ((int) key & mask);
+		long old = entries[slot + 1];
+		int current = generation;
+		if ((entries[slot] ^ old) == key || old == MISS || generation(old) != current || depth(old) <= depth) {
+			long data = PRESENT | ((long) current << GENERATION_SHIFT) | ((long) (action & 0xF) << ACTION_SHIFT)
+					| ((long) Math.min(depth, 255) << DEPTH_SHIFT) | (Float.floatToRawIntBits(value) & 0xFFFFFFFFL);
+			entries[slot + 1] = data;
+			entries[slot] = key ^ data;
+		}
+	}
+
+	/**
+	 * @return value stored in the data of an entry
+	 */
+	static float value(long data) {
+		return Float.intBitsToFloat((int) data);
+	}
+
+	/**
+	 * @return depth stored in the data of an entry
+	 */
+	static int depth(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * @return action stored in the data of an entry, or -1
+	 */
+	static int action(long data) {
+		int action = (int) (data >>> ACTION_SHIFT) & 0xF;
+		return action == 0xF ? -1 : action;
+	}
+
+	private static int generation(long data) {
+		return (int) (data >>> GENERATION_SHIFT) & GENERATION_MASK;
+	}
+}
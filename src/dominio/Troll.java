@@ -1,14 +1,35 @@
 package dominio;
 
+import java.util.List;
+
 /**
  * Troll enemy - moves in straight lines and changes direction
  * when hitting obstacles or map edges.
  * Does not chase the player or break ice blocks.
  * Speed: Medium(move 300ms) 
  * 
+ * A troll only walks back and forth along the free run of its row or
+ * column, so after each normal step it is put to sleep on that cycle (see
+ * {@link DormantEnemies}). A sleeping troll moves one phase along that
+ * cycle per update without reading the map; its position and direction are
+ * written into its fields on every update, so reading them never changes the
+ * troll, and they match the normal update exactly.
+ * 
  * @authors Alejandra Beltran - Adrian Ducuara
  */
 public class Troll extends Enemy {
+
+    // Ciclo mientras duerme: ida y vuelta por el tramo [low, high] de una fila o columna
+    boolean dormant;
+    boolean horizontal;
+    int line;
+    int low;
+    int high;
+    List<Troll> watchList; // lista de DormantEnemies donde está registrado
+    private DormantEnemies owner;
+    private IceMap cycleMap;
+    private int phase; // fase al dormirse, más una por actualización
+    private int period;
     
     /**
      * Creates a troll at the specified position.
@@ -27,6 +48,17 @@ public class Troll extends Enemy {
      */
     @Override
     public void update(Game game) {
+        DormantEnemies dormancy = game.getDormantEnemies();
+        dormancy.sync(game.getMap());
+        if (dormant && !isAsleepIn(dormancy, game.getMap()))
+            owner.wake(this); // Se durmió en otro juego o en otro mapa
+        if (dormant) {
+            // Avanzar una fase sin leer el mapa
+            phase = phase + 1 == period ? 0 : phase + 1;
+            settle();
+            return;
+        }
+
         int newRow = row + directionRow;
         int newCol = column + directionColumn;
         
@@ -37,6 +69,126 @@ public class Troll extends Enemy {
             // Si choca con algo, cambia de dirección
             reverseDirection();
         }
+        dormancy.sleep(this);
+    }
+
+    /**
+     * Works out the cycle the troll repeats on the map from its current
+     * position and direction. The phase counts updates from the low end
+     * moving forward: the run walked forward, then backward, one update per
+     * tile, turning around on the spot at each end.
+     * 
+     * @param map   map the cycle is read from
+     * @param owner index the troll sleeps in
+     * @return true if the troll is on a cycle: it stands on a free tile and
+     *         moves along a single axis, or stands still
+     */
+    boolean startCycle(IceMap map, DormantEnemies owner) {
+        if (!map.isWalkable(column, row) || directionRow != 0 && directionColumn != 0
+                || Math.abs(directionRow) > 1 || Math.abs(directionColumn) > 1)
+            return false;
+        this.owner = owner;
+        cycleMap = map;
+        horizontal = directionRow == 0;
+        if (directionRow == 0 && directionColumn == 0) {
+            // Quieto: nada cambia, ni siquiera con el mapa
+            line = row;
+            low = column;
+            high = column;
+            period = 1;
+            phase = 0;
+            return true;
+        }
+        BitGrid blocked = map.blockedGrid();
+        int position;
+        int step;
+        if (horizontal) {
+            line = row;
+            position = column;
+            step = directionColumn;
+            low = blocked.previousInRow(row, column, true) + 1;
+            int wall = blocked.nextInRow(row, column, true);
+            high = wall < 0 ? map.getWidth() - 1 : wall - 1;
+        } else {
+            line = column;
+            position = row;
+            step = directionRow;
+            low = blocked.previousInColumn(column, row, true) + 1;
+            int wall = blocked.nextInColumn(column, row, true);
+            high = wall < 0 ? map.getHeight() - 1 : wall - 1;
+        }
+        int span = high - low + 1;
+        period = 2 * span;
+        phase = step > 0 ? position - low : span + high - position;
+        return true;
+    }
+
+    @Override
+    boolean isAsleepIn(DormantEnemies dormancy, IceMap map) {
+        return dormant && owner == dormancy && cycleMap == map;
+    }
+
+    /**
+     * Writes the position and direction of the current phase into the
+     * troll's fields.
+     */
+    private void settle() {
+        if (period == 1)
+            return;
+        int current = phase;
+        int span = high - low + 1;
+        int position = current < span ? low + current : high - (current - span);
+        int step = current < span ? 1 : -1;
+        if (horizontal) {
+            column = position;
+            directionColumn = step;
+        } else {
+            row = position;
+            directionRow = step;
+        }
+        rehash();
+    }
+
+    /**
+     * Moving the troll from outside breaks its cycle.
+     */
+    @Override
+    public void moveTo(int r, int c) {
+        if (dormant)
+            owner.wake(this);
+        super.moveTo(r, c);
+    }
+
+    @Override
+    public void setDirection(int dr, int dc) {
+        if (dormant)
+            owner.wake(this);
+        super.setDirection(dr, dc);
+    }
+
+    @Override
+    public void reverseDirection() {
+        if (dormant)
+            owner.wake(this);
+        super.reverseDirection();
+    }
+    
+    /**
+     * Takes the state of another troll, asleep or not; this troll is left
+     * awake, and the game puts it back to sleep on its next update.
+     */
+    @Override
+    void copyFrom(Enemy other) {
+        if (dormant)
+            owner.wake(this);
+        super.copyFrom(other);
+    }
+    
+    @Override
+    Enemy copy() {
+        Troll copy = new Troll(getRow(), getColumn());
+        copy.copyFrom(this);
+        return copy;
     }
     
     @Override
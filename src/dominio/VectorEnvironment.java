@@ -0,0 +1,407 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless environment for training agents against many games at once. It
+ * owns a number of games of one level and steps all of them with one array
+ * of actions per call, one {@link PlayerAction} for the first player of each
+ * game. Every step fills the same preallocated arrays with the observation of
+ * each game, the reward of the step and whether its episode ended. A game
+ * that is caught, wins or reaches the tick limit starts a new episode at
+ * once, so its observation is already the first one of the new episode.
+ *
+ * An observation is one byte per tile, row by row and game after game: the
+ * state flags of the tile (see {@link IceMap#getCellState(int, int)}) plus
+ * OBS_PLAYER, OBS_ENEMY and OBS_FRUIT for what stands on it. Only the tiles
+ * in the map's change journal are read again after a step.
+ *
+ * The games are split in contiguous shards, one per worker thread. Each shard
+ * starts new episodes by copying its own fresh game of the level with
+ * {@link Game#copyInto(Game)}, reseeded per episode, so a reset allocates
+ * nothing. Call {@link #shutdown()} when the environment is no longer needed.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class VectorEnvironment {
+
+	/** Observation flag: a player stands on the tile. */
+	public static final byte OBS_PLAYER = 32;
+	/** Observation flag: an enemy stands on the tile. */
+	public static final byte OBS_ENEMY = 64;
+	/** Observation flag: an uncollected fruit is on the tile. */
+	public static final byte OBS_FRUIT = (byte) 128;
+
+	/** Reward added on the step a player is caught. */
+	public static final float LOSS_REWARD = -1;
+	/** Points that make a reward of 1. */
+	public static final int POINTS_PER_REWARD = 100;
+
+	private static final int ENTITY_FLAGS = OBS_PLAYER | OBS_ENEMY | OBS_FRUIT;
+
+	private final Game[] games;
+	private final Shard[] shards;
+	private final ExecutorService pool; // null con un solo hilo: pasa el llamador
+	private final SplittableRandom[] seeds; // uno por juego, no depende de los hilos
+	private final IceMap[] observedMaps;
+	private final long[] versions;
+	private final int[][] marks; // casillas con banderas de personajes o frutas
+	private final int[] markCounts;
+	private final int[] episodeTicks;
+	private final byte[] observations;
+	private final float[] rewards;
+	private final boolean[] dones;
+	private final int width;
+	private final int height;
+	private int[] actions; // del paso en curso
+	private int maxEpisodeTicks;
+
+	private long steps;
+	private long episodes;
+	private long totalNanos;
+
+	/**
+	 * Creates an environment and starts the first episode of every game.
+	 *
+	 * @param count   number of games
+	 * @param level   level every game plays
+	 * @param threads number of worker threads
+	 * @param seed    seed of the random tiles of every episode
+	 * @throws IllegalArgumentException if count or threads is not positive
+	 */
+	public VectorEnvironment(int count, int level, int threads, long seed) {
+		if (count < 1)
+			throw new IllegalArgumentException("Count must be at least 1: " + count);
+		if (threads < 1)
+			throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+		Game template = new Game(level);
+		width = template.getMap().getWidth();
+		height = template.getMap().getHeight();
+
+		games = new Game[count];
+		seeds = new SplittableRandom[count];
+		SplittableRandom root = new SplittableRandom(seed);
+		for (int i = 0; i < count; i++) {
+			games[i] = new Game(level);
+			seeds[i] = root.split();
+		}
+		observedMaps = new IceMap[count];
+		versions = new long[count];
+		marks = new int[count][];
+		markCounts = new int[count];
+		episodeTicks = new int[count];
+		observations = new byte[count * width * height];
+		rewards = new float[count];
+		dones = new boolean[count];
+
+		// Cada fragmento copia desde su propio juego nuevo, el mismo para todos
+		int shardCount = Math.min(threads, count);
+		shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			Game start = new Game(level);
+			template.copyInto(start);
+			shards[i] = new Shard(start, (int) ((long) count * i / shardCount),
+					(int) ((long) count * (i + 1) / shardCount));
+		}
+		pool = shardCount == 1 ? null : Executors.newFixedThreadPool(shardCount, task -> {
+			Thread thread = new Thread(task, "env-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		reset();
+	}
+
+	/**
+	 * Starts a new episode in every game. Rewards are set to 0 and done flags
+	 * to false.
+	 */
+	public void reset() {
+		for (Shard shard : shards) {
+			for (int i = shard.from; i < shard.to; i++) {
+				shard.startEpisode(i);
+				shard.observe(i);
+				rewards[i] = 0;
+				dones[i] = false;
+			}
+		}
+	}
+
+	/**
+	 * Plays one tick in every game: the action of its first player, then its
+	 * enemies and fruits. The observations, rewards and done flags are
+	 * written into the arrays returned by the getters.
+	 *
+	 * @param actions one {@link PlayerAction} constant per game
+	 * @throws IllegalArgumentException if the array has the wrong length or
+	 *                                  holds an unknown action
+	 */
+	public void step(int[] actions) {
+		if (actions.length != games.length)
+			throw new IllegalArgumentException("Expected " + games.length + " actions, got " + actions.length);
+		for (int action : actions) {
+			if (action < 0 || action >= PlayerAction.COUNT)
+				throw new IllegalArgumentException("Unknown action: " + action);
+		}
+		long start = System.nanoTime();
+		this.actions = actions;
+		runShards();
+		this.actions = null;
+		for (Shard shard : shards) {
+			episodes += shard.finished;
+			shard.finished = 0;
+		}
+		steps += games.length;
+		totalNanos += System.nanoTime() - start;
+	}
+
+	private void runShards() {
+		if (pool == null) {
+			shards[0].call();
+			return;
+		}
+		List<Callable<Integer>> tasks = new ArrayList<>(shards.length);
+		for (Shard shard : shards) {
+			tasks.add(shard);
+		}
+		try {
+			for (Future<Integer> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while stepping the games", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Environment worker failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Ends episodes after a number of ticks, counted as done; 0 lets them run
+	 * until the player is caught or wins.
+	 *
+	 * @param ticks most ticks per episode, or 0 for no limit
+	 */
+	public void setMaxEpisodeTicks(int ticks) {
+		if (ticks < 0)
+			throw new IllegalArgumentException("Tick limit must not be negative: " + ticks);
+		maxEpisodeTicks = ticks;
+	}
+
+	/**
+	 * @return observations of every game, width x height bytes each; the
+	 *         same array after every step
+	 */
+	public byte[] getObservations() {
+		return observations;
+	}
+
+	/**
+	 * @return reward of the last step for every game: points gained over
+	 *         POINTS_PER_REWARD, plus LOSS_REWARD if caught
+	 */
+	public float[] getRewards() {
+		return rewards;
+	}
+
+	/**
+	 * @return for every game, true if its episode ended on the last step and
+	 *         a new one started
+	 */
+	public boolean[] getDones() {
+		return dones;
+	}
+
+	/**
+	 * @param index game index
+	 * @return the game, to render or inspect it between steps
+	 */
+	public Game getGame(int index) {
+		return games[index];
+	}
+
+	/**
+	 * @return number of games
+	 */
+	public int getCount() {
+		return games.length;
+	}
+
+	/**
+	 * @return width of every observation, in tiles
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return height of every observation, in tiles
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return number of worker threads
+	 */
+	public int getThreads() {
+		return shards.length;
+	}
+
+	/**
+	 * @return game ticks played since the environment was created
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * @return episodes ended since the environment was created
+	 */
+	public long getEpisodes() {
+		return episodes;
+	}
+
+	/**
+	 * @return game ticks per second over every step so far
+	 */
+	public double getStepsPerSecond() {
+		return totalNanos == 0 ? 0 : steps * 1e9 / totalNanos;
+	}
+
+	/**
+	 * Stops the worker threads. The environment can still step on the calling
+	 * thread afterwards only if it has a single worker.
+	 */
+	public void shutdown() {
+		if (pool != null)
+			pool.shutdownNow();
+	}
+
+	/**
+	 * A contiguous range of games stepped by one worker, with its own fresh
+	 * game to start episodes from.
+	 */
+	private final class Shard implements Callable<Integer> {
+
+		final Game start;
+		final int from;
+		final int to;
+		int finished; // episodios terminados en el paso
+		int offset; // primera casilla del juego que se observa
+		Game observed;
+
+		final IceMapListener changes = new IceMapListener() {
+			@Override
+			public void tileChanged(int x, int y, byte oldState, byte newState, long version) {
+				int cell = offset + y * width + x;
+				observations[cell] = (byte) (observations[cell] & ENTITY_FLAGS | newState);
+			}
+
+			@Override
+			public void mapReset(long version) {
+				IceMap map = observed.getMap();
+				for (int y = 0; y < height; y++) {
+					for (int x = 0; x < width; x++) {
+						int cell = offset + y * width + x;
+						observations[cell] = (byte) (observations[cell] & ENTITY_FLAGS | map.getCellState(x, y));
+					}
+				}
+			}
+		};
+
+		Shard(Game start, int from, int to) {
+			this.start = start;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public Integer call() {
+			for (int i = from; i < to; i++) {
+				Game game = games[i];
+				int score = game.getGameState().getScore();
+				MctsBot.playTick(game, 0, actions[i]);
+				episodeTicks[i]++;
+				float reward = (game.getGameState().getScore() - score) / (float) POINTS_PER_REWARD;
+				if (game.isGameOver())
+					reward += LOSS_REWARD;
+				boolean done = game.isGameOver() || game.isGameWon()
+						|| maxEpisodeTicks > 0 && episodeTicks[i] >= maxEpisodeTicks;
+				if (done) {
+					startEpisode(i);
+					finished++;
+				}
+				rewards[i] = reward;
+				dones[i] = done;
+				observe(i);
+			}
+			return finished;
+		}
+
+		/**
+		 * Puts a game back at the start of the level with a new seed.
+		 */
+		void startEpisode(int i) {
+			start.copyInto(games[i]);
+			games[i].setSeed(seeds[i].nextLong());
+			episodeTicks[i] = 0;
+		}
+
+		/**
+		 * Brings the observation of a game up to date: the tiles in the map's
+		 * journal, then the flags of players, enemies and fruits.
+		 */
+		void observe(int i) {
+			Game game = games[i];
+			IceMap map = game.getMap();
+			offset = i * width * height;
+			observed = game;
+			if (map != observedMaps[i]) {
+				observedMaps[i] = map;
+				changes.mapReset(map.getVersion());
+				versions[i] = map.getVersion();
+			} else {
+				versions[i] = map.drainChanges(versions[i], changes);
+			}
+
+			int[] cells = marks[i];
+			for (int k = 0; k < markCounts[i]; k++) {
+				observations[cells[k]] &= ~ENTITY_FLAGS;
+			}
+			int needed = game.getPlayers().size() + game.getEnemies().size() + game.getFruits().size();
+			if (cells == null || cells.length < needed) {
+				cells = new int[needed];
+				marks[i] = cells;
+			}
+			int count = 0;
+			for (Player player : game.getPlayers()) {
+				count = mark(cells, count, player.getColumn(), player.getRow(), OBS_PLAYER);
+			}
+			for (Enemy enemy : game.getEnemies()) {
+				count = mark(cells, count, enemy.getColumn(), enemy.getRow(), OBS_ENEMY);
+			}
+			for (Fruit fruit : game.getFruits()) {
+				if (!fruit.isCollected())
+					count = mark(cells, count, fruit.getColumn(), fruit.getRow(), OBS_FRUIT);
+			}
+			markCounts[i] = count;
+			observed = null;
+		}
+
+		private int mark(int[] cells, int count, int x, int y, byte flag) {
+			if (x < 0 || x >= width || y < 0 || y >= height)
+				return count;
+			int cell = offset + y * width + x;
+			observations[cell] |= flag;
+			cells[count] = cell;
+			return count + 1;
+		}
+	}
+}
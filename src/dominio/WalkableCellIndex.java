@@ -0,0 +1,85 @@
+package dominio;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Indexed set of the walkable tiles of a map. Tiles are packed in a dense array
+ * and every tile remembers its slot, so adding, removing and drawing a uniform
+ * random tile all take constant time.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+class WalkableCellIndex {
+
+	private static final int ABSENT = -1;
+
+	private final int width;
+	private int[] cells; // casillas caminables empaquetadas
+	private int size;
+	private final int[] slots; // posición de cada casilla en cells
+
+	/**
+	 * Creates an empty index for a map of the given size.
+	 *
+	 * @param width  number of columns
+	 * @param height number of rows
+	 */
+	WalkableCellIndex(int width, int height) {
+		this.width = width;
+		cells = new int[16];
+		slots = new int[Math.multiplyExact(width, height)];
+		Arrays.fill(slots, ABSENT);
+	}
+
+	/**
+	 * Adds or removes a tile so that the index matches its walkability.
+	 */
+	void update(int x, int y, boolean walkable) {
+		int cell = y * width + x;
+		if (walkable && slots[cell] == ABSENT) {
+			if (size == cells.length) {
+				cells = Arrays.copyOf(cells, size * 2);
+			}
+			cells[size] = cell;
+			slots[cell] = size++;
+		} else if (!walkable && slots[cell] != ABSENT) {
+			// Mover la última casilla al hueco que queda libre
+			int slot = slots[cell];
+			int last = cells[--size];
+			cells[slot] = last;
+			slots[last] = slot;
+			slots[cell] = ABSENT;
+		}
+	}
+
+	/**
+	 * @return a uniformly chosen walkable tile as y * width + x, or -1 if none
+	 */
+	int random(Random random) {
+		return size == 0 ? -1 : cells[random.nextInt(size)];
+	}
+
+	/**
+	 * @return number of walkable tiles
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Makes this index an exact copy of another one of the same map size,
+	 * slot order included, so both draw the same tiles from the same random
+	 * numbers.
+	 *
+	 * @param other index to copy
+	 */
+	void copyFrom(WalkableCellIndex other) {
+		if (cells.length < other.size) {
+			cells = new int[other.cells.length];
+		}
+		System.arraycopy(other.cells, 0, cells, 0, other.size);
+		System.arraycopy(other.slots, 0, slots, 0, slots.length);
+		size = other.size;
+	}
+}
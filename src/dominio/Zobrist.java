@@ -0,0 +1,59 @@
+package dominio;
+
+/**
+ * Keys of the Zobrist hash of a game (see {@link Game#getStateHash()}). The
+ * keys are not kept in tables: each one is drawn when needed by mixing the
+ * kind of feature with its values through the SplitMix64 finalizer, so boards
+ * of any size cost no memory and every run of the program gets the same keys.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+final class Zobrist {
+
+	/** Kind of the keys of the tile flags; the flag is added to it. */
+	static final long TILE = 0x100;
+	/** Kind of the keys of the firepits. */
+	static final long FIREPIT = 0x200;
+	/** Kind of the keys of the players. */
+	static final long PLAYER = 0x300;
+	/** Kind of the keys of the enemies; the type name is added to it. */
+	static final long ENEMY = 0x400;
+	/** Kind of the keys of the fruits; the type name is added to it. */
+	static final long FRUIT = 0x500;
+	/** Kind of the key of the end of the game. */
+	static final long STATUS = 0x600;
+
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	private Zobrist() {
+	}
+
+	/**
+	 * Draws the key of a feature.
+	 *
+	 * @param kind kind of feature, or the key of a feature this one extends
+	 * @param a    first value
+	 * @param b    second value
+	 * @return the key, the same on every call
+	 */
+	static long key(long kind, long a, long b) {
+		return mix(mix(kind * GOLDEN + a) + b * GOLDEN);
+	}
+
+	/**
+	 * Packs two ints, such as a row and a column, in one value.
+	 */
+	static long pack(int high, int low) {
+		return ((long) high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Finalizer of SplitMix64: a bijection that spreads every input bit over
+	 * the whole output.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
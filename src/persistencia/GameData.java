@@ -31,6 +31,8 @@ public class GameData implements Serializable {
     private int mapWidth;
     private int mapHeight;
     private boolean[][] iceGrid;
+    private byte[] mapData; // mapa codificado con MapCodec
+    private String mapFile; // archivo aparte con el mapa fuera del heap, o null
     
     // Enemies data
     private List<EnemyData> enemies;
@@ -84,6 +86,12 @@ public class GameData implements Serializable {
     public boolean[][] getIceGrid() { return iceGrid; }
     public void setIceGrid(boolean[][] iceGrid) { this.iceGrid = iceGrid; }
     
+    public byte[] getMapData() { return mapData; }
+    public void setMapData(byte[] mapData) { this.mapData = mapData; }
+    
+    public String getMapFile() { return mapFile; }
+    public void setMapFile(String mapFile) { this.mapFile = mapFile; }
+    
     public List<EnemyData> getEnemies() { return enemies; }
     public void setEnemies(List<EnemyData> enemies) { this.enemies = enemies; }
     
@@ -2,6 +2,8 @@ package persistencia;
 
 import dominio.*;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -42,12 +44,25 @@ public class GameLoader {
             game.setPlayer(player);
             
             // Restaurar mapa
-            IceMap map = new IceMap(data.getMapWidth(), data.getMapHeight());
-            boolean[][] iceGrid = data.getIceGrid();
-            for (int y = 0; y < data.getMapHeight(); y++) {
-                for (int x = 0; x < data.getMapWidth(); x++) {
-                    if (iceGrid[y][x]) {
-                        map.toggleIce(x, y);
+            IceMap map;
+            if (data.getMapFile() != null) {
+                // Mapa fuera del heap: se lee de un solo bloque
+                try (FileChannel channel = FileChannel.open(
+                        new File(SAVE_DIRECTORY + data.getMapFile()).toPath(), StandardOpenOption.READ)) {
+                    map = IceMap.readFrom(channel);
+                }
+            } else if (data.getMapData() != null) {
+                map = MapCodec.decode(data.getMapData());
+            } else {
+                // Partidas guardadas antes del formato compacto
+                map = new IceMap(data.getMapWidth(), data.getMapHeight());
+                boolean[][] iceGrid = data.getIceGrid();
+                for (int y = 0; y < data.getMapHeight(); y++) {
+                    for (int x = 0; x < data.getMapWidth(); x++) {
+                        // El mapa nuevo ya trae los bordes: solo se cambia lo distinto
+                        if (iceGrid[y][x] != map.hasIce(x, y)) {
+                            map.toggleIce(x, y);
+                        }
                     }
                 }
             }
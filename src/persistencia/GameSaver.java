@@ -2,6 +2,8 @@ package persistencia;
 
 import dominio.*;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Handles saving game state to a file.
@@ -13,6 +15,7 @@ public class GameSaver {
     
     private static final String SAVE_DIRECTORY = "saves/";
     private static final String FILE_EXTENSION = ".poob";
+    private static final String MAP_EXTENSION = ".icemap";
     
     /**
      * Saves the current game state to a file.
@@ -50,14 +53,19 @@ public class GameSaver {
             data.setMapWidth(map.getWidth());
             data.setMapHeight(map.getHeight());
             
-            // Copiar el grid de hielo
-            boolean[][] iceGrid = new boolean[map.getHeight()][map.getWidth()];
-            for (int y = 0; y < map.getHeight(); y++) {
-                for (int x = 0; x < map.getWidth(); x++) {
-                    iceGrid[y][x] = map.hasIce(x, y);
+            if (map.isOffHeap()) {
+                // El mapa fuera del heap se escribe aparte de un solo bloque
+                String mapFile = fileName + MAP_EXTENSION;
+                try (FileChannel channel = FileChannel.open(new File(SAVE_DIRECTORY + mapFile).toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    map.writeTo(channel);
                 }
+                data.setMapFile(mapFile);
+            } else {
+                // Hielo y obstáculos en formato compacto
+                data.setMapData(MapCodec.encode(map));
             }
-            data.setIceGrid(iceGrid);
             
             // Guardar enemigos
             for (Enemy enemy : game.getEnemies()) {
@@ -140,6 +148,7 @@ public class GameSaver {
      */
     public static boolean deleteSave(String fileName) {
         File file = new File(SAVE_DIRECTORY + fileName + FILE_EXTENSION);
+        new File(SAVE_DIRECTORY + fileName + MAP_EXTENSION).delete();
         return file.delete();
     }
 }
\ No newline at end of file
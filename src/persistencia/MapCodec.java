@@ -0,0 +1,343 @@
+package persistencia;
+
+import dominio.*;
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of an IceMap, shared by saves, replays and network
+ * sync. The ice layer is read row by row as one stream of bits and written as
+ * run-length tokens for long runs (empty floor, walls) and bit-packed literals
+ * for the short, noisy stretches in between. Obstacles are few, so they are
+ * written as lists of variable-length integers. Both directions are
+ * streaming: the map is never copied to an intermediate grid.
+ *
+ * Token layout, as unsigned varints: a run is (length << 2 | value << 1), and
+ * a literal is (bitCount << 1 | 1) followed by its bits packed eight per byte.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class MapCodec {
+
+    private static final int MAGIC = 0x49434443; // "ICDC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MIN_RUN = 16; // las corridas más cortas van en literales
+    private static final int MAX_LITERAL_BITS = 4096;
+
+    /**
+     * Encodes a map into a byte array.
+     *
+     * @param map the map to encode
+     * @return encoded bytes
+     */
+    public static byte[] encode(IceMap map) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            encode(map, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // no ocurre en memoria
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a map from a byte array.
+     *
+     * @param data encoded bytes
+     * @return the decoded map
+     * @throws IOException if the data is not a valid map
+     */
+    public static IceMap decode(byte[] data) throws IOException {
+        return decode(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Writes a map to a stream.
+     *
+     * @param map the map to encode
+     * @param out destination stream
+     * @throws IOException if the stream fails
+     */
+    public static void encode(IceMap map, OutputStream out) throws IOException {
+        writeInt(out, MAGIC);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, map.getWidth());
+        writeVarint(out, map.getHeight());
+
+        // Capa de hielo: corridas alternas recorriendo fila por fila
+        RunWriter runs = new RunWriter(out);
+        for (int y = 0; y < map.getHeight(); y++) {
+            int x = 0;
+            while (x < map.getWidth()) {
+                if (map.hasIce(x, y)) {
+                    int start = x;
+                    while (x < map.getWidth() && map.hasIce(x, y)) {
+                        x++;
+                    }
+                    runs.append(true, x - start);
+                } else {
+                    int free = map.nextIceAlong(x, y, 1, 0);
+                    int length = free < 0 ? map.getWidth() - x : free;
+                    runs.append(false, length);
+                    x += length;
+                }
+            }
+        }
+        runs.finish();
+
+        // Obstáculos
+        writeVarint(out, map.getIgloos().size());
+        for (Igloo igloo : map.getIgloos()) {
+            writeSigned(out, igloo.getRow());
+            writeSigned(out, igloo.getColumn());
+            writeVarint(out, igloo.getWidth());
+            writeVarint(out, igloo.getHeight());
+        }
+        writeVarint(out, map.getHotTiles().size());
+        for (HotTile hotTile : map.getHotTiles()) {
+            writeSigned(out, hotTile.getRow());
+            writeSigned(out, hotTile.getColumn());
+        }
+        writeVarint(out, map.getFirepits().size());
+        for (Firepit firepit : map.getFirepits()) {
+            writeSigned(out, firepit.getRow());
+            writeSigned(out, firepit.getColumn());
+            out.write(firepit.isLit() ? 1 : 0);
+            writeVarint(out, firepit.getExtinguishTimer());
+        }
+    }
+
+    /**
+     * Reads a map from a stream.
+     *
+     * @param in source stream
+     * @return the decoded map
+     * @throws IOException if the stream fails or does not hold a valid map
+     */
+    public static IceMap decode(InputStream in) throws IOException {
+        if (readInt(in) != MAGIC) {
+            throw new IOException("Los datos no contienen un mapa");
+        }
+        int version = readByte(in);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Versión de mapa no soportada: " + version);
+        }
+        int width = (int) readVarint(in);
+        int height = (int) readVarint(in);
+        if (width <= 0 || height <= 0) {
+            throw new IOException("Tamaño de mapa inválido: " + width + "x" + height);
+        }
+
+        IceMapBuilder builder = new IceMapBuilder(width, height);
+        long total = (long) width * height;
+        long position = 0;
+        while (position < total) {
+            long token = readVarint(in);
+            if ((token & 1) == 0) {
+                long length = token >>> 2;
+                if (length == 0 || position + length > total) {
+                    throw new IOException("Corrida inválida en el mapa");
+                }
+                applyRun(builder, width, position, length, (token & 2) != 0);
+                position += length;
+            } else {
+                long bits = token >>> 1;
+                if (bits == 0 || position + bits > total) {
+                    throw new IOException("Literal inválido en el mapa");
+                }
+                position = readLiteral(in, builder, width, position, (int) bits);
+            }
+        }
+
+        int igloos = readCount(in);
+        for (int i = 0; i < igloos; i++) {
+            int row = readSigned(in);
+            int column = readSigned(in);
+            builder.addIgloo(new Igloo(row, column, (int) readVarint(in), (int) readVarint(in)));
+        }
+        int hotTiles = readCount(in);
+        for (int i = 0; i < hotTiles; i++) {
+            builder.addHotTile(new HotTile(readSigned(in), readSigned(in)));
+        }
+        // Las fogatas pueden haber quedado bajo hielo
+        int firepits = readCount(in);
+        for (int i = 0; i < firepits; i++) {
+            int row = readSigned(in);
+            int column = readSigned(in);
+            boolean lit = readByte(in) != 0;
+            builder.restoreFirepit(new Firepit(row, column, lit, (int) readVarint(in)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Applies a run of tiles, split in row segments, to the builder.
+     */
+    private static void applyRun(IceMapBuilder builder, int width, long position, long length, boolean ice) {
+        while (length > 0) {
+            int y = (int) (position / width);
+            int x = (int) (position % width);
+            int count = (int) Math.min(length, width - x);
+            if (ice) {
+                builder.addIceRect(x, y, count, 1);
+            } else {
+                builder.clearIceRect(x, y, count, 1);
+            }
+            position += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Reads a literal and applies it as runs.
+     *
+     * @return position after the literal
+     */
+    private static long readLiteral(InputStream in, IceMapBuilder builder, int width, long position, int bits)
+            throws IOException {
+        boolean value = false;
+        int runLength = 0;
+        int current = 0;
+        for (int i = 0; i < bits; i++) {
+            if ((i & 7) == 0) {
+                current = readByte(in);
+            }
+            boolean bit = (current & (1 << (i & 7))) != 0;
+            if (runLength > 0 && bit != value) {
+                applyRun(builder, width, position, runLength, value);
+                position += runLength;
+                runLength = 0;
+            }
+            value = bit;
+            runLength++;
+        }
+        applyRun(builder, width, position, runLength, value);
+        return position + runLength;
+    }
+
+    /**
+     * Merges consecutive runs of the same value and decides whether each one is
+     * written as a run token or packed into the current literal.
+     */
+    private static class RunWriter {
+
+        private final OutputStream out;
+        private boolean runValue;
+        private long runLength;
+        private final byte[] literal = new byte[MAX_LITERAL_BITS / 8];
+        private int literalBits;
+
+        RunWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void append(boolean value, long length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            if (runLength > 0 && value == runValue) {
+                runLength += length;
+                return;
+            }
+            flushRun();
+            runValue = value;
+            runLength = length;
+        }
+
+        void finish() throws IOException {
+            flushRun();
+            flushLiteral();
+        }
+
+        private void flushRun() throws IOException {
+            if (runLength == 0) {
+                return;
+            }
+            if (runLength >= MIN_RUN) {
+                flushLiteral();
+                writeVarint(out, runLength << 2 | (runValue ? 2 : 0));
+            } else {
+                for (int i = 0; i < runLength; i++) {
+                    if (literalBits == MAX_LITERAL_BITS) {
+                        flushLiteral();
+                    }
+                    if (runValue) {
+                        literal[literalBits >>> 3] |= 1 << (literalBits & 7);
+                    }
+                    literalBits++;
+                }
+            }
+            runLength = 0;
+        }
+
+        private void flushLiteral() throws IOException {
+            if (literalBits == 0) {
+                return;
+            }
+            writeVarint(out, (long) literalBits << 1 | 1);
+            int bytes = (literalBits + 7) >>> 3;
+            out.write(literal, 0, bytes);
+            Arrays.fill(literal, 0, bytes, (byte) 0);
+            literalBits = 0;
+        }
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeSigned(OutputStream out, int value) throws IOException {
+        writeVarint(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(value >>> shift);
+        }
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Entero demasiado largo en el mapa");
+    }
+
+    private static int readSigned(InputStream in) throws IOException {
+        int raw = (int) readVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static int readCount(InputStream in) throws IOException {
+        long count = readVarint(in);
+        if (count > Integer.MAX_VALUE) {
+            throw new IOException("Lista de obstáculos inválida");
+        }
+        return (int) count;
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | readByte(in);
+        }
+        return value;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Los datos del mapa están incompletos");
+        }
+        return b;
+    }
+}
@@ -15,6 +15,9 @@ public class BoardPanel extends JPanel {
 
 	private Game game;
 	private static final int CELL_SIZE = 40; // Tamaño de cada celda en píxeles
+	private static final int DANGER_HORIZON = 12; // Ticks desde los que una casilla ya no se tiñe
+
+	private boolean dangerOverlay; // Tiñe las casillas según la llegada de los enemigos
 
 	private BufferedImage backgroundImg;
 	private BufferedImage vanillaImg, strawberryImg, chocolateImg;
@@ -103,6 +106,8 @@ public class BoardPanel extends JPanel {
 		drawFirepits(g);
 		drawMap(g);
 		drawIgloos(g);
+		if (dangerOverlay)
+			drawDanger(g);
 		drawFruits(g);
 		drawEnemies(g);
 		drawPlayers(g);
@@ -337,6 +342,23 @@ public class BoardPanel extends JPanel {
 		}
 	}
 
+	/**
+	 * Tints every tile an enemy can reach soon, redder the sooner it arrives.
+	 */
+	private void drawDanger(Graphics g) {
+		DangerMap danger = game.getDangerMap();
+		for (int y = 0; y < danger.getHeight(); y++) {
+			for (int x = 0; x < danger.getWidth(); x++) {
+				int ticks = danger.getArrivalTick(x, y);
+				if (ticks == DangerMap.SAFE || ticks >= DANGER_HORIZON)
+					continue;
+				int alpha = 150 * (DANGER_HORIZON - ticks) / DANGER_HORIZON;
+				g.setColor(new Color(231, 76, 60, alpha));
+				g.fillRect(x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+			}
+		}
+	}
+
 	/**
 	 * Draws all enemies on the board.
 	 */
@@ -440,6 +462,23 @@ public class BoardPanel extends JPanel {
 		}
 	}
 
+	/**
+	 * Shows or hides the tint of the tiles enemies can reach soon.
+	 * 
+	 * @param show true to draw the danger overlay
+	 */
+	public void setDangerOverlay(boolean show) {
+		dangerOverlay = show;
+		repaint();
+	}
+
+	/**
+	 * @return true if the danger overlay is drawn
+	 */
+	public boolean isDangerOverlay() {
+		return dangerOverlay;
+	}
+
 	/**
 	 * Forces a redraw of the board. Call this after game state changes.
 	 */
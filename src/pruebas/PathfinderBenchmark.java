@@ -0,0 +1,85 @@
+package pruebas;
+
+import dominio.*;
+import java.util.Random;
+
+/**
+ * Compares the pathfinders on sparsely iced boards of the sizes used by the
+ * game, from the 20x15 levels to 4000x4000 procedural boards. Not a unit test:
+ * run it with main and a large enough heap (-Xmx3g for the largest board).
+ * 
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class PathfinderBenchmark {
+
+	private static final int[][] SIZES = { { 20, 15 }, { 200, 200 }, { 1000, 1000 }, { 4000, 4000 } };
+	private static final double ICE_DENSITY = 0.02;
+	private static final long TIME_PER_RUN = 2_000_000_000L; // 2 s por pathfinder y tamaño
+
+	public static void main(String[] args) {
+		System.out.printf("%-10s %-12s %10s %12s %12s%n", "board", "pathfinder", "queries/s", "ms/query", "expanded");
+		for (int[] size : SIZES) {
+			IceMap map = buildBoard(size[0], size[1], new Random(42));
+			run(map, "A*", new AStarPathfinder());
+			run(map, "JPS", new JumpPointPathfinder());
+			run(map, "HPA*", new HierarchicalPathfinder());
+		}
+	}
+
+	/**
+	 * Random ice plus a few long walls, like the procedural boards.
+	 */
+	private static IceMap buildBoard(int width, int height, Random random) {
+		IceMapBuilder builder = new IceMapBuilder(width, height);
+		long iceTiles = (long) (width * (long) height * ICE_DENSITY);
+		for (long i = 0; i < iceTiles; i++) {
+			builder.addIce(1 + random.nextInt(width - 2), 1 + random.nextInt(height - 2));
+		}
+		for (int i = 0; i < (width + height) / 20; i++) {
+			int length = 1 + random.nextInt(Math.max(1, Math.min(width, height) / 4));
+			if (random.nextBoolean()) {
+				int x = 1 + random.nextInt(width - 2);
+				int y = 1 + random.nextInt(height - 1 - Math.min(length, height - 2));
+				builder.addIceLine(x, y, 0, 1, Math.min(length, height - 1 - y));
+			} else {
+				int x = 1 + random.nextInt(width - 1 - Math.min(length, width - 2));
+				int y = 1 + random.nextInt(height - 2);
+				builder.addIceLine(x, y, 1, 0, Math.min(length, width - 1 - x));
+			}
+		}
+		return builder.build();
+	}
+
+	private static void run(IceMap map, String name, Pathfinder pathfinder) {
+		Random random = new Random(7);
+		int[] queries = new int[4096];
+		for (int i = 0; i < queries.length; i += 4) {
+			// Extremos caminables escogidos al azar en todo el tablero
+			int cell = map.randomWalkableCell(random);
+			queries[i] = cell % map.getWidth();
+			queries[i + 1] = cell / map.getWidth();
+			cell = map.randomWalkableCell(random);
+			queries[i + 2] = cell % map.getWidth();
+			queries[i + 3] = cell / map.getWidth();
+		}
+
+		// Calentamiento del compilador
+		long end = System.nanoTime() + TIME_PER_RUN / 4;
+		for (int i = 0; System.nanoTime() < end; i = (i + 4) % queries.length) {
+			pathfinder.findPath(map, queries[i], queries[i + 1], queries[i + 2], queries[i + 3]);
+		}
+
+		long count = 0;
+		long expanded = 0;
+		long start = System.nanoTime();
+		end = start + TIME_PER_RUN;
+		for (int i = 0; System.nanoTime() < end; i = (i + 4) % queries.length) {
+			pathfinder.findPath(map, queries[i], queries[i + 1], queries[i + 2], queries[i + 3]);
+			expanded += pathfinder.getExpandedCount();
+			count++;
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-10s %-12s %10.0f %12.3f %12d%n", map.getWidth() + "x" + map.getHeight(), name,
+				count / seconds, seconds * 1000 / count, expanded / count);
+	}
+}
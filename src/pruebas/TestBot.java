@@ -0,0 +1,105 @@
+package pruebas;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import dominio.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for the computer-controlled players.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class TestBot {
+
+	/**
+	 * Builds a game on an open board with one player at (row, column), the
+	 * given enemies and a far banana, out of two fruits of the level.
+	 */
+	private Game openGame(int row, int column, List<Enemy> enemies) {
+		Game game = new Game(1);
+		game.setMap(new IceMapBuilder(20, 15).build());
+		game.setPlayer(new Player(row, column));
+		game.setEnemies(enemies);
+		List<Fruit> fruits = new ArrayList<>();
+		fruits.add(new Banana(12, 15));
+		game.setFruits(fruits);
+		game.setGameState(new GameState(1, 2));
+		return game;
+	}
+
+	/**
+	 * Test 1: The MCTS bot takes a fruit next to it
+	 */
+	@Test
+	public void testMctsBotTakesNearFruit() {
+		Game game = openGame(5, 5, new ArrayList<>());
+		game.getFruits().add(new Banana(5, 6));
+		MctsBot bot = new MctsBot(1000, 1);
+		bot.setIterationLimit(2000);
+
+		assertEquals(PlayerAction.MOVE_RIGHT, bot.play(game, 0), "El bot debe ir por la fruta");
+		assertEquals(100, game.getGameState().getScore(), "La fruta debe quedar recogida");
+		assertEquals(2000, bot.getLastRollouts(), "Deben contarse los rollouts");
+		assertTrue(bot.getLastRolloutsPerSecond() > 0, "Debe medirse el rendimiento");
+	}
+
+	/**
+	 * Test 2: The MCTS bot is not caught by a Pot chasing it
+	 */
+	@Test
+	public void testMctsBotEscapesPot() {
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(new Pot(7, 7));
+		Game game = openGame(7, 4, enemies);
+		MctsBot bot = new MctsBot(1000, 2);
+		bot.setIterationLimit(500);
+
+		for (int i = 0; i < 40; i++) {
+			bot.play(game, 0);
+			game.updateEnemies();
+			game.updateFruits();
+		}
+		bot.shutdown();
+		assertFalse(game.isGameOver(), "El bot no debe dejarse atrapar");
+		assertEquals(40 * 2 * 500, bot.getTotalRollouts(), "Cada hilo debe hacer sus rollouts");
+	}
+
+	/**
+	 * Test 3: The search bot takes a fruit next to it and reports its depth
+	 */
+	@Test
+	public void testSearchBotTakesNearFruit() {
+		Game game = openGame(5, 5, new ArrayList<>());
+		game.getFruits().add(new Banana(5, 6));
+		SearchBot bot = new SearchBot(1000);
+		bot.setMaxDepth(3);
+
+		assertEquals(PlayerAction.MOVE_RIGHT, bot.play(game, 0), "El bot debe ir por la fruta");
+		assertEquals(100, game.getGameState().getScore(), "La fruta debe quedar recogida");
+		assertEquals(3, bot.getLastDepth(), "La búsqueda debe llegar a la profundidad pedida");
+		assertTrue(bot.getLastNodes() > 0, "Deben contarse los nodos");
+		assertTrue(bot.getLastNodesPerSecond() > 0, "Debe medirse el rendimiento");
+	}
+
+	/**
+	 * Test 4: The search bot is not caught by a Pot chasing it
+	 */
+	@Test
+	public void testSearchBotEscapesPot() {
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(new Pot(7, 7));
+		Game game = openGame(7, 4, enemies);
+		SearchBot bot = new SearchBot(1000);
+		bot.setMaxDepth(4);
+
+		for (int i = 0; i < 40; i++) {
+			bot.play(game, 0);
+			game.updateEnemies();
+			game.updateFruits();
+		}
+		assertFalse(game.isGameOver(), "El bot no debe dejarse atrapar");
+		assertEquals(4, bot.getLastDepth(), "Cada decisión debe completar su profundidad");
+	}
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import dominio.*;
 import dominio.Character;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Unit tests for Enemy classes. Tests Troll, Pot, and OrangeSquid enemy types.
@@ -274,4 +276,261 @@ public class TestEnemy {
 		assertNotNull(game.getEnemies(), "Game debe tener lista de enemigos");
 		assertTrue(game.getEnemies().size() > 0, "Game debe tener al menos un enemigo en nivel 1");
 	}
+
+	/**
+	 * Test 21: Pot walks around a concave ice wall instead of getting stuck
+	 */
+	@Test
+	public void testPotGoesAroundConcaveWall() {
+		// Pared en forma de U abierta hacia la izquierda, con el Pot adentro
+		IceMap map = new IceMapBuilder(20, 15).addIceLine(9, 4, 0, 1, 7).addIceLine(4, 4, 1, 0, 5)
+				.addIceLine(4, 10, 1, 0, 5).build();
+		game.setMap(map);
+		Player player = new Player(7, 15);
+		game.setPlayer(player);
+		Pot trapped = new Pot(7, 7);
+
+		int steps = game.getChaseField().getDistance(7, 7);
+		assertTrue(steps > 8, "El camino debe rodear la pared");
+		for (int i = 0; i < steps; i++) {
+			trapped.update(game);
+		}
+
+		assertEquals(player.getRow(), trapped.getRow(), "Pot debe alcanzar la fila del jugador");
+		assertEquals(player.getColumn(), trapped.getColumn(), "Pot debe alcanzar la columna del jugador");
+	}
+
+	/**
+	 * Test 22: OrangeSquid breaks through a wall only when it is faster than going around
+	 */
+	@Test
+	public void testSquidTakesFastestRoute() {
+		Player player = new Player(7, 15);
+		game.setPlayer(player);
+
+		// Pared de borde a borde: hay que romperla (10 ticks) y cruzar
+		IceMap wall = new IceMapBuilder(20, 15).addIceLine(9, 1, 0, 1, 13).build();
+		game.setMap(wall);
+		OrangeSquid digger = new OrangeSquid(7, 5);
+		for (int i = 0; i < 20; i++) {
+			digger.update(game);
+		}
+		assertEquals(15, digger.getColumn(), "Squid debe cruzar la pared rompiendo el hielo");
+		assertFalse(wall.hasIce(9, 7), "Squid debe romper el hielo del camino");
+
+		// Pared corta: rodearla es más rápido que romperla
+		IceMap shortWall = new IceMapBuilder(20, 15).addIceLine(9, 5, 0, 1, 5).build();
+		game.setMap(shortWall);
+		OrangeSquid walker = new OrangeSquid(7, 5);
+		for (int i = 0; i < 20; i++) {
+			walker.update(game);
+		}
+		assertEquals(7, walker.getRow(), "Squid debe alcanzar la fila del jugador");
+		assertEquals(15, walker.getColumn(), "Squid debe rodear la pared");
+		assertTrue(shortWall.hasIce(9, 7), "Squid no debe romper el hielo si rodear es más rápido");
+	}
+
+	/**
+	 * Test 23: In two-player mode each Pot chases the player closest to it
+	 */
+	@Test
+	public void testPotChasesClosestPlayer() {
+		Game duo = new Game(1, true, "Vainilla", "Fresa");
+		duo.setMap(new IceMapBuilder(20, 15).build());
+		Player first = duo.getPlayers().get(0);
+		Player second = duo.getPlayers().get(1);
+		Pot nearFirst = new Pot(first.getRow() + 2, first.getColumn() + 1);
+		Pot nearSecond = new Pot(second.getRow() - 2, second.getColumn() - 1);
+
+		DistanceField field = duo.getChaseField();
+		assertEquals(0, field.getNearestTarget(nearFirst.getColumn(), nearFirst.getRow()), "El jugador 1 es el más cercano");
+		assertEquals(1, field.getNearestTarget(nearSecond.getColumn(), nearSecond.getRow()), "El jugador 2 es el más cercano");
+		for (int i = 0; i < 3; i++) {
+			nearFirst.update(duo);
+			nearSecond.update(duo);
+		}
+
+		assertEquals(first.getRow(), nearFirst.getRow(), "Pot debe alcanzar al jugador 1");
+		assertEquals(first.getColumn(), nearFirst.getColumn(), "Pot debe alcanzar al jugador 1");
+		assertEquals(second.getRow(), nearSecond.getRow(), "Pot debe alcanzar al jugador 2");
+		assertEquals(second.getColumn(), nearSecond.getColumn(), "Pot debe alcanzar al jugador 2");
+	}
+
+	/**
+	 * Test 24: A troll boxed in by ice keeps bouncing the same way while the
+	 * game lets it sleep, and leaves the pocket once it opens
+	 */
+	@Test
+	public void testBoxedTrollCycle() {
+		IceMap map = new IceMapBuilder(20, 15).addIce(3, 5).addIce(8, 5).build();
+		game.setMap(map);
+		game.setPlayer(new Player(12, 15));
+		Troll boxed = new Troll(5, 5);
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(boxed);
+		game.setEnemies(enemies);
+
+		// Entre el hielo de las columnas 3 y 8: da la vuelta en 7 y en 4
+		int[] columns = { 6, 7, 7, 6, 5, 4, 4, 5, 6, 7, 7, 6 };
+		for (int expected : columns) {
+			game.updateEnemies();
+			assertEquals(expected, boxed.getColumn(), "Troll debe seguir su ciclo");
+			assertEquals(5, boxed.getRow(), "Troll no debe salir de su fila");
+		}
+		assertEquals(-1, boxed.getDirectionColumn(), "Troll debe ir a la izquierda");
+
+		map.toggleIce(8, 5); // Abrir el lado derecho
+		for (int i = 0; i < 8; i++) {
+			game.updateEnemies();
+		}
+		assertEquals(9, boxed.getColumn(), "Troll debe salir por el hueco nuevo");
+	}
+
+	/**
+	 * Test 25: Far enemies are updated at a lower cadence and catch up
+	 */
+	@Test
+	public void testFarEnemiesCatchUp() {
+		game.setMap(new IceMapBuilder(60, 15).build());
+		game.setPlayer(new Player(12, 3));
+		game.setLevelOfDetail(1, new LevelOfDetail(5, 4, 4));
+		Troll far = new Troll(2, 10);
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(far);
+		game.setEnemies(enemies);
+
+		game.updateEnemies();
+		assertEquals(10, far.getColumn(), "Un enemigo lejano debe esperar su turno");
+		assertEquals(1, game.getTickMetrics().getLastDeferred(), "La espera debe contarse");
+		for (int i = 0; i < 3; i++) {
+			game.updateEnemies();
+		}
+		assertEquals(14, far.getColumn(), "En su turno debe recuperar los ticks perdidos");
+		assertEquals(4, game.getTickMetrics().getLastSteps(), "Los pasos de recuperación deben contarse");
+	}
+
+	/**
+	 * Test 26: Catch-up steps never walk through a player
+	 */
+	@Test
+	public void testCatchUpStopsAtPlayer() {
+		game.setMap(new IceMapBuilder(20, 15).build());
+		game.setPlayer(new Player(5, 3));
+		game.setLevelOfDetail(1, new LevelOfDetail(0, 4, 4));
+		Troll runner = new Troll(5, 1);
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(runner);
+		game.setEnemies(enemies);
+
+		for (int i = 0; i < 4; i++) {
+			game.updateEnemies();
+		}
+		assertTrue(game.isGameOver(), "El troll debe atrapar al jugador durante la recuperación");
+		assertEquals(3, runner.getColumn(), "El troll debe quedarse sobre el jugador");
+	}
+
+	/**
+	 * Test 27: The danger map tells when the first enemy can reach each tile
+	 * and follows the map when the ice changes
+	 */
+	@Test
+	public void testDangerMapArrivals() {
+		IceMap map = new IceMapBuilder(20, 15).addIce(6, 5).build();
+		game.setMap(map);
+		game.setPlayer(new Player(12, 15));
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(new Pot(5, 5));
+		enemies.add(new OrangeSquid(10, 10));
+		game.setEnemies(enemies);
+
+		DangerMap danger = game.getDangerMap();
+		assertEquals(0, danger.getArrivalTick(5, 5), "La casilla del Pot es alcanzada de inmediato");
+		assertEquals(4, danger.getArrivalTick(7, 5), "El Pot debe rodear el hielo");
+		// Solo el calamar entra al hielo: 8 pasos y 11 ticks para romperlo y entrar
+		assertEquals(19, danger.getArrivalTick(6, 5), "El calamar debe pagar el hielo");
+
+		map.toggleIce(6, 5);
+		danger = game.getDangerMap();
+		assertEquals(1, danger.getArrivalTick(6, 5), "La casilla abierta queda al lado del Pot");
+		assertEquals(2, danger.getArrivalTick(7, 5), "El Pot ya no debe rodear");
+
+		map.addIgloo(new Igloo(11, 14, 1, 1));
+		danger = game.getDangerMap();
+		assertEquals(DangerMap.SAFE, danger.getArrivalTick(14, 11), "Nadie entra a un iglú");
+	}
+
+	/**
+	 * Test 28: Ice broken by an enemy earlier in the same tick wakes a
+	 * sleeping troll before its turn, as in a plain update of every enemy
+	 */
+	@Test
+	public void testIceBrokenEarlierInTheTickWakesTroll() {
+		// La otra partida solo mueve al calamar, enemigo por enemigo
+		Game naive = new Game(1);
+		Enemy naiveSquid = squidThenTroll(naive).get(0);
+		List<Enemy> enemies = squidThenTroll(game);
+		Troll troll = (Troll) enemies.get(1);
+
+		// Troll de referencia: el paso normal, calculado a mano sobre el mapa de la otra partida
+		int column = 17;
+		int direction = 1;
+		for (int tick = 1; tick <= 16; tick++) {
+			game.updateEnemies();
+			naiveSquid.update(naive);
+			if (naive.getMap().isWalkable(column + direction, 7)) {
+				column += direction;
+			} else {
+				direction = -direction;
+			}
+			assertEquals(column, troll.getColumn(), "Columna del troll en el tick " + tick);
+			assertEquals(direction, troll.getDirectionColumn(), "Dirección del troll en el tick " + tick);
+		}
+		assertFalse(game.getMap().hasIce(10, 7), "El calamar debe romper la pared");
+		assertFalse(game.isGameOver(), "Nadie alcanza al jugador");
+	}
+
+	/**
+	 * Puts a wall at column 10, an OrangeSquid next to it and, after it in the
+	 * list, a troll walking right on the same row.
+	 */
+	private static List<Enemy> squidThenTroll(Game target) {
+		target.setMap(new IceMapBuilder(20, 15).addIceLine(10, 1, 0, 1, 13).build());
+		target.setPlayer(new Player(7, 1));
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(new OrangeSquid(7, 11));
+		enemies.add(new Troll(7, 17));
+		target.setEnemies(enemies);
+		return enemies;
+	}
+
+	/**
+	 * Test 29: A far troll asleep on its cycle waits for its turn like any
+	 * other enemy and then catches up along the cycle
+	 */
+	@Test
+	public void testSleepingTrollFollowsLevelOfDetail() {
+		game.setMap(new IceMapBuilder(60, 15).build());
+		game.setPlayer(new Player(12, 3));
+		game.setLevelOfDetail(1, new LevelOfDetail(5, 4, 4));
+		Troll far = new Troll(2, 10);
+		List<Enemy> enemies = new ArrayList<>();
+		enemies.add(far);
+		game.setEnemies(enemies);
+		for (int i = 0; i < 4; i++) {
+			game.updateEnemies();
+		}
+		assertEquals(14, far.getColumn(), "El primer turno lo deja dormido en su tramo");
+
+		int deferred = 0;
+		for (int i = 0; i < 4; i++) {
+			game.updateEnemies();
+			deferred += game.getTickMetrics().getLastDeferred();
+			if (i < 3)
+				assertEquals(14, far.getColumn(), "Dormido también espera su turno");
+		}
+		assertEquals(3, deferred, "Las esperas del troll dormido deben contarse");
+		assertEquals(1, game.getTickMetrics().getLastAsleep(), "En su turno avanza dormido");
+		assertEquals(4, game.getTickMetrics().getLastSteps(), "Recupera los ticks perdidos");
+		assertEquals(18, far.getColumn(), "Avanza lo mismo que despierto");
+	}
 }
\ No newline at end of file
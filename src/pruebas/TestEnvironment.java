@@ -0,0 +1,66 @@
+package pruebas;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import dominio.*;
+import java.util.Arrays;
+
+/**
+ * Unit tests for the vectorized training environment.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class TestEnvironment {
+
+	/**
+	 * Test 1: A step moves the player and writes where it stands in the
+	 * observation of its game
+	 */
+	@Test
+	public void testStepFillsObservations() {
+		VectorEnvironment env = new VectorEnvironment(4, 1, 1, 7);
+		int width = env.getWidth();
+		int size = width * env.getHeight();
+		assertEquals(4 * size, env.getObservations().length, "Un byte por casilla de cada juego");
+
+		Player player = env.getGame(2).getPlayer();
+		int row = player.getRow();
+		int column = player.getColumn();
+		int[] actions = new int[4];
+		Arrays.fill(actions, PlayerAction.STAY);
+		actions[2] = PlayerAction.MOVE_DOWN;
+		env.step(actions);
+
+		byte[] observations = env.getObservations();
+		assertEquals(row + 1, player.getRow(), "El jugador debe moverse");
+		assertEquals(0, observations[2 * size + row * width + column] & VectorEnvironment.OBS_PLAYER,
+				"La casilla anterior queda libre");
+		assertNotEquals(0, observations[2 * size + (row + 1) * width + column] & VectorEnvironment.OBS_PLAYER,
+				"La casilla nueva debe marcar al jugador");
+		assertNotEquals(0, observations[0] & IceMap.TILE_ICE, "El borde del mapa es hielo");
+		assertEquals(4, env.getSteps(), "Cada juego cuenta un paso");
+	}
+
+	/**
+	 * Test 2: Games that reach the tick limit are done and start again
+	 */
+	@Test
+	public void testEpisodesResetByThemselves() {
+		VectorEnvironment env = new VectorEnvironment(6, 1, 2, 7);
+		env.setMaxEpisodeTicks(3);
+		int[] actions = new int[6];
+		Arrays.fill(actions, PlayerAction.MOVE_DOWN);
+		Player player = env.getGame(5).getPlayer();
+		int row = player.getRow();
+
+		for (int i = 0; i < 3; i++) {
+			env.step(actions);
+		}
+		env.shutdown();
+		for (boolean done : env.getDones()) {
+			assertTrue(done, "Todos los episodios deben terminar");
+		}
+		assertEquals(6, env.getEpisodes(), "Debe contarse cada episodio");
+		assertEquals(row, env.getGame(5).getPlayer().getRow(), "El juego debe volver al inicio");
+	}
+}
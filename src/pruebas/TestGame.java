@@ -6,7 +6,7 @@ import org.junit.Test;
 import dominio.*;
 
 /**
- * 20 Pruebas unitarias esenciales para la clase Game.
+ * 25 Pruebas unitarias esenciales para la clase Game.
  * 
  * @authors Alejandra Beltran - Adrian Ducuara
  */
@@ -296,4 +296,136 @@ public class TestGame {
 		game.setPlayer(nuevoJugador);
 		assertEquals("El jugador debe cambiar", nuevoJugador, game.getPlayer());
 	}
+
+	// ========== PRUEBAS DEL MAPA ==========
+
+	/**
+	 * Prueba 21: Verificar que resetLevel reconstruye el hielo interno pero
+	 * mantiene abiertos los bordes rotos
+	 */
+	@Test
+	public void testResetLevelMantieneBordesRotos() {
+		game.getMap().toggleIce(0, 7);
+		game.getMap().toggleIce(3, 3);
+
+		game.resetLevel();
+
+		assertFalse("El borde roto debe seguir abierto", game.getMap().hasIce(0, 7));
+		assertTrue("El resto del borde debe seguir intacto", game.getMap().hasIce(0, 6));
+		assertTrue("El hielo interno del nivel debe volver", game.getMap().hasIce(3, 3));
+	}
+
+	/**
+	 * Prueba 22: Verificar que un tablero menor al diseño de los niveles se
+	 * rechaza
+	 */
+	@Test
+	public void testTableroPequenoSeRechaza() {
+		try {
+			new Game(2, false, "Vainilla", "Fresa", 19, 15);
+			fail("Un tablero de 19x15 debe rechazarse");
+		} catch (IllegalArgumentException e) {
+			// Esperado
+		}
+		Game grande = new Game(1, false, "Vainilla", "Fresa", 40, 30);
+		assertEquals("Un tablero mayor debe aceptarse", 40, grande.getMap().getWidth());
+	}
+
+	// ========== PRUEBAS DE COPIA ==========
+
+	/**
+	 * Prueba 23: Verificar que un juego copiado en otro juega exactamente igual
+	 * que el original, y que cambiar la copia no toca el original
+	 */
+	@Test
+	public void testJuegoCopiadoJuegaIgual() {
+		Game original = new Game(1, true, "Vainilla", "Fresa");
+		for (int i = 0; i < 30; i++) {
+			original.movePlayer(0, i % 2 == 0 ? 1 : -1, 0);
+			original.updateEnemies();
+			original.updateFruits();
+		}
+		Game copia = new Game(3);
+		original.copyInto(copia);
+
+		for (int i = 0; i < 40; i++) {
+			original.movePlayer(0, 0, i % 4 < 2 ? 1 : -1);
+			copia.movePlayer(0, 0, i % 4 < 2 ? 1 : -1);
+			original.updateEnemies();
+			copia.updateEnemies();
+			original.updateFruits();
+			copia.updateFruits();
+		}
+		assertEquals("La copia debe tener los mismos enemigos", original.getEnemies().size(), copia.getEnemies().size());
+		for (int i = 0; i < original.getEnemies().size(); i++) {
+			Enemy enemigo = original.getEnemies().get(i);
+			Enemy copiado = copia.getEnemies().get(i);
+			assertNotSame("Los enemigos no deben compartirse", enemigo, copiado);
+			assertEquals("La copia debe mover igual a los enemigos", enemigo.getRow(), copiado.getRow());
+			assertEquals("La copia debe mover igual a los enemigos", enemigo.getColumn(), copiado.getColumn());
+		}
+		assertEquals("El jugador debe seguir igual", original.getPlayer().getRow(), copia.getPlayer().getRow());
+		assertEquals("El puntaje debe seguir igual", original.getGameState().getScore(), copia.getGameState().getScore());
+		assertEquals("La copia debe tomar el nivel", 1, copia.getCurrentLevel());
+		assertEquals("La copia debe tomar los dos jugadores", 2, copia.getPlayers().size());
+
+		copia.getMap().toggleIce(1, 1);
+		assertTrue("La copia debe cambiar su propio mapa", copia.getMap().hasIce(1, 1));
+		assertFalse("El mapa original no debe cambiar", original.getMap().hasIce(1, 1));
+	}
+
+	// ========== PRUEBAS DEL HASH DE ESTADO ==========
+
+	/**
+	 * Prueba 24: Verificar que el hash mantenido coincide con el cálculo
+	 * completo mientras se juega, vuelve al deshacer un cambio y lo comparte
+	 * una copia
+	 */
+	@Test
+	public void testHashDeEstadoSigueAlJuego() {
+		Game partida = new Game(3, true, "Vainilla", "Fresa");
+		partida.setHashVerification(true);
+		for (int i = 0; i < 60; i++) {
+			if (i % 5 == 0) {
+				partida.playerShootIce(1, 0, i % 10 == 0 ? 1 : -1);
+			} else {
+				partida.movePlayer(0, i % 8 < 4 ? 1 : -1, 0);
+			}
+			partida.updateEnemies();
+			partida.updateFruits();
+			assertEquals("El hash debe coincidir con el cálculo completo", partida.computeStateHash(),
+					partida.getStateHash());
+		}
+
+		long antes = partida.getStateHash();
+		assertTrue("Debe poder ponerse hielo", partida.getMap().toggleIce(1, 1));
+		assertNotEquals("El hielo debe cambiar el hash", antes, partida.getStateHash());
+		partida.getMap().toggleIce(1, 1);
+		assertEquals("Quitar el hielo debe devolver el hash", antes, partida.getStateHash());
+
+		Game copia = new Game(1);
+		partida.copyInto(copia);
+		assertEquals("La copia debe tener el mismo hash", antes, copia.getStateHash());
+	}
+
+	/**
+	 * Prueba 25: Verificar que los niveles sin diseño propio ponen sus enemigos
+	 * y frutas al azar solo en casillas caminables
+	 */
+	@Test
+	public void testNivelesAdicionalesUsanCasillasLibres() {
+		Game nivel4 = new Game(4);
+		IceMap map = nivel4.getMap();
+		assertEquals("El nivel 4 debe tener 11 frutas", 11, nivel4.getFruits().size());
+		assertEquals("El estado debe contar todas las frutas", 11, nivel4.getGameState().getTotalFruits());
+		assertTrue("Debe haber enemigos", nivel4.getEnemies().size() > 0);
+		for (Enemy enemigo : nivel4.getEnemies()) {
+			assertTrue("Enemigo sobre casilla libre", map.isWalkable(enemigo.getColumn(), enemigo.getRow()));
+			assertFalse("Ningún enemigo empieza sobre el jugador",
+					enemigo.getRow() == nivel4.getPlayer().getRow() && enemigo.getColumn() == nivel4.getPlayer().getColumn());
+		}
+		for (Fruit fruta : nivel4.getFruits()) {
+			assertTrue("Fruta sobre casilla libre", map.isWalkable(fruta.getColumn(), fruta.getRow()));
+		}
+	}
 }
\ No newline at end of file
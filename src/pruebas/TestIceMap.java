@@ -191,4 +191,283 @@ public class TestIceMap {
         assertTrue("Los bordes deben mantener el hielo", map.hasIce(0, 0));
         assertTrue("Los bordes deben mantener el hielo", map.hasIce(19, 14));
     }
+    
+    /**
+     * Prueba 11: Verificar que fillIceLine crea hielo hasta el primer bloque
+     */
+    @Test
+    public void testFillIceLineSeDetieneEnHielo() {
+        map.toggleIce(12, 7);
+        assertEquals("El siguiente hielo está a 7 pasos", 7, map.nextIceAlong(5, 7, 1, 0));
+        
+        int creados = map.fillIceLine(5, 7, 1, 0, 20);
+        
+        assertEquals("Deben cubrirse 7 casillas", 7, creados);
+        assertTrue("Debe haber hielo al inicio de la línea", map.hasIce(5, 7));
+        assertTrue("Debe haber hielo al final de la línea", map.hasIce(11, 7));
+    }
+    
+    /**
+     * Prueba 12: Verificar que clearIceLine destruye la fila consecutiva de hielo
+     */
+    @Test
+    public void testClearIceLineDestruyeBloquesConsecutivos() {
+        map.addHotTile(new HotTile(3, 10));
+        map.fillIceLine(10, 1, 0, 1, 5);
+        
+        assertFalse("El hielo se derrite en la baldosa caliente", map.hasIce(10, 3));
+        
+        int destruidos = map.clearIceLine(10, 4, 0, 1);
+        
+        assertEquals("Deben destruirse 2 bloques", 2, destruidos);
+        assertFalse("No debe quedar hielo", map.hasIce(10, 5));
+        assertTrue("El hielo antes de la baldosa sigue intacto", map.hasIce(10, 2));
+    }
+    
+    /**
+     * Prueba 13: Verificar que la capa de tipos de casilla refleja los obstáculos
+     */
+    @Test
+    public void testTileKindRefleaObstaculos() {
+        Firepit firepit = new Firepit(4, 9);
+        map.addFirepit(firepit);
+        map.addHotTile(new HotTile(4, 10));
+        map.addIgloo(new Igloo(8, 8, 2, 2));
+        
+        assertEquals("Debe marcar la fogata", IceMap.TILE_FIREPIT, map.getTileKind(9, 4));
+        assertEquals("Debe marcar la baldosa caliente", IceMap.TILE_HOT_TILE, map.getTileKind(10, 4));
+        assertEquals("Debe marcar todo el iglú", IceMap.TILE_IGLOO, map.getTileKind(9, 9));
+        assertSame("Debe devolver la fogata de la casilla", firepit, map.getFirepitAt(9, 4));
+        
+        map.clearObstacles();
+        
+        assertEquals("La casilla debe quedar libre", IceMap.TILE_NONE, map.getTileKind(9, 9));
+        assertNull("No debe quedar fogata", map.getFirepitAt(9, 4));
+    }
+    
+    /**
+     * Prueba 14: Verificar que el modo por bloques se comporta igual que el denso
+     */
+    @Test
+    public void testMapaPorBloquesMantieneSemantica() {
+        IceMap chunked = new IceMap(150, 90, true);
+        
+        assertTrue("El mapa debe usar bloques", chunked.isChunked());
+        assertTrue("Los bordes deben tener hielo", chunked.hasIce(149, 45));
+        assertTrue("El interior debe ser caminable", chunked.isWalkable(70, 45));
+        
+        chunked.addIgloo(new Igloo(40, 100, 2, 2));
+        chunked.fillIceLine(1, 40, 1, 0, 150);
+        
+        assertTrue("Debe haber hielo antes del iglú", chunked.hasIce(99, 40));
+        assertFalse("El iglú no se congela", chunked.hasIce(100, 40));
+        assertTrue("La línea continúa después del iglú", chunked.hasIce(120, 40));
+        assertFalse("El iglú no es caminable", chunked.isWalkable(101, 41));
+    }
+    
+    /**
+     * Prueba 15: Verificar que el muestreo aleatorio solo devuelve casillas caminables
+     */
+    @Test
+    public void testRandomWalkableCellSiempreEsCaminable() {
+        java.util.Random random = new java.util.Random(7);
+        assertEquals("El interior libre tiene 18x13 casillas", 18 * 13, map.countWalkableCells());
+        
+        map.addIgloo(new Igloo(2, 2, 2, 2));
+        for (int y = 1; y < 14; y++) {
+            map.fillIceLine(1, y, 1, 0, 20);
+        }
+        map.toggleIce(10, 7);
+        
+        assertEquals("Solo debe quedar una casilla libre", 1, map.countWalkableCells());
+        assertEquals("Debe devolver la única casilla libre", 7 * 20 + 10, map.randomWalkableCell(random));
+    }
+    
+    /**
+     * Prueba 16: Verificar que el diario de cambios repite solo lo que cambió
+     */
+    @Test
+    public void testDrainChangesRepiteLosCambios() {
+        long inicio = map.getVersion();
+        map.toggleIce(5, 5);
+        map.toggleIce(5, 5);
+        
+        final int[] cambios = new int[1];
+        final boolean[] reinicio = new boolean[1];
+        IceMapListener lector = new IceMapListener() {
+            @Override
+            public void tileChanged(int x, int y, byte oldState, byte newState, long version) {
+                assertEquals("El cambio debe ser de la casilla tocada", 5, x);
+                cambios[0]++;
+            }
+            
+            @Override
+            public void mapReset(long version) {
+                reinicio[0] = true;
+            }
+        };
+        long version = map.drainChanges(inicio, lector);
+        
+        assertEquals("Deben repetirse los dos cambios", 2, cambios[0]);
+        assertEquals("Debe devolver la versión actual", map.getVersion(), version);
+        assertEquals("Sin hielo el estado debe quedar vacío", IceMap.TILE_NONE, map.getCellState(5, 5));
+        
+        map.clearObstacles();
+        map.drainChanges(version, lector);
+        assertTrue("Tras limpiar el mapa debe avisar un reinicio", reinicio[0]);
+    }
+    
+    /**
+     * Prueba 17: Verificar que una instantánea no cambia y permite volver atrás
+     */
+    @Test
+    public void testSnapshotYRestore() {
+        map.toggleIce(5, 5);
+        IceMapSnapshot antes = map.snapshot();
+        
+        map.toggleIce(5, 5);
+        map.fillIceLine(2, 8, 1, 0, 6);
+        
+        assertTrue("La instantánea debe conservar el hielo", antes.hasIce(5, 5));
+        assertFalse("La instantánea no debe ver el hielo nuevo", antes.hasIce(3, 8));
+        
+        map.restore(antes);
+        assertTrue("Debe volver el hielo de la instantánea", map.hasIce(5, 5));
+        assertFalse("Debe desaparecer el hielo posterior", map.hasIce(3, 8));
+        assertEquals("Las casillas libres deben coincidir", 18 * 13 - 1, map.countWalkableCells());
+    }
+    
+    /**
+     * Prueba 18: Verificar que las regiones se separan y se unen con el hielo
+     */
+    @Test
+    public void testRegionesConHielo() {
+        assertTrue("Sin hielo todo el interior está conectado", map.sameRegion(1, 1, 18, 13));
+        assertEquals("La región debe cubrir todo el interior", 18 * 13, map.regionSize(1, 1));
+        
+        // Un muro vertical parte el mapa en dos
+        map.fillIceLine(10, 1, 0, 1, 13);
+        assertFalse("El muro debe separar las regiones", map.sameRegion(1, 1, 18, 13));
+        assertEquals("La región izquierda tiene 9 columnas", 9 * 13, map.regionSize(1, 1));
+        
+        map.toggleIce(10, 7);
+        assertTrue("Abrir un hueco debe unir las regiones", map.sameRegion(1, 1, 18, 13));
+        assertEquals("Las casillas de hielo no pertenecen a ninguna región", 0, map.regionSize(10, 1));
+    }
+    
+    /**
+     * Prueba 19: Verificar que un mapa fuera del heap se guarda y se carga igual
+     */
+    @Test
+    public void testMapaFueraDelHeapSeGuardaYCarga() throws java.io.IOException {
+        IceMap offHeap = IceMap.createOffHeap(20, 15);
+        offHeap.fillIceLine(2, 4, 1, 0, 5);
+        offHeap.addFirepit(new Firepit(8, 8));
+        offHeap.addIgloo(new Igloo(10, 10, 2, 2));
+        
+        java.nio.file.Path archivo = java.nio.file.Files.createTempFile("mapa", ".icemap");
+        try {
+            try (java.nio.channels.FileChannel canal = java.nio.channels.FileChannel.open(archivo,
+                    java.nio.file.StandardOpenOption.WRITE)) {
+                offHeap.writeTo(canal);
+            }
+            IceMap cargado;
+            try (java.nio.channels.FileChannel canal = java.nio.channels.FileChannel.open(archivo)) {
+                cargado = IceMap.readFrom(canal);
+            }
+            
+            assertTrue("Debe ser un mapa fuera del heap", cargado.isOffHeap());
+            assertTrue("Debe conservar el hielo", cargado.hasIce(4, 4));
+            assertFalse("Debe conservar la fogata", cargado.isSafeForPlayer(8, 8));
+            assertFalse("Debe conservar el iglú", cargado.isWalkable(11, 11));
+            assertEquals("Debe conservar la lista de fogatas", 1, cargado.getFirepits().size());
+        } finally {
+            java.nio.file.Files.delete(archivo);
+        }
+    }
+    
+    /**
+     * Prueba 20: Verificar que el constructor de mapas no borra hielo repetido
+     */
+    @Test
+    public void testBuilderNoBorraHieloRepetido() {
+        IceMap construido = new IceMapBuilder(20, 15)
+                .addIceRect(3, 3, 2, 2)
+                .addIce(3, 3)
+                .addIceLine(2, 8, 1, 0, 4)
+                .stamp(10, 10, "X.", "XX")
+                .addHotTile(new HotTile(8, 3))
+                .build();
+        
+        assertTrue("Repetir una casilla no debe borrar el hielo", construido.hasIce(3, 3));
+        assertTrue("La línea debe llegar a su última casilla", construido.hasIce(5, 8));
+        assertTrue("El hielo queda debajo de la baldosa caliente", construido.hasIce(3, 8));
+        assertFalse("Los huecos del patrón quedan libres", construido.hasIce(11, 10));
+        assertTrue("Los bordes se siguen generando", construido.hasIce(0, 0));
+    }
+    
+    /**
+     * Prueba 21: Verificar que el constructor rechaza hielo sobre una fogata
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderRechazaHieloSobreFogata() {
+        new IceMapBuilder(20, 15).addIce(5, 5).addFirepit(new Firepit(5, 5)).build();
+    }
+    
+    /**
+     * Prueba 22: Verificar que una fogata restaurada puede quedar bajo hielo
+     */
+    @Test
+    public void testBuilderRestauraFogataBajoHielo() {
+        IceMap construido = new IceMapBuilder(20, 15).addIce(5, 5)
+                .restoreFirepit(new Firepit(5, 5, false, 12)).build();
+        
+        assertTrue("El hielo sigue sobre la fogata", construido.hasIce(5, 5));
+        Firepit fogata = construido.getFirepitAt(5, 5);
+        assertNotNull("La fogata sigue en su casilla", fogata);
+        assertFalse("La fogata sigue apagada", fogata.isLit());
+        assertEquals("Conserva el tiempo apagada", 12, fogata.getExtinguishTimer());
+    }
+    
+    /**
+     * Prueba 23: Verificar que una casilla con fogatas apiladas solo es segura
+     * cuando todas están apagadas
+     */
+    @Test
+    public void testFogatasApiladasCuentanEncendidas() {
+        Firepit primera = new Firepit(5, 5);
+        Firepit segunda = new Firepit(5, 5);
+        map.addFirepit(primera);
+        map.addFirepit(segunda);
+        
+        map.toggleIce(5, 5); // apaga solo la primera
+        assertFalse("La primera fogata debe apagarse", primera.isLit());
+        assertFalse("La segunda fogata sigue quemando", map.isSafeForPlayer(5, 5));
+        
+        segunda.extinguish();
+        assertTrue("Con las dos apagadas la casilla es segura", map.isSafeForPlayer(5, 5));
+        assertEquals("El tipo de casilla no cambia", IceMap.TILE_FIREPIT, map.getTileKind(5, 5));
+        assertEquals("La casilla se ve apagada", IceMap.TILE_FIREPIT | IceMap.TILE_FIRE_OUT, map.getCellState(5, 5));
+        
+        IceMap copia = new IceMap(20, 15);
+        map.copyInto(copia);
+        assertTrue("La copia también es segura", copia.isSafeForPlayer(5, 5));
+        
+        for (int i = 0; i < 100; i++) {
+            map.updateObstacles();
+        }
+        assertFalse("Al reencenderse vuelven a quemar", map.isSafeForPlayer(5, 5));
+        assertTrue("La copia lleva sus propias fogatas", copia.isSafeForPlayer(5, 5));
+    }
+    
+    /**
+     * Prueba 24: Verificar que no se apilan más fogatas de las que caben en una
+     * casilla
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRechazaDemasiadasFogatasApiladas() {
+        for (int i = 0; i <= IceMap.MAX_FIREPITS_PER_TILE; i++) {
+            map.addFirepit(new Firepit(5, 5));
+        }
+    }
 }
\ No newline at end of file
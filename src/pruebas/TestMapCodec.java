@@ -0,0 +1,263 @@
+package pruebas;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import dominio.*;
+import persistencia.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Unit tests for the compact map codec and the saves that use it.
+ *
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class TestMapCodec {
+
+	/**
+	 * Test 1: The maps of the three levels come back the same
+	 */
+	@Test
+	public void testLevelsRoundTrip() throws IOException {
+		for (int level = 1; level <= 3; level++) {
+			IceMap map = new Game(level).getMap();
+			assertSameMap(map, MapCodec.decode(MapCodec.encode(map)), "Nivel " + level);
+		}
+	}
+
+	/**
+	 * Test 2: Border walls shot out by the players stay open
+	 */
+	@Test
+	public void testShotOutBorderWalls() throws IOException {
+		IceMap map = new IceMap(20, 15);
+		map.toggleIce(0, 7);
+		map.toggleIce(19, 0);
+		map.toggleIce(5, 14);
+
+		IceMap decoded = MapCodec.decode(MapCodec.encode(map));
+		assertSameMap(map, decoded, "Bordes rotos");
+		assertFalse(decoded.hasIce(0, 7), "El borde izquierdo roto sigue abierto");
+		assertTrue(decoded.hasIce(0, 6), "El resto del borde sigue en pie");
+	}
+
+	/**
+	 * Test 3: Ice left on a firepit that is out keeps the firepit and its
+	 * relight timer
+	 */
+	@Test
+	public void testIceUnderFirepitThatIsOut() throws IOException {
+		IceMap map = new IceMap(20, 15);
+		map.toggleIce(6, 5);
+		map.addFirepit(new Firepit(5, 6, false, 37));
+		map.addFirepit(new Firepit(9, 9));
+
+		IceMap decoded = MapCodec.decode(MapCodec.encode(map));
+		assertSameMap(map, decoded, "Fogata bajo hielo");
+		assertTrue(decoded.hasIce(6, 5), "El hielo sigue sobre la fogata");
+		Firepit firepit = decoded.getFirepitAt(6, 5);
+		assertNotNull(firepit, "La fogata sigue bajo el hielo");
+		assertFalse(firepit.isLit(), "La fogata sigue apagada");
+		assertEquals(37, firepit.getExtinguishTimer(), "Conserva el tiempo apagada");
+		assertTrue(decoded.getFirepitAt(9, 9).isLit(), "La otra fogata sigue encendida");
+	}
+
+	/**
+	 * Test 4: Igloos of any size and hot tiles, with ice under them
+	 */
+	@Test
+	public void testIgloosAndHotTiles() throws IOException {
+		IceMap map = new IceMap(20, 15);
+		map.fillIceLine(2, 2, 1, 0, 6);
+		map.addIgloo(new Igloo(2, 3, 3, 2));
+		map.addIgloo(new Igloo(10, 10));
+		map.addHotTile(new HotTile(7, 7));
+		map.addHotTile(new HotTile(2, 12));
+
+		IceMap decoded = MapCodec.decode(MapCodec.encode(map));
+		assertSameMap(map, decoded, "Iglús y baldosas calientes");
+		assertEquals(3, decoded.getIgloos().get(0).getWidth(), "Conserva el ancho del iglú");
+		assertEquals(2, decoded.getIgloos().get(0).getHeight(), "Conserva el alto del iglú");
+		assertTrue(decoded.hasHotTile(7, 7), "Conserva la baldosa caliente");
+	}
+
+	/**
+	 * Test 5: A huge, mostly empty board is chunked again and takes a few
+	 * bytes
+	 */
+	@Test
+	public void testLargeSparseChunkedMap() throws IOException {
+		IceMap map = new IceMap(3000, 2000);
+		assertTrue(map.isChunked(), "El tablero grande debe ir por bloques");
+		map.fillIceLine(100, 100, 1, 0, 500);
+		map.fillIceLine(2500, 10, 0, 1, 1500);
+		for (int i = 0; i < 40; i++) {
+			map.toggleIce(700 + 3 * i, 1200 + i);
+		}
+		map.toggleIce(0, 1000);
+		map.addFirepit(new Firepit(1500, 1500));
+		map.addIgloo(new Igloo(1800, 2900, 4, 4));
+
+		byte[] data = MapCodec.encode(map);
+		IceMap decoded = MapCodec.decode(data);
+		assertTrue(decoded.isChunked(), "El mapa leído también va por bloques");
+		// Los bordes y la línea vertical cuestan unos bytes por fila; los bits sueltos serían 750 KB
+		assertTrue(data.length < 3000 * 2000 / 8 / 32, "Un mapa disperso ocupa poco: " + data.length + " bytes");
+		assertSameMap(map, decoded, "Mapa grande");
+	}
+
+	/**
+	 * Test 6: Cut, damaged or foreign data is rejected with an IOException
+	 */
+	@Test
+	public void testTruncatedOrCorruptInput() {
+		byte[] data = MapCodec.encode(new Game(2).getMap());
+		for (int length = 0; length < data.length; length++) {
+			byte[] cut = Arrays.copyOf(data, length);
+			assertThrows(IOException.class, () -> MapCodec.decode(cut), "Datos cortados en " + length);
+		}
+
+		byte[] badMagic = data.clone();
+		badMagic[0] ^= 0x55;
+		assertThrows(IOException.class, () -> MapCodec.decode(badMagic), "Cabecera ajena");
+
+		byte[] badVersion = data.clone();
+		badVersion[4] = 99;
+		assertThrows(IOException.class, () -> MapCodec.decode(badVersion), "Versión desconocida");
+
+		byte[] zeroWidth = data.clone();
+		zeroWidth[5] = 0;
+		assertThrows(IOException.class, () -> MapCodec.decode(zeroWidth), "Ancho nulo");
+
+		// Una corrida más larga que el tablero
+		byte[] longRun = Arrays.copyOf(data, 10);
+		longRun[7] = (byte) 0xFC;
+		longRun[8] = (byte) 0xFF;
+		longRun[9] = 0x7F;
+		assertThrows(IOException.class, () -> MapCodec.decode(longRun), "Corrida fuera del tablero");
+
+		assertThrows(IOException.class, () -> MapCodec.decode(new byte[] { 1, 2, 3, 4, 5, 6 }), "Basura");
+	}
+
+	/**
+	 * Test 7: A save from before the compact format, with only the ice grid,
+	 * still loads its ice
+	 */
+	@Test
+	public void testLoadsOldSaveWithIceGrid() throws Exception {
+		IceMap original = new Game(1).getMap();
+		original.toggleIce(0, 7);
+		boolean[][] iceGrid = new boolean[original.getHeight()][original.getWidth()];
+		for (int y = 0; y < original.getHeight(); y++) {
+			for (int x = 0; x < original.getWidth(); x++) {
+				iceGrid[y][x] = original.hasIce(x, y);
+			}
+		}
+		GameData data = new GameData();
+		data.setCurrentLevel(1);
+		data.setPlayerRow(7);
+		data.setPlayerColumn(10);
+		data.setTimeRemaining(180);
+		data.setTotalFruits(16);
+		data.setMapWidth(original.getWidth());
+		data.setMapHeight(original.getHeight());
+		data.setIceGrid(iceGrid);
+
+		String name = "prueba_formato_antiguo";
+		File file = new File("saves/" + name + ".poob");
+		file.getParentFile().mkdirs();
+		try {
+			try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+				out.writeObject(data);
+			}
+			IceMap loaded = GameLoader.loadGame(name).getMap();
+			for (int y = 0; y < original.getHeight(); y++) {
+				for (int x = 0; x < original.getWidth(); x++) {
+					assertEquals(original.hasIce(x, y), loaded.hasIce(x, y), "Hielo en " + x + "," + y);
+				}
+			}
+		} finally {
+			file.delete();
+			file.getParentFile().delete(); // solo si quedó vacía
+		}
+	}
+
+	/**
+	 * Test 8: A save in the compact format keeps the ice and the obstacles
+	 */
+	@Test
+	public void testSaveAndLoadUseTheCodec() throws Exception {
+		Game game = new Game(2);
+		game.setFruits(new ArrayList<>()); // solo interesa el mapa
+		game.getMap().toggleIce(19, 5);
+		game.getMap().getFirepits().get(0).extinguish();
+
+		String name = "prueba_formato_compacto";
+		File file = new File("saves/" + name + ".poob");
+		try {
+			GameSaver.saveGame(game, name);
+			assertSameMap(game.getMap(), GameLoader.loadGame(name).getMap(), "Partida guardada");
+		} finally {
+			file.delete();
+			file.getParentFile().delete(); // solo si quedó vacía
+		}
+	}
+
+	/**
+	 * Test 9: A game on an off-heap map is saved with its map in a separate
+	 * file and loads back off the heap
+	 */
+	@Test
+	public void testSaveAndLoadOffHeapMap() throws Exception {
+		IceMap offHeap = new IceMapBuilder(20, 15).setOffHeap(true).addIceLine(4, 7, 1, 0, 12)
+				.addIgloo(new Igloo(2, 2, 2, 2)).addHotTile(new HotTile(10, 10)).addFirepit(new Firepit(12, 5)).build();
+		offHeap.toggleIce(0, 3);
+		offHeap.getFirepits().get(0).extinguish();
+		Game game = new Game(2);
+		game.setFruits(new ArrayList<>()); // solo interesa el mapa
+		game.setMap(offHeap);
+
+		String name = "prueba_fuera_del_heap";
+		File file = new File("saves/" + name + ".poob");
+		File mapFile = new File("saves/" + name + ".icemap");
+		try {
+			GameSaver.saveGame(game, name);
+			assertTrue(mapFile.exists(), "El mapa debe ir en su propio archivo");
+			IceMap loaded = GameLoader.loadGame(name).getMap();
+			assertTrue(loaded.isOffHeap(), "El mapa cargado debe seguir fuera del heap");
+			assertSameMap(offHeap, loaded, "Partida fuera del heap");
+		} finally {
+			file.delete();
+			mapFile.delete();
+			file.getParentFile().delete(); // solo si quedó vacía
+		}
+	}
+
+	/**
+	 * Checks that two maps have the same tiles and the same firepits.
+	 */
+	private static void assertSameMap(IceMap expected, IceMap actual, String message) {
+		assertEquals(expected.getWidth(), actual.getWidth(), message + ": ancho");
+		assertEquals(expected.getHeight(), actual.getHeight(), message + ": alto");
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				if (expected.getCellState(x, y) != actual.getCellState(x, y))
+					fail(message + ": casilla " + x + "," + y + " vale " + actual.getCellState(x, y) + " y no "
+							+ expected.getCellState(x, y));
+			}
+		}
+		assertEquals(expected.getIgloos().size(), actual.getIgloos().size(), message + ": iglús");
+		assertEquals(expected.getHotTiles().size(), actual.getHotTiles().size(), message + ": baldosas calientes");
+		assertEquals(expected.getFirepits().size(), actual.getFirepits().size(), message + ": fogatas");
+		for (int i = 0; i < expected.getFirepits().size(); i++) {
+			Firepit before = expected.getFirepits().get(i);
+			Firepit after = actual.getFirepits().get(i);
+			assertEquals(before.isLit(), after.isLit(), message + ": fogata " + i + " encendida");
+			assertEquals(before.getExtinguishTimer(), after.getExtinguishTimer(), message + ": fogata " + i);
+		}
+	}
+}
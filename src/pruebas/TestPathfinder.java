@@ -0,0 +1,173 @@
+package pruebas;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import dominio.*;
+
+/**
+ * Unit tests for the pathfinders. Tests path shape, cost, blocked goals and
+ * reuse of one pathfinder across queries.
+ * 
+ * @authors Alejandra Beltran - Adrian Ducuara
+ */
+public class TestPathfinder {
+
+	private IceMap map;
+	private Pathfinder pathfinder;
+
+	@BeforeEach
+	public void setUp() {
+		// Pared vertical con un hueco abajo
+		map = new IceMapBuilder(20, 15).addIceLine(10, 1, 0, 1, 11).build();
+		pathfinder = new AStarPathfinder();
+	}
+
+	/**
+	 * Test 1: Path goes around the wall through the gap
+	 */
+	@Test
+	public void testPathAroundWall() {
+		assertTrue(pathfinder.findPath(map, 5, 5, 15, 5), "Debe existir un camino");
+		assertEquals(5, pathfinder.getPathX(0), "El camino debe empezar en el inicio");
+		assertEquals(5, pathfinder.getPathY(0), "El camino debe empezar en el inicio");
+		int last = pathfinder.getPathLength() - 1;
+		assertEquals(15, pathfinder.getPathX(last), "El camino debe terminar en la meta");
+		assertEquals(5, pathfinder.getPathY(last), "El camino debe terminar en la meta");
+		assertEquals(24, pathfinder.getPathCost(), "El camino más corto rodea la pared por el hueco");
+		assertEquals(pathfinder.getPathCost() + 1, pathfinder.getPathLength(), "Cada paso cuesta un tick");
+	}
+
+	/**
+	 * Test 2: Consecutive tiles of a path are neighbours and walkable
+	 */
+	@Test
+	public void testPathIsConnected() {
+		assertTrue(pathfinder.findPath(map, 2, 2, 17, 12));
+		for (int i = 1; i < pathfinder.getPathLength(); i++) {
+			int dx = Math.abs(pathfinder.getPathX(i) - pathfinder.getPathX(i - 1));
+			int dy = Math.abs(pathfinder.getPathY(i) - pathfinder.getPathY(i - 1));
+			assertEquals(1, dx + dy, "Cada paso debe ser a una casilla vecina");
+			assertTrue(map.isWalkable(pathfinder.getPathX(i), pathfinder.getPathY(i)), "El camino no debe pisar hielo");
+		}
+	}
+
+	/**
+	 * Test 3: No path to an ice tile or to an enclosed area
+	 */
+	@Test
+	public void testNoPath() {
+		assertFalse(pathfinder.findPath(map, 5, 5, 10, 5), "No debe haber camino hacia el hielo");
+		assertEquals(0, pathfinder.getPathLength(), "Sin camino no hay casillas");
+		assertEquals(-1, pathfinder.getPathCost(), "Sin camino el costo es -1");
+
+		map.fillIceLine(10, 12, 0, 1, 2); // Cerrar el hueco
+		assertFalse(pathfinder.findPath(map, 5, 5, 15, 5), "La pared cerrada debe separar los lados");
+	}
+
+	/**
+	 * Test 4: Breaking ice is chosen when it is cheaper than the detour
+	 */
+	@Test
+	public void testBreakingIceCost() {
+		Pathfinder digger = new AStarPathfinder(PathCost.breakingIce(3), PathHeuristic.MANHATTAN);
+		assertTrue(digger.findPath(map, 5, 5, 15, 5));
+		assertEquals(12, digger.getPathCost(), "Debe romper la pared: 9 pasos libres y 3 ticks de hielo");
+	}
+
+	/**
+	 * Test 5: One pathfinder answers several queries on different maps
+	 */
+	@Test
+	public void testReuse() {
+		assertTrue(pathfinder.findPath(map, 5, 5, 15, 5));
+		IceMap open = new IceMap(30, 30);
+		assertTrue(pathfinder.findPath(open, 1, 1, 28, 28));
+		assertEquals(54, pathfinder.getPathCost(), "En un mapa vacío el costo es la distancia Manhattan");
+		assertTrue(pathfinder.findPath(map, 5, 5, 15, 5));
+		assertEquals(24, pathfinder.getPathCost(), "Las consultas anteriores no deben afectar el resultado");
+	}
+
+	/**
+	 * Test 6: Jump point search finds paths as short as A*
+	 */
+	@Test
+	public void testJumpPointMatchesAStar() {
+		Pathfinder jump = new JumpPointPathfinder();
+		IceMap maze = new IceMapBuilder(20, 15).stamp(3, 3, "XXXX.XXXX", "X.......X", "X.XXXXX.X", "X.......X",
+				"XXXX.XXXX").addIgloo(new Igloo(10, 14, 2, 2)).build();
+		int[][] queries = { { 1, 1, 18, 13 }, { 7, 4, 16, 2 }, { 4, 4, 10, 12 }, { 18, 1, 1, 13 } };
+		for (int[] query : queries) {
+			assertTrue(pathfinder.findPath(maze, query[0], query[1], query[2], query[3]));
+			assertTrue(jump.findPath(maze, query[0], query[1], query[2], query[3]), "JPS debe encontrar el camino");
+			assertEquals(pathfinder.getPathCost(), jump.getPathCost(), "JPS debe dar un camino igual de corto");
+			assertEquals(jump.getPathCost() + 1, jump.getPathLength(), "El camino de JPS debe incluir cada casilla");
+		}
+	}
+
+	/**
+	 * Test 7: Hierarchical paths are walkable, close to the shortest one and
+	 * follow changes of the map
+	 */
+	@Test
+	public void testHierarchicalPath() {
+		Pathfinder hierarchical = new HierarchicalPathfinder(5);
+		assertTrue(hierarchical.findPath(map, 5, 5, 15, 5), "Debe existir un camino");
+		assertTrue(hierarchical.getPathCost() >= 24, "No puede ser más corto que el camino óptimo");
+		assertTrue(hierarchical.getPathCost() <= 30, "Debe ser cercano al camino óptimo");
+		assertEquals(hierarchical.getPathCost() + 1, hierarchical.getPathLength(), "Cada paso cuesta un tick");
+		for (int i = 1; i < hierarchical.getPathLength(); i++) {
+			int dx = Math.abs(hierarchical.getPathX(i) - hierarchical.getPathX(i - 1));
+			int dy = Math.abs(hierarchical.getPathY(i) - hierarchical.getPathY(i - 1));
+			assertEquals(1, dx + dy, "Cada paso debe ser a una casilla vecina");
+			assertTrue(map.isWalkable(hierarchical.getPathX(i), hierarchical.getPathY(i)), "El camino no debe pisar hielo");
+		}
+		assertEquals(15, hierarchical.getPathX(hierarchical.getPathLength() - 1), "El camino debe terminar en la meta");
+
+		map.fillIceLine(10, 12, 0, 1, 2); // Cerrar el hueco
+		assertFalse(hierarchical.findPath(map, 5, 5, 15, 5), "El grafo debe notar la pared cerrada");
+		map.toggleIce(10, 5); // Romper la pared en la fila de la consulta
+		assertTrue(hierarchical.findPath(map, 5, 5, 15, 5), "El grafo debe notar el nuevo hueco");
+		assertTrue(pathfinder.findPath(map, 5, 5, 15, 5));
+		assertTrue(hierarchical.getPathCost() >= pathfinder.getPathCost(), "No puede ser más corto que A*");
+	}
+
+	/**
+	 * Test 8: Repeated queries are answered by the cache and counted
+	 */
+	@Test
+	public void testPathCacheHits() {
+		PathCache cache = new PathCache(2);
+		assertTrue(cache.findPath(pathfinder, map, 5, 5, 15, 5));
+		assertTrue(cache.findPath(pathfinder, map, 5, 5, 15, 5));
+		assertEquals(1, cache.getMisses(), "La primera consulta debe buscar");
+		assertEquals(1, cache.getHits(), "La segunda consulta debe salir del caché");
+		assertEquals(24, cache.getPathCost(), "El camino guardado conserva su costo");
+		assertEquals(25, cache.getPathLength(), "El camino guardado conserva sus casillas");
+		assertEquals(15, cache.getPathX(24), "El camino guardado termina en la meta");
+
+		cache.findPath(pathfinder, map, 1, 1, 2, 2);
+		cache.findPath(pathfinder, map, 3, 3, 4, 4);
+		assertEquals(2, cache.size(), "El caché no debe pasar de su capacidad");
+		assertEquals(1, cache.getEvictions(), "Debe salir la entrada usada hace más tiempo");
+		cache.findPath(pathfinder, map, 5, 5, 15, 5);
+		assertEquals(4, cache.getMisses(), "La consulta desalojada debe buscar de nuevo");
+	}
+
+	/**
+	 * Test 9: Only map changes near a cached path invalidate it
+	 */
+	@Test
+	public void testPathCacheInvalidation() {
+		PathCache cache = new PathCache();
+		assertTrue(cache.findPath(pathfinder, map, 2, 2, 5, 2));
+		map.toggleIce(17, 12); // Lejos del camino
+		assertTrue(cache.findPath(pathfinder, map, 2, 2, 5, 2));
+		assertEquals(1, cache.getHits(), "Un cambio lejano no debe invalidar el camino");
+
+		map.toggleIce(3, 2); // Sobre el camino
+		assertTrue(cache.findPath(pathfinder, map, 2, 2, 5, 2));
+		assertEquals(1, cache.getInvalidations(), "Un cambio sobre el camino debe invalidarlo");
+		assertEquals(5, cache.getPathCost(), "El camino nuevo debe rodear el hielo");
+	}
+}